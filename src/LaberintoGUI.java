@@ -1,43 +1,115 @@
+import algorithms.BusquedaMultiObjetivo;
 import algorithms.CaminoMasCorto;
+import algorithms.ControlBusqueda;
+import algorithms.DStarLite;
+import algorithms.EstadoBusqueda;
 import algorithms.Recorridos;
-import grafo.Grafo;
-import models.Nodo;
+import algorithms.ResultadoBusqueda;
+import grafo.GrafoLectura;
+import grafo.GrafoVersionado;
+import utils.CacheGrafos;
+import utils.ExportadorMatrices;
 import utils.LaberintoParser;
+import utils.LineaTiempo;
+import utils.PiramideConteo;
 
 import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import utils.MatrizDispersa;
 import utils.MatrizesGrafo;
 
 /**
  * Interfaz gráfica sencilla para seleccionar un archivo de laberinto
  * y visualizar la animación de los algoritmos (camino más corto y recorridos).
+ * La carga y las búsquedas corren fuera del EDT (SwingWorker): la ventana
+ * sigue respondiendo, se pueden cancelar y la animación empieza con las
+ * primeras visitas, sin esperar a que la búsqueda termine.
+ * Clic derecho sobre el mapa alterna una celda: cada edición publica una
+ * versión nueva (GrafoVersionado) y las búsquedas ya lanzadas siguen con
+ * la instantánea que tomaron; los resultados indican su versión.
  */
 public class LaberintoGUI extends JFrame {
-    private LaberintoParser parser;
-    private Grafo grafo;
+    private static final long TIEMPO_MAXIMO_MS = 10_000; // Límite de cada búsqueda
+    private static final int VISITAS_POR_BLOQUE = 512; // Visitas por envío al EDT...
+    private static final long INTERVALO_ENVIO_NS = 16_000_000L; // ...o antes si pasaron ~16 ms
+    private static final int INTERVALO_FRAME_MS = 16; // Modo rápido: un frame cada ~16 ms (~60 fps)
+    private static final int DURACION_RAPIDA_S = 10; // Modo rápido: duración objetivo por defecto
+    private static final String[] ALGORITMOS = {
+        "Camino más corto (A->B)",
+        "DFS - Preorden",
+        "DFS - Inorden",
+        "DFS - Postorden",
+        "BFS",
+        "Greedy (A->B)",
+        "BFS (salida más cercana)",
+        "A* (salida más cercana)",
+        "D* Lite (A->B)"
+    };
+    // Algoritmos cuyo resultado es un camino A->B (los demás dan el orden de visita)
+    private static final Set<String> ALGORITMOS_CON_CAMINO = new HashSet<>(Arrays.asList(
+            "Camino más corto (A->B)", "BFS (salida más cercana)", "A* (salida más cercana)", "D* Lite (A->B)"));
+    private static final Set<String> ALGORITMOS_CARRERA_INICIALES = new HashSet<>(Arrays.asList(
+            "BFS", "DFS - Preorden", "Greedy (A->B)", "A* (salida más cercana)"));
+
+    private char[][] mapa; // Mapa de la versión mostrada (una edición copia solo la fila que cambia)
+    private GrafoLectura grafo; // Grafo cargado o, tras editar, la última instantánea publicada
+    private GrafoVersionado versionado; // Ediciones de celdas (null hasta la primera edición del mapa)
     private CaminoMasCorto caminoMasCorto;
     private Recorridos recorridos;
+    private CacheGrafos cache = new CacheGrafos(); // Grafos ya construidos, por contenido
+    private PiramideConteo paredesMapa; // Paredes por bloque del mapa cargado (compartida por los paneles)
 
     private MazePanel mazePanel;
     private JLabel infoLabel;
     private JComboBox<String> algoritmoCombo;
     private JSlider speedSlider;
+    private JCheckBox rapidoCheck; // Modo rápido: N pasos por frame según la duración objetivo
+    private JSpinner duracionSpinner; // Duración objetivo del modo rápido (s)
+    private long finReproduccionNs; // Modo rápido: instante en que debería mostrarse el último paso
     private Timer timer;
-    private List<Integer> sequence; // secuencia a animar
+    private LineaTiempo linea; // orden de visita a animar (crece mientras la búsqueda avanza)
     private List<Integer> finalPath; // camino final (para CaminoMasCorto)
     private int stepIndex;
     private boolean isPaused = false; // Control de pausa
     private JButton pauseResumeBtn; // Botón de pausa/reanudación
     private JButton anteriorBtn; // Botón paso anterior
     private JButton siguienteBtn; // Botón paso siguiente
+    private ControlBusqueda controlActual; // Control de la búsqueda en curso (cancelable)
+    private SwingWorker<?, ?> trabajoActual; // Carga o búsqueda en segundo plano (null si no hay)
+    private boolean busquedaEnCurso; // La secuencia todavía puede crecer
+    private JProgressBar progreso; // Estado de la tarea en segundo plano
+    private JButton cancelarBtn; // Cancela la carga o la búsqueda en curso
+    private JSlider lineaSlider; // Salto directo a cualquier paso del recorrido
+    private JLabel pasoLabel; // "Paso x / n"
+    private boolean moviendoSlider; // El slider lo mueve el código, no el usuario
 
     public LaberintoGUI() {
         super("Laberinto - Visualizador");
@@ -54,21 +126,23 @@ public class LaberintoGUI extends JFrame {
         JButton matricesBtn = new JButton("Mostrar matrices");
         matricesBtn.addActionListener(e -> mostrarMatrices());
         controlPanel.add(matricesBtn);
+
+        JButton exportarBtn = new JButton("Exportar matrices");
+        exportarBtn.addActionListener(e -> exportarMatrices());
+        controlPanel.add(exportarBtn);
         
-        algoritmoCombo = new JComboBox<>(new String[]{
-            "Camino más corto (A->B)",
-            "DFS - Preorden",
-            "DFS - Inorden",
-            "DFS - Postorden",
-            "BFS",
-            "Greedy (A->B)"
-        });
+        algoritmoCombo = new JComboBox<>(ALGORITMOS);
         controlPanel.add(algoritmoCombo);
 
         JButton ejecutarBtn = new JButton("Ejecutar");
         ejecutarBtn.addActionListener(e -> ejecutarAlgoritmo());
         controlPanel.add(ejecutarBtn);
 
+        JButton compararBtn = new JButton("Comparar");
+        compararBtn.setToolTipText("Correr varios algoritmos a la vez, cada uno en su panel");
+        compararBtn.addActionListener(e -> compararAlgoritmos());
+        controlPanel.add(compararBtn);
+
         pauseResumeBtn = new JButton("Pausar");
         pauseResumeBtn.setEnabled(false);
         pauseResumeBtn.addActionListener(e -> pausarReanudarAnimacion());
@@ -95,132 +169,515 @@ public class LaberintoGUI extends JFrame {
         speedSlider.setToolTipText("Velocidad (ms)");
         speedSlider.addChangeListener(e -> {
             if (timer != null && timer.isRunning()) {
-                timer.setDelay(speedSlider.getValue());
+                timer.setDelay(retardoTimer());
             }
         });
         controlPanel.add(new JLabel("Velocidad:"));
         controlPanel.add(speedSlider);
 
+        // Modo rápido: la velocidad deja de ser "ms por paso" y pasa a ser
+        // "duración total"; cada frame avanza los pasos que hagan falta
+        rapidoCheck = new JCheckBox("Rápido");
+        duracionSpinner = new JSpinner(new SpinnerNumberModel(DURACION_RAPIDA_S, 1, 3600, 1));
+        duracionSpinner.setToolTipText("Duración de la animación (s)");
+        duracionSpinner.setEnabled(false);
+        rapidoCheck.addActionListener(e -> {
+            boolean rapido = rapidoCheck.isSelected();
+            speedSlider.setEnabled(!rapido);
+            duracionSpinner.setEnabled(rapido);
+            programarFin();
+            if (timer != null) timer.setDelay(retardoTimer());
+        });
+        duracionSpinner.addChangeListener(e -> programarFin());
+        controlPanel.add(rapidoCheck);
+        controlPanel.add(duracionSpinner);
+        controlPanel.add(new JLabel("s"));
+
+        // Zoom alrededor del centro visible (con la rueda: alrededor del mouse)
+        JButton alejarBtn = new JButton("−");
+        alejarBtn.setToolTipText("Alejar");
+        alejarBtn.addActionListener(e -> mazePanel.alejar(centroVisible()));
+        JButton acercarBtn = new JButton("+");
+        acercarBtn.setToolTipText("Acercar");
+        acercarBtn.addActionListener(e -> mazePanel.acercar(centroVisible()));
+        JButton ajustarBtn = new JButton("Ajustar");
+        ajustarBtn.setToolTipText("Ver el laberinto completo");
+        ajustarBtn.addActionListener(e -> mazePanel.ajustar());
+        controlPanel.add(new JLabel("Zoom:"));
+        controlPanel.add(alejarBtn);
+        controlPanel.add(acercarBtn);
+        controlPanel.add(ajustarBtn);
+
         add(controlPanel, BorderLayout.NORTH);
 
         mazePanel = new MazePanel();
+        mazePanel.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (SwingUtilities.isRightMouseButton(e)) alternarCelda(mazePanel.celdaEn(e.getPoint()));
+            }
+        });
         add(new JScrollPane(mazePanel), BorderLayout.CENTER);
 
-        infoLabel = new JLabel("Cargue un archivo para comenzar");
-        add(infoLabel, BorderLayout.SOUTH);
+        infoLabel = new JLabel("Cargue un archivo para comenzar (clic derecho sobre el mapa: alternar celda)");
+        progreso = new JProgressBar();
+        progreso.setStringPainted(true);
+        progreso.setVisible(false);
+        cancelarBtn = new JButton("Cancelar");
+        cancelarBtn.setEnabled(false);
+        cancelarBtn.addActionListener(e -> cancelarTrabajo());
+
+        JPanel estadoPanel = new JPanel(new BorderLayout(8, 0));
+        estadoPanel.add(infoLabel, BorderLayout.CENTER);
+        JPanel tareaPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 4, 0));
+        tareaPanel.add(progreso);
+        tareaPanel.add(cancelarBtn);
+        estadoPanel.add(tareaPanel, BorderLayout.EAST);
+
+        // Línea de tiempo: arrastrar salta a cualquier paso sin repetir los anteriores
+        lineaSlider = new JSlider(0, 0, 0);
+        lineaSlider.setToolTipText("Paso del recorrido");
+        lineaSlider.addChangeListener(e -> saltarAPaso(lineaSlider.getValue()));
+        pasoLabel = new JLabel("Paso 0 / 0");
+        JPanel lineaPanel = new JPanel(new BorderLayout(8, 0));
+        lineaPanel.add(lineaSlider, BorderLayout.CENTER);
+        lineaPanel.add(pasoLabel, BorderLayout.EAST);
+
+        JPanel surPanel = new JPanel(new BorderLayout());
+        surPanel.add(lineaPanel, BorderLayout.NORTH);
+        surPanel.add(estadoPanel, BorderLayout.SOUTH);
+        add(surPanel, BorderLayout.SOUTH);
 
         setSize(800, 700);
         setLocationRelativeTo(null);
     }
 
+    /**
+     * Elige el archivo y lo carga en segundo plano (TrabajoCarga): la
+     * ventana sigue respondiendo mientras se lee y se construye el grafo
+     */
     private void abrirArchivo() {
         JFileChooser chooser = new JFileChooser();
         int res = chooser.showOpenDialog(this);
         if (res == JFileChooser.APPROVE_OPTION) {
             File file = chooser.getSelectedFile();
-            try {
-                parser = new LaberintoParser();
-                parser.leerArchivo(file.getAbsolutePath());
-                grafo = parser.construirGrafo();
-                caminoMasCorto = new CaminoMasCorto(grafo);
-                recorridos = new Recorridos(grafo);
+            detenerAnimacion();
+            if (trabajoActual != null) trabajoActual.cancel(true);
 
-                mazePanel.setMapa(parser.getMapa(), grafo);
-                infoLabel.setText(String.format("Archivo: %s  •  Nodos: %d  Aristas: %d",
-                        file.getName(), grafo.getCantidadNodos(), grafo.getCantidadAristas()));
-            } catch (IOException ex) {
-                JOptionPane.showMessageDialog(this, "Error al leer archivo:\n" + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            TrabajoCarga carga = new TrabajoCarga(file);
+            iniciarTrabajo(carga, "Cargando " + file.getName() + "...");
+            carga.execute();
         }
     }
 
+    /**
+     * Lanza la búsqueda en segundo plano (TrabajoBusqueda) y arranca la
+     * animación enseguida: las visitas llegan mientras la búsqueda avanza
+     */
     private void ejecutarAlgoritmo() {
-        if (grafo == null || parser == null) {
+        if (grafo == null || mapa == null) {
             JOptionPane.showMessageDialog(this, "Primero abra un archivo de laberinto.", "Información", JOptionPane.INFORMATION_MESSAGE);
             return;
         }
+        if (trabajoActual instanceof TrabajoCarga) {
+            JOptionPane.showMessageDialog(this, "Espere a que termine la carga del archivo.", "Información", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
 
         String seleccionado = (String) algoritmoCombo.getSelectedItem();
+        if (requiereB(seleccionado) && (grafo.getIdA() == -1 || grafo.getCantidadSalidas() == 0)) {
+            JOptionPane.showMessageDialog(this, "El grafo no tiene A o B.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        detenerAnimacion();  // Cancela también una búsqueda anterior
         stepIndex = 0;
         finalPath = null;
+        linea = new LineaTiempo(grafo, mapa.length, mapa[0].length);
+        mazePanel.setLineaTiempo(linea);
+        busquedaEnCurso = true;
+        mostrarPasoActual();
 
-        switch (seleccionado) {
-            case "Camino más corto (A->B)":
-                Nodo a = grafo.getNodoA();
-                Nodo b = grafo.getNodoB();
-                if (a == null || b == null) {
-                    JOptionPane.showMessageDialog(this, "El grafo no tiene A o B.", "Error", JOptionPane.ERROR_MESSAGE);
-                    return;
+        controlActual = new ControlBusqueda(TIEMPO_MAXIMO_MS, 0);
+        TrabajoBusqueda busqueda = new TrabajoBusqueda(seleccionado, controlActual);
+        iniciarTrabajo(busqueda, "Visitas: 0");
+        iniciarAnimacion();
+        busqueda.execute();
+    }
+
+    /**
+     * Resultado de la búsqueda (en el EDT, cuando terminó). La secuencia
+     * ya se fue completando por bloques; acá solo se decide el camino
+     * final y se informa si se detuvo antes
+     */
+    private void finalizarBusqueda(TrabajoBusqueda busqueda) {
+        busquedaEnCurso = false;
+        terminarTrabajo();
+
+        ResultadoBusqueda resultado;
+        try {
+            resultado = busqueda.get();
+        } catch (InterruptedException | ExecutionException ex) {
+            if (timer != null) timer.stop();
+            Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+            JOptionPane.showMessageDialog(this, "Error en la búsqueda:\n" + causa, "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        progreso.setString("Expandidos: " + resultado.getNodosExpandidos() + " (versión " + versionDe(busqueda.grafoBusqueda) + ")");
+        boolean esCaminoMasCorto = ALGORITMOS_CON_CAMINO.contains(busqueda.algoritmo);
+
+        if (!resultado.estaCompleta()) {
+            // Búsqueda interrumpida: se anima lo que llegó a visitar
+            if (resultado.getEstado() == EstadoBusqueda.CANCELADA) {
+                infoLabel.setText(String.format("Búsqueda cancelada tras expandir %d nodos.", resultado.getNodosExpandidos()));
+            } else {
+                JOptionPane.showMessageDialog(this, String.format(
+                        "La búsqueda se detuvo (%s) tras expandir %d nodos.\nSe mostrará el resultado parcial.",
+                        resultado.getEstado(), resultado.getNodosExpandidos()),
+                        "Resultado parcial", JOptionPane.WARNING_MESSAGE);
+            }
+            return;
+        }
+
+        if (esCaminoMasCorto) {
+            finalPath = resultado.getNodos();  // Se dibuja al terminar de animar la exploración
+            if (finalPath == null || finalPath.isEmpty()) {
+                JOptionPane.showMessageDialog(this, "Camino no encontrado.", "Resultado", JOptionPane.INFORMATION_MESSAGE);
+            }
+            return;
+        }
+
+        if (linea.getLongitud() == 0) {
+            JOptionPane.showMessageDialog(this, "La ejecución no produjo una secuencia para animar.", "Información", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        // Si existen salidas B en el grafo, comprobar si el recorrido alcanzó alguna.
+        if (grafo.getCantidadSalidas() > 0) {
+            Set<Integer> visitados = new HashSet<>(resultado.getNodos());
+            boolean alcanzada = false;
+            for (int s = 0; s < grafo.getCantidadSalidas(); s++) {
+                if (visitados.contains(grafo.getIdSalida(s))) {
+                    alcanzada = true;
+                    break;
                 }
-                finalPath = caminoMasCorto.encontrarCaminoMasCorto(a.getId(), b.getId());
-                // Si no se encuentra camino, avisar
-                if (finalPath == null || finalPath.isEmpty()) {
-                    JOptionPane.showMessageDialog(this, "Camino no encontrado.", "Resultado", JOptionPane.INFORMATION_MESSAGE);
-                    return;
+            }
+            if (!alcanzada) {
+                JOptionPane.showMessageDialog(this, "camino no encotrado :3", "Resultado", JOptionPane.INFORMATION_MESSAGE);
+            }
+        }
+    }
+
+    // ===== EDICIÓN DEL MAPA =====
+
+    /**
+     * Alterna la celda (fila * columnas + columna) entre pared y espacio.
+     * La edición pasa por GrafoVersionado y se publica como una versión
+     * nueva: la ventana muestra esa versión, mientras que las carreras y
+     * exportaciones en curso siguen con la instantánea que tomaron.
+     */
+    private void alternarCelda(int celda) {
+        if (grafo == null || celda < 0) return;
+        if (trabajoActual instanceof TrabajoCarga) {
+            JOptionPane.showMessageDialog(this, "Espere a que termine la carga del archivo.", "Información", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        int columnas = mapa[0].length;
+        int fila = celda / columnas;
+        int columna = celda % columnas;
+        if (versionado == null) {
+            versionado = new GrafoVersionado(mapa);  // Versión 0: el mapa tal como se cargó
+        }
+        try {
+            versionado.alternarCelda(fila, columna);
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        GrafoVersionado.Instantanea nueva = versionado.getActual();
+
+        detenerAnimacion();  // El recorrido mostrado era de la versión anterior
+        char[][] nuevoMapa = mapa.clone();  // Comparte las filas que no cambian
+        nuevoMapa[fila] = mapa[fila].clone();
+        nuevoMapa[fila][columna] = nueva.contieneNodo(celda) ? ' ' : '*';
+        mapa = nuevoMapa;
+        grafo = nueva;
+        caminoMasCorto = new CaminoMasCorto(grafo);
+        recorridos = new Recorridos(grafo);
+        paredesMapa = MazePanel.contarParedes(mapa);  // Las carreras abiertas conservan la pirámide anterior
+
+        mazePanel.cambiarVersion(mapa, grafo, paredesMapa);
+        linea = null;
+        finalPath = null;
+        lineaSlider.setMaximum(0);
+        pasoLabel.setText("Paso 0 / 0");
+        infoLabel.setText(String.format("Celda (%d, %d) alternada  •  versión %d  •  Nodos: %d  Aristas: %d",
+                fila, columna, nueva.getVersion(), grafo.getCantidadNodos(), grafo.getCantidadAristas()));
+    }
+
+    /**
+     * Versión de un grafo: la de la instantánea, o 0 si es el grafo
+     * cargado (el mapa todavía no se editó)
+     */
+    private static long versionDe(GrafoLectura grafo) {
+        return grafo instanceof GrafoVersionado.Instantanea ? ((GrafoVersionado.Instantanea) grafo).getVersion() : 0;
+    }
+
+    // ===== TAREAS EN SEGUNDO PLANO =====
+
+    private void iniciarTrabajo(SwingWorker<?, ?> trabajo, String mensaje) {
+        trabajoActual = trabajo;
+        progreso.setIndeterminate(true);
+        progreso.setString(mensaje);
+        progreso.setVisible(true);
+        cancelarBtn.setEnabled(true);
+        progreso.getParent().revalidate();
+    }
+
+    private void terminarTrabajo() {
+        trabajoActual = null;
+        progreso.setIndeterminate(false);
+        cancelarBtn.setEnabled(false);
+    }
+
+    /**
+     * Cancela la tarea en curso. La búsqueda se detiene por su control
+     * (devuelve lo visitado hasta ahí); la carga se descarta al terminar
+     */
+    private void cancelarTrabajo() {
+        if (trabajoActual instanceof TrabajoBusqueda) {
+            controlActual.cancelar();
+        } else if (trabajoActual != null) {
+            trabajoActual.cancel(true);
+        }
+    }
+
+    /**
+     * Lee el archivo (o lo toma de la caché) y construye el grafo fuera
+     * del EDT. Los campos de la ventana se reemplazan recién en done().
+     * La lectura no es interrumpible: si se cancela, el resultado se ignora.
+     */
+    private class TrabajoCarga extends SwingWorker<Void, Void> {
+        private final File file;
+        private LaberintoParser nuevoParser;
+        private GrafoLectura nuevoGrafo;
+        private CacheGrafos.Entrada entrada;
+        private String fallaCache;  // Motivo si la caché no estuvo disponible (se lee el texto)
+        private PiramideConteo paredes;
+
+        TrabajoCarga(File file) {
+            this.file = file;
+        }
+
+        @Override
+        protected Void doInBackground() throws IOException {
+            nuevoParser = new LaberintoParser();
+            try {
+                entrada = cache.obtener(file.toPath());
+            } catch (IOException | RuntimeException ex) {
+                fallaCache = ex.toString();  // Se informa en done(); un archivo inválido falla al leerlo como texto
+            }
+            if (entrada != null) {
+                nuevoGrafo = nuevoParser.cargarDesdeGrafo(entrada.getGrafo());  // Las búsquedas usan el grafo mapeado
+            } else {
+                nuevoParser.leerArchivo(file.getAbsolutePath());
+                nuevoGrafo = nuevoParser.construirGrafo();
+            }
+            paredes = MazePanel.contarParedes(nuevoParser.getMapa());  // Recorre todo el mapa: fuera del EDT
+            return null;
+        }
+
+        @Override
+        protected void done() {
+            if (trabajoActual != this) return;  // Reemplazada por otra tarea
+            terminarTrabajo();
+            if (isCancelled()) {
+                progreso.setString("Carga cancelada");
+                return;
+            }
+            try {
+                get();
+            } catch (InterruptedException | ExecutionException ex) {
+                progreso.setVisible(false);
+                Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+                JOptionPane.showMessageDialog(LaberintoGUI.this, "Error al leer archivo:\n" + causa.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            mapa = nuevoParser.getMapa();
+            grafo = nuevoGrafo;
+            versionado = null;  // Las versiones anteriores eran de otro mapa
+            caminoMasCorto = new CaminoMasCorto(grafo);
+            recorridos = new Recorridos(grafo);
+
+            paredesMapa = paredes;
+            mazePanel.setMapa(mapa, grafo, paredes);
+            linea = null;  // El recorrido anterior era de otro mapa
+            finalPath = null;
+            lineaSlider.setMaximum(0);
+            pasoLabel.setText("Paso 0 / 0");
+            progreso.setVisible(false);
+            infoLabel.setText(String.format("Archivo: %s  •  Nodos: %d  Aristas: %d%s",
+                    file.getName(), grafo.getCantidadNodos(), grafo.getCantidadAristas(),
+                    entrada != null && entrada.isAcierto() ? "  •  desde caché"
+                            : fallaCache != null ? "  •  caché no disponible: " + fallaCache : ""));
+        }
+    }
+
+    /**
+     * Ejecuta el algoritmo fuera del EDT. Las visitas llegan por el
+     * observador del control y se envían al EDT en bloques int[]
+     * (publish/process), donde se agregan a la secuencia que anima el timer.
+     */
+    private class TrabajoBusqueda extends SwingWorker<ResultadoBusqueda, int[]> {
+        private final String algoritmo;
+        private final ControlBusqueda control;
+        private final GrafoLectura grafoBusqueda;  // Referencias propias: no ven una carga posterior
+        private final CaminoMasCorto caminoBusqueda;
+        private final Recorridos recorridosBusqueda;
+        private final AcumuladorVisitas acumulador = new AcumuladorVisitas(bloque -> publish(bloque));
+        private long recibidas;  // Visitas ya agregadas a la secuencia (EDT)
+
+        TrabajoBusqueda(String algoritmo, ControlBusqueda control) {
+            this.algoritmo = algoritmo;
+            this.control = control;
+            this.grafoBusqueda = grafo;
+            this.caminoBusqueda = caminoMasCorto;
+            this.recorridosBusqueda = recorridos;
+        }
+
+        @Override
+        protected ResultadoBusqueda doInBackground() throws Exception {
+            control.setObservadorVisitas(acumulador);
+            ResultadoBusqueda resultado =
+                    ejecutarBusqueda(algoritmo, grafoBusqueda, caminoBusqueda, recorridosBusqueda, control);
+            acumulador.enviar();
+            return resultado;
+        }
+
+        @Override
+        protected void process(List<int[]> bloques) {
+            if (trabajoActual != this) return;  // Búsqueda reemplazada o detenida
+            for (int[] visitas : bloques) {
+                linea.agregar(visitas);
+                recibidas += visitas.length;
+            }
+            progreso.setString("Visitas: " + recibidas);  // Lo recibido hasta ahora; al terminar se informan las expansiones
+            actualizarLinea();
+        }
+
+        @Override
+        protected void done() {
+            if (trabajoActual != this) return;
+            finalizarBusqueda(this);
+        }
+    }
+
+    /**
+     * Ejecuta el algoritmo (nombre de ALGORITMOS) desde A. Solo usa sus
+     * argumentos y objetos propios: varias búsquedas pueden correr a la
+     * vez si cada una recibe sus propios CaminoMasCorto y Recorridos.
+     */
+    private static ResultadoBusqueda ejecutarBusqueda(String algoritmo, GrafoLectura grafo, CaminoMasCorto caminoMasCorto,
+                                                      Recorridos recorridos, ControlBusqueda control) {
+        int idA = grafo.getIdA();
+        int idB = grafo.getCantidadSalidas() > 0 ? grafo.getIdSalida(0) : -1;
+        switch (algoritmo) {
+            case "Camino más corto (A->B)":
+                if (grafo.getCantidadSalidas() > 1) {
+                    // Varias salidas: camino a la más cercana
+                    BusquedaMultiObjetivo multi = new BusquedaMultiObjetivo(grafo);
+                    return multi.salidaMasCercanaAEstrella(idA, multi.getIdsSalidas(), control);
                 }
-                // Para este algoritmo animamos directamente el camino
-                sequence = finalPath;
-                break;
+                return caminoMasCorto.encontrarCaminoMasCorto(idA, idB, control);
             case "DFS - Preorden":
-                sequence = recorridos.dfsPreorden(grafo.getNodoA().getId());
-                break;
+                return recorridos.dfsPreorden(idA, control);
             case "DFS - Inorden":
-                sequence = recorridos.dfsInorden(grafo.getNodoA().getId());
-                break;
+                return recorridos.dfsInorden(idA, control);
             case "DFS - Postorden":
-                sequence = recorridos.dfsPostorden(grafo.getNodoA().getId());
-                break;
+                return recorridos.dfsPostorden(idA, control);
             case "BFS":
-                sequence = recorridos.bfs(grafo.getNodoA().getId());
-                break;
+                return recorridos.bfs(idA, control);
             case "Greedy (A->B)":
-                sequence = recorridos.greedyBestFirstSearch(grafo.getNodoA().getId(), grafo.getNodoB().getId());
-                break;
+                return recorridos.greedyBestFirstSearch(idA, idB, control);
+            case "BFS (salida más cercana)": {
+                BusquedaMultiObjetivo multi = new BusquedaMultiObjetivo(grafo);
+                return multi.salidaMasCercanaBfs(idA, multi.getIdsSalidas(), control);
+            }
+            case "A* (salida más cercana)": {
+                BusquedaMultiObjetivo multi = new BusquedaMultiObjetivo(grafo);
+                return multi.salidaMasCercanaAEstrella(idA, multi.getIdsSalidas(), control);
+            }
+            case "D* Lite (A->B)":
+                return new DStarLite(grafo, idA, idB).calcularCamino(control);
             default:
-                sequence = null;
+                return new ResultadoBusqueda(EstadoBusqueda.COMPLETADA, new ArrayList<>(), 0);
         }
+    }
 
-        if (sequence == null || sequence.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "La ejecución no produjo una secuencia para animar.", "Información", JOptionPane.INFORMATION_MESSAGE);
-            return;
+    /**
+     * true si el algoritmo necesita al menos una salida B
+     */
+    private static boolean requiereB(String algoritmo) {
+        return ALGORITMOS_CON_CAMINO.contains(algoritmo) || algoritmo.equals("Greedy (A->B)");
+    }
+
+    /**
+     * Junta las visitas de una búsqueda (hilo de la búsqueda) en bloques
+     * int[] y los entrega cuando el bloque se llena o pasó el intervalo
+     * (el reloj solo se mira cada 64 visitas)
+     */
+    private static class AcumuladorVisitas implements IntConsumer {
+        private final int[] bloque = new int[VISITAS_POR_BLOQUE];
+        private final Consumer<int[]> destino;
+        private int llenos;
+        private long ultimoEnvio = System.nanoTime();
+
+        AcumuladorVisitas(Consumer<int[]> destino) {
+            this.destino = destino;
         }
 
-        // Si existe un nodo B en el grafo, comprobar si la secuencia lo alcanzó.
-        Nodo nodoB = grafo.getNodoB();
-        if (nodoB != null) {
-            int idB = nodoB.getId();
-            if (!sequence.contains(idB)) {
-                // Mostrar mensaje solicitado y no iniciar animación
-                JOptionPane.showMessageDialog(this, "camino no encotrado :3", "Resultado", JOptionPane.INFORMATION_MESSAGE);
-                return;
+        @Override
+        public void accept(int id) {
+            bloque[llenos++] = id;
+            if (llenos == bloque.length
+                    || ((llenos & 63) == 0 && System.nanoTime() - ultimoEnvio > INTERVALO_ENVIO_NS)) {
+                enviar();
             }
         }
 
+        void enviar() {
+            if (llenos == 0) return;
+            destino.accept(Arrays.copyOf(bloque, llenos));
+            llenos = 0;
+            ultimoEnvio = System.nanoTime();
+        }
+    }
+
+    /**
+     * Crea el timer que anima la secuencia actual y habilita los controles
+     */
+    private void iniciarAnimacion() {
         // Crear timer
-        int delay = speedSlider.getValue();
+        int delay = retardoTimer();
         if (timer != null && timer.isRunning()) timer.stop();
 
         timer = new Timer(delay, new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                if (!isPaused && stepIndex < sequence.size()) {
-                    int id = sequence.get(stepIndex);
-                    mazePanel.markVisited(id);
-                    stepIndex++;
-                } else if (stepIndex >= sequence.size()) {
-                    // Si tenemos camino final, marcarlo
-                    if (finalPath != null && !finalPath.isEmpty()) {
-                        mazePanel.setPath(finalPath);
-                    }
+                if (!isPaused && stepIndex < linea.getLongitud()) {
+                    stepIndex = Math.min(linea.getLongitud(), stepIndex + pasosPorFrame());
+                    mostrarPasoActual();  // Cuesta lo que cambia, no la cantidad de pasos
+                } else if (stepIndex >= linea.getLongitud() && !busquedaEnCurso) {  // Si no, esperar más visitas
+                    mostrarPasoActual();  // Incluye el camino final, si hay
                     timer.stop();
-                    pauseResumeBtn.setEnabled(false);
-                    anteriorBtn.setEnabled(false);
-                    siguienteBtn.setEnabled(false);
+                    pauseResumeBtn.setEnabled(false);  // Anterior/Siguiente y el slider siguen disponibles
                 }
             }
         });
-        timer.setDelay(speedSlider.getValue());
-        
+        timer.setDelay(retardoTimer());
+        programarFin();
+
         // Habilitar botones de control
         isPaused = false;
         pauseResumeBtn.setText("Pausar");
@@ -231,9 +688,54 @@ public class LaberintoGUI extends JFrame {
         timer.start();
     }
 
+    private Point centroVisible() {
+        Rectangle visible = mazePanel.getVisibleRect();
+        return new Point(visible.x + visible.width / 2, visible.y + visible.height / 2);
+    }
+
+    /**
+     * Retardo del timer: ms por paso (slider) o un frame en modo rápido
+     */
+    private int retardoTimer() {
+        return rapidoCheck.isSelected() ? INTERVALO_FRAME_MS : speedSlider.getValue();
+    }
+
+    /**
+     * Pasos a avanzar en este tick: 1 en modo normal; en modo rápido, los
+     * pendientes repartidos entre los frames que quedan hasta el fin
+     * programado. Se recalcula en cada frame, así se adapta a los pasos
+     * que siguen llegando de la búsqueda y a frames atrasados.
+     */
+    private int pasosPorFrame() {
+        if (!rapidoCheck.isSelected()) return 1;
+        int pendientes = linea.getLongitud() - stepIndex;
+        long restanteNs = finReproduccionNs - System.nanoTime();
+        long frames = restanteNs / (INTERVALO_FRAME_MS * 1_000_000L);
+        if (frames <= 1) return pendientes;
+        return (int) Math.max(1, (pendientes + frames - 1) / frames);
+    }
+
+    /**
+     * Fija el fin del modo rápido: la duración objetivo, proporcional a
+     * la parte del recorrido que falta mostrar
+     */
+    private void programarFin() {
+        double falta = 1.0;
+        if (linea != null && linea.getLongitud() > 0) {
+            falta = (linea.getLongitud() - stepIndex) / (double) linea.getLongitud();
+        }
+        long duracionNs = ((Integer) duracionSpinner.getValue()) * 1_000_000_000L;
+        finReproduccionNs = System.nanoTime() + (long) (duracionNs * falta);
+    }
+
     private void detenerAnimacion() {
+        if (controlActual != null) controlActual.cancelar(); // Detiene también la búsqueda
+        if (trabajoActual instanceof TrabajoBusqueda) terminarTrabajo(); // Sus visitas pendientes se ignoran
+        busquedaEnCurso = false;
         if (timer != null && timer.isRunning()) timer.stop();
         if (mazePanel != null) mazePanel.clearMarks();
+        stepIndex = 0;
+        if (linea != null) actualizarLinea();
         isPaused = false;
         pauseResumeBtn.setEnabled(false);
         anteriorBtn.setEnabled(false);
@@ -242,12 +744,13 @@ public class LaberintoGUI extends JFrame {
     }
 
     private void pausarReanudarAnimacion() {
-        if (timer == null || sequence == null) return;
+        if (timer == null || linea == null) return;
 
         if (isPaused) {
             // Reanudar
             isPaused = false;
             pauseResumeBtn.setText("Pausar");
+            programarFin();  // El tiempo en pausa no cuenta
             timer.start();
         } else {
             // Pausar
@@ -258,44 +761,113 @@ public class LaberintoGUI extends JFrame {
     }
 
     private void pasoSiguiente() {
-        if (sequence == null || stepIndex >= sequence.size()) return;
+        if (linea == null || stepIndex >= linea.getLongitud()) return;
+        pausarSiCorre();
+        stepIndex++;
+        mostrarPasoActual();
+    }
+
+    private void pasoPrevio() {
+        if (linea == null || stepIndex == 0) return;
+        pausarSiCorre();
+        stepIndex--;
+        mostrarPasoActual();  // Solo se borra la celda de ese paso
+    }
+
+    /**
+     * Salto desde el slider a cualquier paso (costo proporcional a las
+     * celdas que cambian, no a la posición)
+     */
+    private void saltarAPaso(int paso) {
+        if (moviendoSlider || linea == null) return;
+        pausarSiCorre();
+        stepIndex = Math.min(paso, linea.getLongitud());
+        mostrarPasoActual();
+    }
 
+    private void pausarSiCorre() {
         if (timer != null && timer.isRunning()) {
             timer.stop();
             isPaused = true;
             pauseResumeBtn.setText("Reanudar");
         }
+    }
 
-        if (stepIndex < sequence.size()) {
-            int id = sequence.get(stepIndex);
-            mazePanel.markVisited(id);
-            stepIndex++;
-        }
-
-        if (stepIndex >= sequence.size() && finalPath != null && !finalPath.isEmpty()) {
-            mazePanel.setPath(finalPath);
-        }
+    /**
+     * Dibuja el paso stepIndex; el camino final aparece solo en el último
+     * paso de una búsqueda terminada
+     */
+    private void mostrarPasoActual() {
+        mazePanel.mostrarPaso(stepIndex);
+        boolean alFinal = !busquedaEnCurso && stepIndex >= linea.getLongitud();
+        mazePanel.setPath(alFinal && finalPath != null ? finalPath : Collections.<Integer>emptyList());
+        actualizarLinea();
     }
 
-    private void pasoPrevio() {
-        if (sequence == null || stepIndex == 0) return;
+    /**
+     * Sincroniza el slider y la etiqueta con stepIndex y la longitud actual
+     */
+    private void actualizarLinea() {
+        moviendoSlider = true;
+        lineaSlider.setMaximum(linea.getLongitud());
+        lineaSlider.setValue(stepIndex);
+        moviendoSlider = false;
+        pasoLabel.setText("Paso " + stepIndex + " / " + linea.getLongitud());
+    }
 
-        if (timer != null && timer.isRunning()) {
-            timer.stop();
-            isPaused = true;
-            pauseResumeBtn.setText("Reanudar");
+    /**
+     * Elige varios algoritmos y los corre a la vez sobre el mapa cargado,
+     * cada uno en su panel, con la animación sincronizada por paso
+     */
+    private void compararAlgoritmos() {
+        if (grafo == null) {
+            JOptionPane.showMessageDialog(this, "Primero abra un archivo de laberinto.", "Información", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        if (grafo.getIdA() == -1) {
+            JOptionPane.showMessageDialog(this, "El grafo no tiene A.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
         }
 
-        stepIndex--;
-        mazePanel.clearMarks();
+        JPanel opciones = new JPanel(new GridLayout(0, 1));
+        List<JCheckBox> casillas = new ArrayList<>();
+        for (String algoritmo : ALGORITMOS) {
+            JCheckBox casilla = new JCheckBox(algoritmo, ALGORITMOS_CARRERA_INICIALES.contains(algoritmo));
+            casilla.setEnabled(!requiereB(algoritmo) || grafo.getCantidadSalidas() > 0);
+            casillas.add(casilla);
+            opciones.add(casilla);
+        }
+        int opcion = JOptionPane.showConfirmDialog(this, opciones, "Comparar algoritmos",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (opcion != JOptionPane.OK_OPTION) return;
 
-        // Redibujar todos los pasos hasta stepIndex
-        for (int i = 0; i < stepIndex; i++) {
-            int id = sequence.get(i);
-            mazePanel.markVisited(id);
+        List<String> elegidos = new ArrayList<>();
+        for (JCheckBox casilla : casillas) {
+            if (casilla.isSelected() && casilla.isEnabled()) elegidos.add(casilla.getText());
         }
+        if (elegidos.isEmpty()) return;
+
+        // La carrera toma la versión actual: si después se edita el mapa, sigue con esta instantánea
+        PanelCarrera carrera = new PanelCarrera(mapa, grafo, paredesMapa, elegidos);
+        JDialog dialogo = new JDialog(this, "Comparar algoritmos (versión " + versionDe(grafo) + ")", false);
+        dialogo.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+        dialogo.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                carrera.detener();  // Cancela las búsquedas que sigan corriendo
+            }
+        });
+        dialogo.add(carrera);
+        dialogo.setSize(1100, 800);
+        dialogo.setLocationRelativeTo(this);
+        dialogo.setVisible(true);
+        carrera.iniciar();
     }
 
+    /**
+     * Abre un visor de matrices virtualizado: la tabla solo calcula las
+     * celdas que están en pantalla, así cualquier tamaño abre al instante
+     */
     private void mostrarMatrices() {
         if (grafo == null) {
             JOptionPane.showMessageDialog(this, "Primero abra un archivo de laberinto.", "Información", JOptionPane.INFORMATION_MESSAGE);
@@ -303,12 +875,12 @@ public class LaberintoGUI extends JFrame {
         }
 
         MatrizesGrafo mg = new MatrizesGrafo(grafo);
-        int[][] ady = mg.getMatrizAdyacencia();
-        int[][] inc = mg.getMatrizIncidencia();
+        MatrizDispersa ady = mg.getMatrizAdyacenciaDispersa();
+        MatrizDispersa inc = mg.getMatrizIncidenciaDispersa();
         Map<Integer, Integer> mapIdToIndex = mg.getMapaIdAIndice();
 
         // Invertir mapeo para mostrar índice -> nodoId
-        int n = ady.length;
+        int n = ady.getFilas();
         int[] indexToId = new int[n];
         for (Map.Entry<Integer, Integer> e : mapIdToIndex.entrySet()) {
             int id = e.getKey();
@@ -316,53 +888,136 @@ public class LaberintoGUI extends JFrame {
             if (idx >= 0 && idx < n) indexToId[idx] = id;
         }
 
-        StringBuilder sb = new StringBuilder();
-        sb.append("Mapeo (índice -> nodoId):\n");
-        for (int i = 0; i < indexToId.length; i++) {
-            sb.append(String.format("%3d -> %d\n", i, indexToId[i]));
+        VisorMatriz visorAdy = new VisorMatriz(ady, indexToId, grafo);
+        VisorMatriz visorInc = new VisorMatriz(inc, indexToId, grafo);
+        JTabbedPane pestanas = new JTabbedPane();
+        pestanas.addTab("Adyacencia (" + n + "x" + n + ")", visorAdy);
+        pestanas.addTab("Incidencia (" + inc.getFilas() + "x" + inc.getColumnas() + ")", visorInc);
+
+        // Saltar a un nodo: su fila y la columna que le corresponde en la pestaña activa
+        JTextField nodoField = new JTextField(8);
+        JLabel estado = new JLabel(" ");
+        ActionListener irANodo = e -> {
+            int id;
+            try {
+                id = Integer.parseInt(nodoField.getText().trim());
+            } catch (NumberFormatException ex) {
+                estado.setText("ID inválido");
+                return;
+            }
+            Integer idx = mapIdToIndex.get(id);
+            if (idx == null) {
+                estado.setText("No existe el nodo " + id);
+                return;
+            }
+            if (pestanas.getSelectedComponent() == visorAdy) {
+                visorAdy.irA(idx, idx);  // Diagonal: los vecinos quedan a los lados
+            } else {
+                int columna = inc.getCantidadEnFila(idx) > 0 ? inc.getColumnaEnFila(idx, 0) : 0;
+                visorInc.irA(idx, columna);  // Primera arista que toca al nodo
+            }
+            estado.setText("Nodo " + id + " = índice " + idx);
+        };
+        nodoField.addActionListener(irANodo);
+        JButton irBtn = new JButton("Ir");
+        irBtn.addActionListener(irANodo);
+
+        JPanel barra = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        barra.add(new JLabel("Ir a nodo (ID):"));
+        barra.add(nodoField);
+        barra.add(irBtn);
+        barra.add(estado);
+
+        JDialog dialogo = new JDialog(this, "Matrices del grafo", false);
+        dialogo.setLayout(new BorderLayout());
+        dialogo.add(barra, BorderLayout.NORTH);
+        dialogo.add(pestanas, BorderLayout.CENTER);
+        dialogo.setSize(800, 600);
+        dialogo.setLocationRelativeTo(this);
+        dialogo.setVisible(true);
+    }
+
+    /**
+     * Exporta ambas matrices a un directorio elegido, en streaming
+     * (Matrix Market o CSV denso), sin armarlas como texto en memoria.
+     * La escritura corre en segundo plano (TrabajoExportacion).
+     */
+    private void exportarMatrices() {
+        if (grafo == null) {
+            JOptionPane.showMessageDialog(this, "Primero abra un archivo de laberinto.", "Información", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        if (trabajoActual != null) {
+            JOptionPane.showMessageDialog(this, "Espere a que termine la tarea en curso.", "Información", JOptionPane.INFORMATION_MESSAGE);
+            return;
         }
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        String[] formatos = {"Matrix Market (.mtx)", "CSV denso (.csv)"};
+        int formato = JOptionPane.showOptionDialog(this, "Formato de exportación:", "Exportar matrices",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, formatos, formatos[0]);
+        if (formato < 0) {
+            return;
+        }
+
+        TrabajoExportacion exportacion = new TrabajoExportacion(chooser.getSelectedFile(), formato == 1);
+        iniciarTrabajo(exportacion, "Exportando matrices...");
+        exportacion.execute();
+    }
 
-        sb.append("\n=== MATRIZ DE ADYACENCIA ===\n");
-        // Encabezado
-        sb.append("    ");
-        for (int j = 0; j < n; j++) {
-            sb.append(String.format("%3d ", j));
+    /**
+     * Arma las matrices dispersas y las escribe fuera del EDT (pueden ser
+     * archivos de cientos de MB). Cancelar interrumpe la escritura.
+     */
+    private class TrabajoExportacion extends SwingWorker<Long, Void> {
+        private final File dir;
+        private final boolean csv;
+        private final GrafoLectura grafoExportado;  // Referencia propia: no ve una carga posterior
+
+        TrabajoExportacion(File dir, boolean csv) {
+            this.dir = dir;
+            this.csv = csv;
+            this.grafoExportado = grafo;
         }
-        sb.append('\n');
 
-        for (int i = 0; i < n; i++) {
-            sb.append(String.format("%3d ", i));
-            for (int j = 0; j < n; j++) {
-                sb.append(String.format("%3d ", ady[i][j]));
+        @Override
+        protected Long doInBackground() throws IOException {
+            MatrizesGrafo mg = new MatrizesGrafo(grafoExportado);
+            ExportadorMatrices exportador = new ExportadorMatrices();
+            long bytes;
+            if (csv) {
+                bytes = exportador.exportarCsv(mg.getMatrizAdyacenciaDispersa(), new File(dir, "adyacencia.csv").toPath());
+                bytes += exportador.exportarCsv(mg.getMatrizIncidenciaDispersa(), new File(dir, "incidencia.csv").toPath());
+            } else {
+                bytes = exportador.exportarMatrixMarket(mg.getMatrizAdyacenciaDispersa(),
+                        new File(dir, "adyacencia.mtx").toPath(), "Matriz de adyacencia (nodos x nodos)");
+                bytes += exportador.exportarMatrixMarket(mg.getMatrizIncidenciaDispersa(),
+                        new File(dir, "incidencia.mtx").toPath(), "Matriz de incidencia (nodos x aristas)");
             }
-            sb.append('\n');
+            return bytes;
         }
 
-        sb.append("\n=== MATRIZ DE INCIDENCIA ===\n");
-        if (inc.length == 0 || inc[0].length == 0) {
-            sb.append("(Sin aristas)\n");
-        } else {
-            int m = inc[0].length;
-            sb.append("    ");
-            for (int j = 0; j < m; j++) sb.append(String.format("%3d ", j));
-            sb.append('\n');
-
-            for (int i = 0; i < inc.length; i++) {
-                sb.append(String.format("%3d ", i));
-                for (int j = 0; j < m; j++) {
-                    sb.append(String.format("%3d ", inc[i][j]));
-                }
-                sb.append('\n');
+        @Override
+        protected void done() {
+            if (trabajoActual != this) return;
+            terminarTrabajo();
+            progreso.setVisible(false);
+            if (isCancelled()) {
+                infoLabel.setText("Exportación cancelada.");
+                return;
+            }
+            try {
+                long bytes = get();
+                JOptionPane.showMessageDialog(LaberintoGUI.this, String.format("Matrices exportadas en:%n%s%n(%,d bytes)", dir, bytes),
+                        "Exportar matrices", JOptionPane.INFORMATION_MESSAGE);
+            } catch (InterruptedException | ExecutionException ex) {
+                Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+                JOptionPane.showMessageDialog(LaberintoGUI.this, "Error al exportar:\n" + causa.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
             }
         }
-
-        JTextArea area = new JTextArea(sb.toString());
-        area.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
-        area.setEditable(false);
-        JScrollPane scroll = new JScrollPane(area);
-        scroll.setPreferredSize(new Dimension(700, 500));
-
-        JOptionPane.showMessageDialog(this, scroll, "Matrices del grafo", JOptionPane.INFORMATION_MESSAGE);
     }
 
     public static void main(String[] args) {
@@ -372,107 +1027,1020 @@ public class LaberintoGUI extends JFrame {
         });
     }
 
+    /**
+     * Modelo de tabla que calcula cada celda al pedirla (búsqueda binaria
+     * en la fila CSR). Las columnas son una ventana: la columna 0 es la
+     * etiqueta de la fila y las siguientes muestran las columnas de matriz
+     * primeraColumna .. primeraColumna + ventana - 1.
+     */
+    private static class ModeloMatriz extends AbstractTableModel {
+        private static final long serialVersionUID = 1L;
+        private final MatrizDispersa matriz;
+        private final int[] idPorIndice;
+        private final GrafoLectura grafo;
+        private int primeraColumna;  // Columna de matriz que se ve primero
+        private int ventana;         // Columnas de matriz en la tabla
+
+        ModeloMatriz(MatrizDispersa matriz, int[] idPorIndice, GrafoLectura grafo) {
+            this.matriz = matriz;
+            this.idPorIndice = idPorIndice;
+            this.grafo = grafo;
+        }
+
+        @Override
+        public int getRowCount() {
+            return matriz.getFilas();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return 1 + ventana;
+        }
+
+        @Override
+        public String getColumnName(int columna) {
+            return columna == 0 ? "índice → id (fila, col)" : String.valueOf(primeraColumna + columna - 1);
+        }
+
+        @Override
+        public Object getValueAt(int fila, int columna) {
+            if (columna == 0) {
+                int id = idPorIndice[fila];
+                return fila + " → " + id + " (" + grafo.getX(id) + ", " + grafo.getY(id) + ")";
+            }
+            return matriz.get(fila, primeraColumna + columna - 1);  // 0/1: Integer cacheado
+        }
+    }
+
+    /**
+     * Pinta los unos resaltados y la columna de etiquetas en gris
+     * (colores constantes: nada se crea por celda)
+     */
+    private static class RenderizadorCelda extends DefaultTableCellRenderer {
+        private static final long serialVersionUID = 1L;
+        private static final Color FONDO_UNO = new Color(255, 220, 120);
+        private static final Color FONDO_ETIQUETA = new Color(235, 235, 235);
+
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                       boolean hasFocus, int row, int column) {
+            super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            setHorizontalAlignment(column == 0 ? LEFT : CENTER);
+            if (!isSelected) {
+                if (column == 0) {
+                    setBackground(FONDO_ETIQUETA);
+                } else {
+                    setBackground(Integer.valueOf(1).equals(value) ? FONDO_UNO : Color.WHITE);
+                }
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Visor virtualizado de una matriz dispersa. La JTable solo pide las
+     * filas visibles (alto fijo: no guarda nada por fila) y tiene tantas
+     * columnas como entran en pantalla; la barra inferior desplaza la
+     * ventana de columnas. Memoria constante respecto del tamaño de la matriz.
+     */
+    private static class VisorMatriz extends JPanel {
+        private static final long serialVersionUID = 1L;
+        private static final int ANCHO_CELDA = 36;
+        private static final int ANCHO_ETIQUETA = 170;
+
+        private final ModeloMatriz modelo;
+        private final JTable tabla;
+        private final JScrollPane scroll;
+        private final JScrollBar barraColumnas;
+
+        VisorMatriz(MatrizDispersa matriz, int[] idPorIndice, GrafoLectura grafo) {
+            super(new BorderLayout());
+            modelo = new ModeloMatriz(matriz, idPorIndice, grafo);
+            tabla = new JTable(modelo);
+            tabla.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+            tabla.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+            tabla.setCellSelectionEnabled(true);
+            tabla.getTableHeader().setReorderingAllowed(false);
+            tabla.setDefaultRenderer(Object.class, new RenderizadorCelda());
+
+            scroll = new JScrollPane(tabla, JScrollPane.VERTICAL_SCROLLBAR_ALWAYS, JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
+            barraColumnas = new JScrollBar(JScrollBar.HORIZONTAL);
+            barraColumnas.addAdjustmentListener(e -> desplazarColumnas(e.getValue()));
+            scroll.getViewport().addComponentListener(new ComponentAdapter() {
+                @Override
+                public void componentResized(ComponentEvent e) {
+                    ajustarVentana();
+                }
+            });
+
+            add(scroll, BorderLayout.CENTER);
+            add(barraColumnas, BorderLayout.SOUTH);
+            ajustarVentana();
+        }
+
+        /**
+         * Recalcula cuántas columnas de matriz entran en el ancho visible
+         */
+        private void ajustarVentana() {
+            int ancho = scroll.getViewport().getWidth();
+            if (ancho <= 0) ancho = 760;
+            int columnas = modelo.matriz.getColumnas();
+            int ventana = Math.min(columnas, Math.max(1, (ancho - ANCHO_ETIQUETA) / ANCHO_CELDA));
+            if (ventana != modelo.ventana) {
+                modelo.ventana = ventana;
+                modelo.primeraColumna = Math.max(0, Math.min(modelo.primeraColumna, columnas - ventana));
+                modelo.fireTableStructureChanged();  // Recrea solo 'ventana' columnas
+                tabla.getColumnModel().getColumn(0).setPreferredWidth(ANCHO_ETIQUETA);
+                for (int c = 1; c <= ventana; c++) {
+                    tabla.getColumnModel().getColumn(c).setPreferredWidth(ANCHO_CELDA);
+                }
+            }
+            barraColumnas.setValues(modelo.primeraColumna, ventana, 0, columnas);
+            barraColumnas.setBlockIncrement(Math.max(1, ventana));
+            barraColumnas.setEnabled(ventana < columnas);
+        }
+
+        /**
+         * Mueve la ventana: cambian los encabezados y los valores, no las columnas
+         */
+        private void desplazarColumnas(int primera) {
+            if (primera == modelo.primeraColumna) return;
+            modelo.primeraColumna = primera;
+            for (int c = 1; c < tabla.getColumnCount(); c++) {
+                tabla.getColumnModel().getColumn(c).setHeaderValue(modelo.getColumnName(c));
+            }
+            tabla.getTableHeader().repaint();
+            tabla.repaint();  // El modelo calcula los valores al pintar
+        }
+
+        /**
+         * Muestra y selecciona la celda (fila, columna) de la matriz
+         */
+        void irA(int fila, int columna) {
+            int columnas = modelo.matriz.getColumnas();
+            int primera = Math.max(0, Math.min(columna - modelo.ventana / 2, columnas - modelo.ventana));
+            barraColumnas.setValue(primera);
+            desplazarColumnas(primera);
+            if (fila >= tabla.getRowCount()) return;
+            tabla.scrollRectToVisible(tabla.getCellRect(fila, 0, true));
+            if (columna < columnas) {
+                tabla.changeSelection(fila, columna - primera + 1, false, false);
+            }
+            tabla.requestFocusInWindow();
+        }
+    }
+
+    /**
+     * Carrera de algoritmos: cada uno corre en su propio hilo sobre el
+     * mismo grafo (solo lectura) y se anima en su propio MazePanel.
+     *
+     * La animación está sincronizada por paso: un único timer avanza el
+     * paso común y cada panel muestra min(paso, sus visitas), así se ve
+     * quién llega antes a B con menos expansiones. Métricas en vivo por
+     * algoritmo: nodos expandidos, tiempo de pared (las búsquedas compiten
+     * por los núcleos), bytes asignados por su hilo y largo del camino
+     * (o el paso en que un recorrido alcanza B).
+     */
+    private static class PanelCarrera extends JPanel {
+        private static final long serialVersionUID = 1L;
+        private static final int DURACION_S = 10;  // Duración objetivo de la animación
+
+        private final List<Corredor> corredores = new ArrayList<>();
+        private final Timer timer;
+        private final JSlider pasoSlider = new JSlider(0, 0, 0);
+        private final JLabel pasoLabel = new JLabel("Paso 0 / 0");
+        private final JButton pausarBtn = new JButton("Pausar");
+        private final JSpinner duracionSpinner = new JSpinner(new SpinnerNumberModel(DURACION_S, 1, 3600, 1));
+        private int paso;
+        private boolean pausado;
+        private boolean moviendoSlider;  // El slider lo mueve el código, no el usuario
+        private long finNs;              // Instante en que debería mostrarse el último paso
+
+        PanelCarrera(char[][] mapa, GrafoLectura grafo, PiramideConteo paredes, List<String> algoritmos) {
+            super(new BorderLayout());
+            timer = new Timer(INTERVALO_FRAME_MS, e -> avanzar());
+            int columnas = (int) Math.ceil(Math.sqrt(algoritmos.size()));
+            JPanel grilla = new JPanel(new GridLayout(0, columnas, 4, 4));
+            for (String algoritmo : algoritmos) {
+                Corredor corredor = new Corredor(algoritmo, mapa, grafo, paredes);
+                corredores.add(corredor);
+                grilla.add(corredor.vista);
+            }
+
+            pausarBtn.addActionListener(e -> {
+                pausado = !pausado;
+                pausarBtn.setText(pausado ? "Reanudar" : "Pausar");
+                if (!pausado) {
+                    programarFin();
+                    timer.start();
+                }
+            });
+            JButton reiniciarBtn = new JButton("Reiniciar");
+            reiniciarBtn.addActionListener(e -> {
+                paso = 0;
+                mostrar();
+                pausado = false;
+                pausarBtn.setText("Pausar");
+                programarFin();
+                timer.start();
+            });
+            pasoSlider.addChangeListener(e -> {
+                if (moviendoSlider) return;
+                paso = pasoSlider.getValue();
+                mostrar();
+            });
+
+            JPanel barra = new JPanel(new BorderLayout(8, 0));
+            JPanel botones = new JPanel(new FlowLayout(FlowLayout.LEFT, 4, 0));
+            botones.add(pausarBtn);
+            botones.add(reiniciarBtn);
+            botones.add(new JLabel("Duración:"));
+            botones.add(duracionSpinner);
+            botones.add(new JLabel("s"));
+            barra.add(botones, BorderLayout.WEST);
+            barra.add(pasoSlider, BorderLayout.CENTER);
+            barra.add(pasoLabel, BorderLayout.EAST);
+
+            add(grilla, BorderLayout.CENTER);
+            add(barra, BorderLayout.SOUTH);
+        }
+
+        /**
+         * Lanza todas las búsquedas y la animación
+         */
+        void iniciar() {
+            for (Corredor corredor : corredores) {
+                corredor.panel.ajustar();
+                corredor.execute();
+            }
+            programarFin();
+            timer.start();
+        }
+
+        /**
+         * Cancela las búsquedas y detiene la animación (al cerrar)
+         */
+        void detener() {
+            timer.stop();
+            for (Corredor corredor : corredores) {
+                corredor.control.cancelar();
+            }
+        }
+
+        /**
+         * Un frame: avanza los pasos pendientes repartidos hasta el fin
+         * programado (como el modo rápido) y actualiza las métricas
+         */
+        private void avanzar() {
+            int longitud = longitudMaxima();
+            if (!pausado && paso < longitud) {
+                long frames = (finNs - System.nanoTime()) / (INTERVALO_FRAME_MS * 1_000_000L);
+                int pendientes = longitud - paso;
+                paso += frames <= 1 ? pendientes : (int) Math.max(1, (pendientes + frames - 1) / frames);
+            }
+            mostrar();
+            if (paso >= longitud && todosTerminados()) timer.stop();
+        }
+
+        private void mostrar() {
+            int longitud = longitudMaxima();
+            paso = Math.min(paso, longitud);
+            for (Corredor corredor : corredores) {
+                corredor.mostrar(paso);
+            }
+            moviendoSlider = true;
+            pasoSlider.setMaximum(longitud);
+            pasoSlider.setValue(paso);
+            moviendoSlider = false;
+            pasoLabel.setText("Paso " + paso + " / " + longitud);
+        }
+
+        private void programarFin() {
+            int longitud = longitudMaxima();
+            double falta = longitud > 0 ? (longitud - paso) / (double) longitud : 1.0;
+            finNs = System.nanoTime() + (long) (((Integer) duracionSpinner.getValue()) * 1_000_000_000L * falta);
+        }
+
+        private int longitudMaxima() {
+            int maxima = 0;
+            for (Corredor corredor : corredores) {
+                maxima = Math.max(maxima, corredor.linea.getLongitud());
+            }
+            return maxima;
+        }
+
+        private boolean todosTerminados() {
+            for (Corredor corredor : corredores) {
+                if (!corredor.isDone()) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Un algoritmo de la carrera: su búsqueda (fuera del EDT), su línea
+         * de tiempo, su panel y sus métricas
+         */
+        private static class Corredor extends SwingWorker<ResultadoBusqueda, int[]> {
+            private static final int[] SIN_CAMINO = new int[0];
+
+            private final String algoritmo;
+            private final GrafoLectura grafo;
+            private final ControlBusqueda control = new ControlBusqueda(TIEMPO_MAXIMO_MS, 0);
+            private final LineaTiempo linea;
+            private final MazePanel panel = new MazePanel();
+            private final JLabel metricas = new JLabel(" ");
+            private final JPanel vista = new JPanel(new BorderLayout());
+            private final AcumuladorVisitas acumulador = new AcumuladorVisitas(bloque -> publish(bloque));
+            private volatile long idHilo = -1;     // Hilo de la búsqueda (para leer su asignación)
+            private volatile long inicioNs;
+            private volatile long duracionNs = -1; // -1 mientras corre
+            private volatile long bytesInicio;
+            private volatile long bytesAsignados = -1;
+            private ResultadoBusqueda resultado;   // null mientras corre (EDT)
+            private int[] camino = SIN_CAMINO;     // Se arma una vez, en done()
+
+            Corredor(String algoritmo, char[][] mapa, GrafoLectura grafo, PiramideConteo paredes) {
+                this.algoritmo = algoritmo;
+                this.grafo = grafo;
+                this.linea = new LineaTiempo(grafo, mapa.length, mapa[0].length);
+                panel.setMapa(mapa, grafo, paredes);
+                panel.setLineaTiempo(linea);
+                vista.setBorder(BorderFactory.createTitledBorder(algoritmo + "  •  versión " + versionDe(grafo)));
+                vista.add(new JScrollPane(panel), BorderLayout.CENTER);
+                vista.add(metricas, BorderLayout.SOUTH);
+            }
+
+            @Override
+            protected ResultadoBusqueda doInBackground() throws Exception {
+                control.setObservadorVisitas(acumulador);
+                // Buscadores propios: Recorridos guarda estado del DFS en curso
+                CaminoMasCorto caminoPropio = new CaminoMasCorto(grafo);
+                Recorridos recorridosPropios = new Recorridos(grafo);
+                idHilo = Thread.currentThread().getId();
+                bytesInicio = bytesAsignadosPor(idHilo);
+                inicioNs = System.nanoTime();
+                ResultadoBusqueda obtenido;
+                try {
+                    obtenido = ejecutarBusqueda(algoritmo, grafo, caminoPropio, recorridosPropios, control);
+                } finally {
+                    long finNs = System.nanoTime();
+                    long bytesFin = bytesAsignadosPor(idHilo);  // El hilo del worker vuelve al pool: se mide ya
+                    bytesAsignados = bytesFin < 0 ? -1 : bytesFin - bytesInicio;
+                    duracionNs = finNs - inicioNs;  // Último: marca el fin para el EDT
+                }
+                acumulador.enviar();
+                return obtenido;
+            }
+
+            @Override
+            protected void process(List<int[]> bloques) {
+                for (int[] visitas : bloques) {
+                    linea.agregar(visitas);
+                }
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    resultado = get();
+                } catch (InterruptedException | ExecutionException | CancellationException ex) {
+                    resultado = new ResultadoBusqueda(EstadoBusqueda.CANCELADA, new ArrayList<>(), linea.getLongitud());
+                }
+                if (resultado.estaCompleta() && ALGORITMOS_CON_CAMINO.contains(algoritmo)) {
+                    List<Integer> nodos = resultado.getNodos();
+                    camino = new int[nodos.size()];
+                    for (int i = 0; i < camino.length; i++) {
+                        camino[i] = nodos.get(i);
+                    }
+                }
+            }
+
+            /**
+             * Muestra el paso común (recortado a sus visitas) y las métricas;
+             * el camino aparece cuando su animación llegó al final
+             */
+            void mostrar(int paso) {
+                panel.mostrarPaso(paso);
+                boolean alFinal = resultado != null && paso >= linea.getLongitud();
+                panel.setPath(alFinal ? camino : SIN_CAMINO);  // Sin asignar: el panel compara referencias
+                metricas.setText(textoMetricas());
+            }
+
+            private String textoMetricas() {
+                boolean corriendo = duracionNs < 0;
+                // Mientras corre solo se conocen las visitas recibidas; al terminar, las expansiones
+                long expandidos = resultado != null ? resultado.getNodosExpandidos() : linea.getLongitud();
+                long nanos = corriendo ? (inicioNs == 0 ? 0 : System.nanoTime() - inicioNs) : duracionNs;
+                long bytes = corriendo && idHilo >= 0 ? bytesAsignadosPor(idHilo) - bytesInicio : bytesAsignados;
+
+                StringBuilder texto = new StringBuilder();
+                texto.append(String.format("%s: %,d  •  Tiempo: %,.1f ms",
+                        resultado != null ? "Expandidos" : "Visitas", expandidos, nanos / 1e6));
+                texto.append(bytes >= 0 ? String.format("  •  Asignado: %,.1f MB", bytes / 1048576.0) : "  •  Asignado: n/d");
+                if (resultado == null) {
+                    texto.append("  •  corriendo...");
+                } else if (!resultado.estaCompleta()) {
+                    texto.append("  •  ").append(resultado.getEstado());
+                } else if (ALGORITMOS_CON_CAMINO.contains(algoritmo)) {
+                    texto.append(camino.length > 0 ? String.format("  •  Camino: %,d", camino.length - 1) : "  •  Sin camino");
+                } else {
+                    texto.append(textoLlegada());
+                }
+                return texto.toString();
+            }
+
+            /**
+             * Recorridos: primer paso en que se visitó alguna salida B
+             */
+            private String textoLlegada() {
+                int primero = LineaTiempo.SIN_VISITAR;
+                for (int s = 0; s < grafo.getCantidadSalidas(); s++) {
+                    primero = Math.min(primero, linea.getPasoDeNodo(grafo.getIdSalida(s)));
+                }
+                return primero == LineaTiempo.SIN_VISITAR ? "  •  No llega a B" : String.format("  •  B en paso %,d", primero + 1);
+            }
+        }
+    }
+
+    /**
+     * Bytes asignados por el hilo desde que empezó (-1 si la JVM no lo mide
+     * o el hilo ya terminó)
+     */
+    private static long bytesAsignadosPor(long idHilo) {
+        ThreadMXBean hilos = ManagementFactory.getThreadMXBean();
+        if (hilos instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean medidor = (com.sun.management.ThreadMXBean) hilos;
+            if (medidor.isThreadAllocatedMemorySupported() && medidor.isThreadAllocatedMemoryEnabled()) {
+                return medidor.getThreadAllocatedBytes(idHilo);
+            }
+        }
+        return -1;
+    }
+
     /**
      * Panel responsable de pintar el laberinto y destacar visitas/camino.
+     *
+     * No guarda imágenes del mapa completo: paintComponent dibuja solo las
+     * celdas que cortan el clip (lo visible o lo que se pidió repintar),
+     * así el costo depende del área en pantalla y no del tamaño del mapa.
+     *
+     * Zoom (rueda del mouse o botones) y desplazamiento (arrastrar):
+     *   - celda >= 2 px: cada celda se copia de un sprite con su fondo,
+     *     rejilla y marcas (16 combinaciones, dibujadas una vez por zoom)
+     *   - celda == 1 px: un píxel resume un bloque de 2^nivel x 2^nivel
+     *     celdas; el color sale de la fracción de paredes y de visitas
+     *     del bloque, leída de dos PiramideConteo (mipmaps de conteos)
+     *
+     * Las visitas salen de una LineaTiempo: mostrarPaso(p) solo actualiza
+     * las celdas visitadas entre el paso anterior y p (y sus conteos en la
+     * pirámide). El camino es un BitSet por celda: ninguna marca vive en
+     * colecciones de Integer.
      */
     private static class MazePanel extends JPanel {
+        // Colores fijos: no se crea ningún Color al pintar
+        private static final Color COLOR_VISITA = new Color(30, 144, 255, 200); // azul semitransparente
+        private static final Color COLOR_CAMINO = new Color(199, 21, 133, 220); // magenta
+        private static final Color COLOR_A = Color.GREEN.darker();
+        private static final Color COLOR_B = Color.RED.darker();
+        private static final Color COLOR_REJILLA = Color.LIGHT_GRAY;
+        private static final int MAX_REPINTADOS_POR_CELDA = 2048; // Más cambios: un repintado total
+        private static final int LADO_INICIAL = 600;       // Al abrir, el mapa entra en 600 x 600 px
+        private static final int CELDA_MAXIMA_AJUSTE = 30; // Tamaño máximo de celda al ajustar
+        private static final int CELDA_MAXIMA = 64;        // Zoom máximo (px por celda)
+        private static final int CELDA_MINIMA_REJILLA = 4; // Con celdas menores no se dibuja rejilla
+        private static final int MAX_PIXELES_LIENZO = 1 << 22; // Clips mayores se pintan por bandas
+
         private char[][] mapa;
-        private Grafo grafo;
-        private Set<Integer> visited = new HashSet<>();
-        private Set<Integer> path = new HashSet<>();
+        private GrafoLectura grafo;
+        private int filas;
+        private int columnas;
+        private LineaTiempo linea;           // Orden de visita (null = sin recorrido)
+        private int pasoMostrado;            // Visitas dibujadas: pasos 0 .. pasoMostrado-1
+        private int[] camino = new int[0];   // Nodos del camino (para recorrerlo)
+        private final BitSet enCamino = new BitSet(); // Bit fila * columnas + columna
+        private PiramideConteo piramideParedes;  // Paredes por bloque (fija)
+        private PiramideConteo piramideVisitas;  // Celdas visitadas por bloque (sigue a pasoMostrado)
+
+        // Zoom: celda px por celda; con celda == 1, un píxel = 2^nivel x 2^nivel celdas
+        private int celda = 1;
+        private int nivel = 0;
+
+        private int celdaSprites;            // Tamaño de celda con que se dibujaron los sprites
+        private int[][] sprites;             // Píxeles RGB por [fondo * 4 + marca]
+        private BufferedImage lienzo;        // Área de trabajo para el clip (se reutiliza)
+        private int[] pixelesLienzo;
+        private Point arrastre;              // Última posición del arrastre, en pantalla
 
         public MazePanel() {
             setBackground(Color.DARK_GRAY);
+            addMouseWheelListener(e -> {
+                if (e.getWheelRotation() < 0) acercar(e.getPoint());
+                else alejar(e.getPoint());
+            });
+            MouseAdapter desplazamiento = new MouseAdapter() {
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    arrastre = e.getLocationOnScreen();
+                }
+
+                @Override
+                public void mouseDragged(MouseEvent e) {
+                    JViewport vista = vista();
+                    if (vista == null || arrastre == null) return;
+                    Point actual = e.getLocationOnScreen();
+                    Point pos = vista.getViewPosition();
+                    moverVista(vista, pos.x - (actual.x - arrastre.x), pos.y - (actual.y - arrastre.y));
+                    arrastre = actual;
+                }
+            };
+            addMouseListener(desplazamiento);
+            addMouseMotionListener(desplazamiento);
         }
 
-        public void setMapa(char[][] mapa, Grafo grafo) {
+        public void setMapa(char[][] mapa, GrafoLectura grafo) {
+            setMapa(mapa, grafo, contarParedes(mapa));
+        }
+
+        /**
+         * @param paredes pirámide de paredes del mapa (ver contarParedes)
+         */
+        public void setMapa(char[][] mapa, GrafoLectura grafo, PiramideConteo paredes) {
             this.mapa = mapa;
             this.grafo = grafo;
-            this.visited.clear();
-            this.path.clear();
+            this.filas = mapa.length;
+            this.columnas = mapa[0].length;
+            this.linea = null;
+            this.pasoMostrado = 0;
+            this.camino = new int[0];
+            this.enCamino.clear();
+            piramideParedes = paredes;
+            piramideVisitas = new PiramideConteo(filas, columnas);
+            ajustarA(LADO_INICIAL, LADO_INICIAL);
             revalidate();
             repaint();
         }
 
-        public void markVisited(int id) {
-            visited.add(id);
-            repaint();
+        /**
+         * Pirámide de paredes para el zoom lejano; O(celdas), conviene
+         * armarla en segundo plano junto con el grafo
+         */
+        public static PiramideConteo contarParedes(char[][] mapa) {
+            PiramideConteo paredes = new PiramideConteo(mapa.length, mapa[0].length);
+            paredes.construir((i, j) -> mapa[i][j] == '*');
+            return paredes;
+        }
+
+        /**
+         * Pasa a otra versión del mismo mapa (mismas dimensiones) sin
+         * cambiar el zoom ni la posición; se borran las visitas y el
+         * camino, que eran de la versión anterior
+         */
+        public void cambiarVersion(char[][] mapa, GrafoLectura grafo, PiramideConteo paredes) {
+            this.mapa = mapa;
+            this.grafo = grafo;
+            this.linea = null;
+            piramideParedes = paredes;
+            clearMarks();
+        }
+
+        /**
+         * Celda (fila * columnas + columna) bajo un punto del panel; -1 si
+         * cae fuera del mapa o si con este zoom un píxel resume un bloque
+         */
+        public int celdaEn(Point punto) {
+            if (mapa == null || nivel > 0 || punto.x < 0 || punto.y < 0) return -1;
+            int fila = punto.y / celda;
+            int columna = punto.x / celda;
+            if (fila >= filas || columna >= columnas) return -1;
+            return fila * columnas + columna;
+        }
+
+        /**
+         * Asocia el recorrido a reproducir y vuelve al paso 0
+         */
+        public void setLineaTiempo(LineaTiempo linea) {
+            clearMarks();
+            this.linea = linea;
+        }
+
+        /**
+         * Muestra las visitas de los pasos 0 .. paso-1. Solo cambian las
+         * celdas cuya primera visita está entre el paso anterior y el nuevo
+         * (en cualquier sentido); si son más que las celdas del mapa
+         * conviene recontar el mapa comparando el paso de cada celda.
+         */
+        public void mostrarPaso(int paso) {
+            if (linea == null) return;
+            paso = Math.max(0, Math.min(paso, linea.getLongitud()));
+            int desde = Math.min(paso, pasoMostrado);
+            int hasta = Math.max(paso, pasoMostrado);
+            int delta = paso > pasoMostrado ? 1 : -1;
+            pasoMostrado = paso;
+            if (mapa == null || desde == hasta) return;
+
+            if (hasta - desde > filas * columnas) {
+                reconstruirVisitas();
+                repaint();
+                return;
+            }
+            boolean porCelda = hasta - desde <= MAX_REPINTADOS_POR_CELDA;
+            for (int s = desde; s < hasta; s++) {
+                int id = linea.getNodo(s);
+                if (linea.getPasoDeNodo(id) != s) continue;  // Revisita: la celda no cambia
+                piramideVisitas.incrementar(grafo.getX(id), grafo.getY(id), delta);
+                if (porCelda) repintarCelda(id);
+            }
+            if (!porCelda) repaint();  // Un solo repintado en lugar de miles de rectángulos
         }
 
         public void setPath(List<Integer> pathList) {
-            this.path.clear();
-            this.path.addAll(pathList);
-            repaint();
+            int[] nuevo = new int[pathList.size()];
+            for (int i = 0; i < nuevo.length; i++) {
+                nuevo[i] = pathList.get(i);
+            }
+            setPath(nuevo);
+        }
+
+        /**
+         * Igual que setPath(List), sin copiar: el panel se queda con el
+         * arreglo (no se debe modificar después). Si es el camino ya
+         * mostrado no asigna ni repinta nada.
+         */
+        public void setPath(int[] nuevo) {
+            if (nuevo == camino || Arrays.equals(camino, nuevo)) return;  // Mismo camino
+            int[] anterior = camino;
+            camino = nuevo;
+            enCamino.clear();
+            for (int id : camino) {
+                enCamino.set(celdaDe(id));
+            }
+            for (int id : anterior) {
+                repintarCelda(id);  // Quitar el camino anterior
+            }
+            for (int id : camino) {
+                repintarCelda(id);
+            }
         }
 
         public void clearMarks() {
-            visited.clear();
-            path.clear();
+            pasoMostrado = 0;
+            camino = new int[0];
+            enCamino.clear();
+            if (piramideVisitas != null) piramideVisitas.limpiar();
+            repaint();
+        }
+
+        // ===== ZOOM Y DESPLAZAMIENTO =====
+
+        /**
+         * Acerca un paso manteniendo quieto el punto ancla (coordenadas del panel)
+         */
+        public void acercar(Point ancla) {
+            if (mapa == null) return;
+            if (nivel > 0) {
+                cambiarZoom(1, nivel - 1, ancla);
+            } else if (celda < CELDA_MAXIMA) {
+                cambiarZoom(Math.min(CELDA_MAXIMA, Math.max(celda + 1, celda * 5 / 4)), 0, ancla);
+            }
+        }
+
+        /**
+         * Aleja un paso manteniendo quieto el punto ancla
+         */
+        public void alejar(Point ancla) {
+            if (mapa == null) return;
+            if (celda > 1) {
+                cambiarZoom(Math.max(1, Math.min(celda - 1, celda * 4 / 5)), 0, ancla);
+            } else if (nivel < piramideParedes.getNiveles() - 1) {
+                cambiarZoom(1, nivel + 1, ancla);
+            }
+        }
+
+        /**
+         * Ajusta el zoom para que el mapa entero entre en el área visible
+         */
+        public void ajustar() {
+            if (mapa == null) return;
+            JViewport vista = vista();
+            Dimension area = vista != null ? vista.getExtentSize() : new Dimension(LADO_INICIAL, LADO_INICIAL);
+            if (area.width <= 0 || area.height <= 0) return;  // Todavía sin tamaño
+            ajustarA(area.width, area.height);
+            revalidate();
+            if (vista != null) vista.setViewPosition(new Point(0, 0));
             repaint();
         }
 
+        /**
+         * Mayor zoom con el que el mapa entra en ancho x alto píxeles
+         */
+        private void ajustarA(int ancho, int alto) {
+            int porCelda = Math.min(ancho / columnas, alto / filas);
+            if (porCelda >= 1) {
+                celda = Math.min(CELDA_MAXIMA_AJUSTE, porCelda);
+                nivel = 0;
+                return;
+            }
+            celda = 1;
+            nivel = 1;
+            while (nivel < piramideParedes.getNiveles() - 1
+                    && (PiramideConteo.bloques(columnas, nivel) > ancho || PiramideConteo.bloques(filas, nivel) > alto)) {
+                nivel++;
+            }
+        }
+
+        private void cambiarZoom(int nuevaCelda, int nuevoNivel, Point ancla) {
+            double escalaAnterior = escala();
+            celda = nuevaCelda;
+            nivel = nuevoNivel;
+            double factor = escala() / escalaAnterior;
+
+            JViewport vista = vista();
+            revalidate();
+            if (vista != null) {
+                // El punto bajo el ancla sigue bajo el ancla
+                Point pos = vista.getViewPosition();
+                int dx = ancla.x - pos.x;
+                int dy = ancla.y - pos.y;
+                vista.validate();  // Aplica el nuevo tamaño antes de mover la vista
+                moverVista(vista, (int) Math.round(ancla.x * factor) - dx, (int) Math.round(ancla.y * factor) - dy);
+            }
+            repaint();
+        }
+
+        private void moverVista(JViewport vista, int x, int y) {
+            Dimension total = getPreferredSize();
+            Dimension visible = vista.getExtentSize();
+            x = Math.max(0, Math.min(x, total.width - visible.width));
+            y = Math.max(0, Math.min(y, total.height - visible.height));
+            vista.setViewPosition(new Point(x, y));
+        }
+
+        private JViewport vista() {
+            return getParent() instanceof JViewport ? (JViewport) getParent() : null;
+        }
+
+        /**
+         * Píxeles por celda (menor que 1 al alejar)
+         */
+        private double escala() {
+            return (double) celda / (1 << nivel);
+        }
+
+        private boolean conRejilla() {
+            return celda >= CELDA_MINIMA_REJILLA;
+        }
+
         @Override
         public Dimension getPreferredSize() {
             if (mapa == null) return new Dimension(400, 400);
-            int rows = mapa.length;
-            int cols = mapa[0].length;
-            int cell = Math.max(6, Math.min(30, 600 / Math.max(rows, cols)));
-            return new Dimension(cols * cell, rows * cell);
+            if (celda > 1) {
+                int borde = conRejilla() ? 1 : 0;  // Última línea de la rejilla
+                return new Dimension(columnas * celda + borde, filas * celda + borde);
+            }
+            return new Dimension(PiramideConteo.bloques(columnas, nivel), PiramideConteo.bloques(filas, nivel));
         }
 
+        // ===== PINTADO =====
+
         @Override
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
             if (mapa == null) return;
+            Rectangle clip = g.getClipBounds();
+            if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+            if (celda > 1) {
+                pintarCeldas(g, clip);
+            } else {
+                pintarBloques(g, clip);
+            }
+        }
 
-            int rows = mapa.length;
-            int cols = mapa[0].length;
-            int cell = Math.max(6, Math.min(30, 600 / Math.max(rows, cols)));
-
-            for (int i = 0; i < rows; i++) {
-                for (int j = 0; j < cols; j++) {
-                    char c = mapa[i][j];
-                    int x = j * cell;
-                    int y = i * cell;
-
-                    // Fondo
-                    if (c == '*') {
-                        g.setColor(Color.BLACK);
-                    } else if (c == 'A') {
-                        g.setColor(Color.GREEN.darker());
-                    } else if (c == 'B') {
-                        g.setColor(Color.RED.darker());
-                    } else {
-                        g.setColor(Color.WHITE);
-                    }
-                    g.fillRect(x, y, cell, cell);
+        /**
+         * Zoom cercano: copia al lienzo el sprite de cada celda que corta el
+         * clip (por bandas de filas si el clip es muy grande) y lo dibuja
+         */
+        private void pintarCeldas(Graphics g, Rectangle clip) {
+            prepararSprites();
+            int j0 = Math.max(0, clip.x / celda);
+            int j1 = Math.min(columnas - 1, (clip.x + clip.width - 1) / celda);
+            int i0 = Math.max(0, clip.y / celda);
+            int i1 = Math.min(filas - 1, (clip.y + clip.height - 1) / celda);
+            if (j0 > j1 || i0 > i1) return;
 
-                    // Líneas de rejilla
-                    g.setColor(Color.LIGHT_GRAY);
-                    g.drawRect(x, y, cell, cell);
+            int ancho = (j1 - j0 + 1) * celda;
+            int filasPorBanda = Math.max(1, MAX_PIXELES_LIENZO / (ancho * celda));
+            for (int banda = i0; banda <= i1; banda += filasPorBanda) {
+                int fin = Math.min(i1, banda + filasPorBanda - 1);
+                int alto = (fin - banda + 1) * celda;
+                prepararLienzo(ancho, alto);
+                int[] pixeles = pixelesLienzo;
+                int paso = lienzo.getWidth();
+                for (int i = banda; i <= fin; i++) {
+                    int filaDestino = (i - banda) * celda * paso;
+                    for (int j = j0; j <= j1; j++) {
+                        int[] sprite = sprites[indiceSprite(i, j)];
+                        int destino = filaDestino + (j - j0) * celda;
+                        for (int r = 0; r < celda; r++) {
+                            System.arraycopy(sprite, r * celda, pixeles, destino + r * paso, celda);
+                        }
+                    }
                 }
+                int x = j0 * celda;
+                int y = banda * celda;
+                g.drawImage(lienzo, x, y, x + ancho, y + alto, 0, 0, ancho, alto, null);
+            }
+
+            if (conRejilla()) {
+                // Cada sprite trae su línea superior e izquierda; falta el borde exterior
+                g.setColor(COLOR_REJILLA);
+                if (j1 == columnas - 1) g.drawLine(columnas * celda, i0 * celda, columnas * celda, (i1 + 1) * celda);
+                if (i1 == filas - 1) g.drawLine(j0 * celda, filas * celda, (j1 + 1) * celda, filas * celda);
             }
+        }
 
-            // Dibujar visitas y camino
-            if (grafo != null) {
-                for (Integer id : visited) {
-                    Nodo nodo = grafo.getNodo(id);
-                    if (nodo == null) continue;
-                    int px = nodo.getY() * cell;
-                    int py = nodo.getX() * cell;
-                    g.setColor(new Color(30, 144, 255, 200)); // azul semitransparente
-                    g.fillOval(px + cell/4, py + cell/4, cell/2, cell/2);
+        /**
+         * Zoom lejano: un píxel por bloque de 2^nivel celdas. Gris según la
+         * fracción de paredes; azul según la fracción de celdas libres
+         * visitadas; el camino y A/B se dibujan encima para no perderse.
+         */
+        private void pintarBloques(Graphics g, Rectangle clip) {
+            int x0 = Math.max(0, clip.x);
+            int x1 = Math.min(PiramideConteo.bloques(columnas, nivel) - 1, clip.x + clip.width - 1);
+            int y0 = Math.max(0, clip.y);
+            int y1 = Math.min(PiramideConteo.bloques(filas, nivel) - 1, clip.y + clip.height - 1);
+            if (x0 > x1 || y0 > y1) return;
+
+            int ancho = x1 - x0 + 1;
+            int filasPorBanda = Math.max(1, MAX_PIXELES_LIENZO / ancho);
+            int visita = COLOR_VISITA.getRGB();
+            int alfa = COLOR_VISITA.getAlpha();
+            for (int banda = y0; banda <= y1; banda += filasPorBanda) {
+                int fin = Math.min(y1, banda + filasPorBanda - 1);
+                int alto = fin - banda + 1;
+                prepararLienzo(ancho, alto);
+                int[] pixeles = pixelesLienzo;
+                int paso = lienzo.getWidth();
+                for (int by = banda; by <= fin; by++) {
+                    for (int bx = x0; bx <= x1; bx++) {
+                        int area;
+                        int paredes;
+                        int visitadas;
+                        if (nivel >= PiramideConteo.NIVEL_MINIMO) {
+                            area = piramideParedes.getArea(nivel, by, bx);
+                            paredes = piramideParedes.getConteo(nivel, by, bx);
+                            visitadas = piramideVisitas.getConteo(nivel, by, bx);
+                        } else {
+                            // Niveles 0 y 1: como mucho 4 celdas, se leen directo
+                            area = 0;
+                            paredes = 0;
+                            visitadas = 0;
+                            int lado = 1 << nivel;
+                            for (int i = by * lado; i < Math.min(filas, (by + 1) * lado); i++) {
+                                for (int j = bx * lado; j < Math.min(columnas, (bx + 1) * lado); j++) {
+                                    area++;
+                                    if (mapa[i][j] == '*') paredes++;
+                                    if (visitada(i, j)) visitadas++;
+                                }
+                            }
+                        }
+                        int gris = 255 - 255 * paredes / area;
+                        int a = visitadas == 0 ? 0 : alfa * visitadas / Math.max(1, area - paredes);
+                        pixeles[(by - banda) * paso + (bx - x0)] = mezclar(gris, visita, a);
+                    }
                 }
+                for (int id : camino) {
+                    int bx = grafo.getY(id) >> nivel;
+                    int by = grafo.getX(id) >> nivel;
+                    if (bx >= x0 && bx <= x1 && by >= banda && by <= fin) {
+                        pixeles[(by - banda) * paso + (bx - x0)] = COLOR_CAMINO.getRGB();
+                    }
+                }
+                g.drawImage(lienzo, x0, banda, x0 + ancho, banda + alto, 0, 0, ancho, alto, null);
+            }
 
-                for (Integer id : path) {
-                    Nodo nodo = grafo.getNodo(id);
-                    if (nodo == null) continue;
-                    int px = nodo.getY() * cell;
-                    int py = nodo.getX() * cell;
-                    g.setColor(new Color(199, 21, 133, 220)); // magenta
-                    g.fillRect(px + cell/6, py + cell/6, cell*2/3, cell*2/3);
+            // A y B como cuadrados de 3x3 para que se vean aun muy alejados
+            if (grafo.getIdA() >= 0) marcarExtremo(g, grafo.getIdA(), COLOR_A);
+            for (int s = 0; s < grafo.getCantidadSalidas(); s++) {
+                marcarExtremo(g, grafo.getIdSalida(s), COLOR_B);
+            }
+        }
+
+        private void marcarExtremo(Graphics g, int id, Color color) {
+            g.setColor(color);
+            g.fillRect((grafo.getY(id) >> nivel) - 1, (grafo.getX(id) >> nivel) - 1, 3, 3);
+        }
+
+        /**
+         * Gris mezclado con el color según alfa (0..255)
+         */
+        private static int mezclar(int gris, int color, int alfa) {
+            int r = (gris * (255 - alfa) + ((color >> 16) & 0xFF) * alfa) / 255;
+            int v = (gris * (255 - alfa) + ((color >> 8) & 0xFF) * alfa) / 255;
+            int b = (gris * (255 - alfa) + (color & 0xFF) * alfa) / 255;
+            return (r << 16) | (v << 8) | b;
+        }
+
+        /**
+         * Asegura un lienzo de al menos ancho x alto (crece, no se achica)
+         */
+        private void prepararLienzo(int ancho, int alto) {
+            if (lienzo != null && lienzo.getWidth() >= ancho && lienzo.getHeight() >= alto) return;
+            int w = lienzo == null ? ancho : Math.max(ancho, lienzo.getWidth());
+            int h = lienzo == null ? alto : Math.max(alto, lienzo.getHeight());
+            lienzo = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            pixelesLienzo = ((DataBufferInt) lienzo.getRaster().getDataBuffer()).getData();
+        }
+
+        /**
+         * Sprite de la celda: fondo (libre, pared, A, B) x marca (ninguna,
+         * visita, camino, ambas)
+         */
+        private int indiceSprite(int i, int j) {
+            char c = mapa[i][j];
+            int fondo = c == '*' ? 1 : c == 'A' ? 2 : c == 'B' ? 3 : 0;
+            int marca = (visitada(i, j) ? 1 : 0) | (enCamino.get(i * columnas + j) ? 2 : 0);
+            return fondo * 4 + marca;
+        }
+
+        private boolean visitada(int i, int j) {
+            return linea != null && linea.getPasoDeCelda(i, j) < pasoMostrado;
+        }
+
+        // ===== SPRITES Y MARCAS =====
+
+        /**
+         * Dibuja con Java2D las 16 celdas posibles para el tamaño actual
+         * (solo cuando cambia el zoom)
+         */
+        private void prepararSprites() {
+            if (sprites != null && celdaSprites == celda) return;
+            Color[] fondos = {Color.WHITE, Color.BLACK, COLOR_A, COLOR_B};
+            sprites = new int[16][];
+            for (int f = 0; f < 4; f++) {
+                for (int m = 0; m < 4; m++) {
+                    BufferedImage sprite = new BufferedImage(celda, celda, BufferedImage.TYPE_INT_RGB);
+                    Graphics2D g = sprite.createGraphics();
+                    g.setColor(fondos[f]);
+                    g.fillRect(0, 0, celda, celda);
+                    if (conRejilla()) {
+                        g.setColor(COLOR_REJILLA);
+                        g.drawRect(0, 0, celda, celda);  // Quedan la línea superior y la izquierda
+                    }
+                    if (m != 0) {
+                        g.drawImage(crearMarca(celda, (m & 1) != 0, (m & 2) != 0), 0, 0, null);
+                    }
+                    g.dispose();
+                    sprites[f * 4 + m] = sprite.getRGB(0, 0, celda, celda, null, 0, celda);
                 }
             }
+            celdaSprites = celda;
+        }
+
+        /**
+         * Marca de una celda sobre fondo transparente
+         */
+        private static BufferedImage crearMarca(int cell, boolean visita, boolean camino) {
+            BufferedImage marca = new BufferedImage(cell, cell, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = marca.createGraphics();
+            if (visita) {
+                g.setColor(COLOR_VISITA);
+                g.fillOval(cell/4, cell/4, cell/2, cell/2);
+            }
+            if (camino) {
+                g.setColor(COLOR_CAMINO);
+                g.fillRect(cell/6, cell/6, cell*2/3, cell*2/3);
+            }
+            g.dispose();
+            return marca;
+        }
+
+        /**
+         * Recuenta las visitas por bloque para pasoMostrado (saltos grandes)
+         */
+        private void reconstruirVisitas() {
+            if (linea == null || pasoMostrado == 0) {
+                piramideVisitas.limpiar();
+            } else {
+                piramideVisitas.construir(this::visitada);
+            }
+        }
+
+        /**
+         * Pide repintar solo el rectángulo (o píxel, alejado) del nodo
+         */
+        private void repintarCelda(int id) {
+            if (mapa == null || grafo == null || !grafo.contieneNodo(id)) return;
+            int x = grafo.getY(id);  // Lectura directa, sin crear Nodo
+            int y = grafo.getX(id);
+            if (celda > 1) {
+                repaint(x * celda, y * celda, celda, celda);
+            } else {
+                repaint(x >> nivel, y >> nivel, 1, 1);
+            }
+        }
+
+        private int celdaDe(int id) {
+            return grafo.getX(id) * columnas + grafo.getY(id);
         }
     }
 }
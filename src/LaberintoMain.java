@@ -1,14 +1,36 @@
 // package com.laberinto;
 
+import algorithms.AnalisisBiconexo;     // Cuellos de botella (puntos de articulación)
+import algorithms.BusquedaMultiObjetivo;  // Salida más cercana cuando hay varias B
 import algorithms.CaminoMasCorto;  // Algoritmo para encontrar el camino más corto
+import algorithms.ConsultasPorLotes;  // Muchas consultas de distancia en paralelo
+import algorithms.ControlBusqueda;  // Control de la búsqueda (observador de visitas, tiempo máximo)
+import algorithms.DStarLite;       // Planificador incremental para laberintos que cambian
 import algorithms.Recorridos;      // Diferentes tipos de recorridos (DFS, BFS)
-import grafo.Grafo;                 // Estructura del grafo del laberinto
+import algorithms.ResultadoBusqueda;  // Camino y nodos expandidos de una búsqueda
+import grafo.Grafo;                 // Grafo editable (al alternar celdas)
+import grafo.GrafoLectura;          // Vista de lectura: grafo del heap o mapeado desde la caché
+import grafo.GrafoOffHeap;          // Grafo mapeado desde la caché (para informar su tamaño)
+import grafo.GrafoRejilla;          // Rejilla compacta: 4 bits de lados abiertos por celda
 import models.Nodo;                 // Nodos que componen el grafo
+import utils.CacheGrafos;            // Caché en disco de grafos ya construidos
+import utils.ExportadorMatrices;     // Exporta matrices a archivo (CSV / Matrix Market)
 import utils.LaberintoParser;        // Parser para leer archivos de laberinto
+import utils.LineaTiempo;            // Orden de visita de la búsqueda (mapa de calor)
 import utils.MatrizesGrafo;          // Generador de matrices (adyacencia e incidencia)
+import utils.MotorMatricial;         // Alcance en k pasos y conteo de caminatas
+import utils.RenderizadorPng;        // Imagen PNG de la solución, sin interfaz gráfica
+import utils.SalidaTexto;            // Salida con buffer (consola o archivo) para mapas y recorridos
 
 import java.io.IOException;          // Para manejar excepciones de entrada/salida
+import java.nio.file.Files;          // Lectura del archivo de consultas
+import java.nio.file.Path;           // Rutas de archivos de salida
+import java.nio.file.Paths;          // Rutas para la caché y la exportación
+import java.util.Arrays;             // Recorte de los arreglos de consultas
+import java.util.BitSet;             // Conjuntos de nodos alcanzables
 import java.util.List;               // Listas de datos
+import java.util.Map;                // Mapeo ID de nodo -> índice de matriz
+import java.util.Random;             // Consultas aleatorias de prueba
 import java.util.Scanner;            // Para leer entrada desde la consola
 
 /**
@@ -22,17 +44,38 @@ import java.util.Scanner;            // Para leer entrada desde la consola
  *   - Encontrar el camino más corto entre dos puntos (A y B) usando BFS
  *   - Ejecutar diferentes algoritmos de recorrido (DFS, BFS, Greedy)
  *   - Visualizar matrices del grafo (adyacencia e incidencia)
+ *   - Exportar las matrices a archivo (Matrix Market o CSV)
+ *   - Consultar las celdas alcanzables desde A en k movimientos
+ *   - Alternar celdas (pared/espacio) y replanificar con D* Lite
+ *   - Exportar la solución como PNG (mapa de calor de la búsqueda + camino)
+ *   - Responder consultas de distancia por lotes (informa consultas/s)
+ *   - Resolver A -> B sobre la rejilla compacta de 4 bits por celda
  * 
  * El programa utiliza un menú interactivo para que el usuario pueda
  * seleccionar qué operación desea realizar.
+ *
+ * Modo por lotes (sin menú ni interfaz gráfica):
+ *   java LaberintoMain --png laberinto.txt salida.png [escala]
+ *
+ * Con "--salida archivo.txt" los mapas, caminos y recorridos se escriben
+ * completos en ese archivo en lugar de la consola. Con "--max-lineas N"
+ * cada mapa, camino o recorrido se corta a N líneas y el resto se resume
+ * ("… [+M líneas]"); sin esa opción se imprime completo.
  */
 public class LaberintoMain {
+    // ===== CONSTANTES =====
+    private static final long PRESUPUESTO_CAMINATAS = 500_000_000L;  // Sumas máximas del conteo (unos segundos)
+
     // ===== ATRIBUTOS DE LA APLICACIÓN =====
     private LaberintoParser parser;          // Lee archivos de laberinto
-    private Grafo grafo;                     // Grafo construido desde el laberinto
+    private GrafoLectura grafo;              // Grafo actual: mapeado desde la caché o construido en el heap
     private CaminoMasCorto caminoMasCorto;   // Busca el camino más corto (BFS)
     private Recorridos recorridos;           // Ejecuta DFS, BFS, Greedy
     private MatrizesGrafo matrices;          // Genera matrices del grafo
+    private DStarLite planificador;          // Plan incremental A -> B (se crea al primer cambio)
+    private CacheGrafos cache = new CacheGrafos();  // Grafos e índices ya construidos, por contenido
+    private CacheGrafos.Entrada entradaCache;       // Entrada del laberinto actual (null si no hay)
+    private SalidaTexto salida = SalidaTexto.consola();  // Destino de mapas, caminos y recorridos
 
     /**
      * Método principal: punto de entrada de la aplicación
@@ -40,6 +83,35 @@ public class LaberintoMain {
      */
     public static void main(String[] args) {
         LaberintoMain app = new LaberintoMain();
+        if (args.length >= 3 && args[0].equals("--png")) {
+            System.exit(app.renderizarPorLotes(args) ? 0 : 1);
+        }
+        int maxLineas = 0;  // Sin límite salvo que se pida
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (args[i].equals("--salida")) {
+                try {
+                    app.salida = SalidaTexto.archivo(Paths.get(args[i + 1]));
+                } catch (IOException e) {
+                    System.out.println("✗ Error: no se puede abrir " + args[i + 1] + ": " + e.getMessage());
+                    return;
+                }
+                System.out.println("Mapas, caminos y recorridos se escriben en " + args[i + 1]);
+            } else if (args[i].equals("--max-lineas")) {
+                try {
+                    maxLineas = Integer.parseInt(args[i + 1]);
+                } catch (NumberFormatException e) {
+                    maxLineas = -1;
+                }
+                if (maxLineas < 0) {
+                    System.out.println("✗ Error: --max-lineas espera un número de líneas (0 = sin límite)");
+                    return;
+                }
+            }
+        }
+        if (maxLineas > 0) {
+            app.salida.setLimites(maxLineas, 0);
+            System.out.println("Mapas, caminos y recorridos se cortan a " + maxLineas + " líneas (--max-lineas)");
+        }
         app.ejecutar();  // Inicia el ciclo principal
     }
 
@@ -90,6 +162,48 @@ public class LaberintoMain {
                     }
                     break;
                 case "6":
+                    if (grafo != null) {
+                        alternarCelda(scanner);
+                    } else {
+                        System.out.println("Primero debe cargar un archivo de laberinto.");
+                    }
+                    break;
+                case "7":
+                    if (grafo != null) {
+                        exportarMatrices(scanner);
+                    } else {
+                        System.out.println("Primero debe cargar un archivo de laberinto.");
+                    }
+                    break;
+                case "8":
+                    if (grafo != null) {
+                        consultarAlcanzables(scanner);
+                    } else {
+                        System.out.println("Primero debe cargar un archivo de laberinto.");
+                    }
+                    break;
+                case "9":
+                    if (grafo != null) {
+                        exportarPng(scanner);
+                    } else {
+                        System.out.println("Primero debe cargar un archivo de laberinto.");
+                    }
+                    break;
+                case "10":
+                    if (grafo != null) {
+                        consultasPorLotes(scanner);
+                    } else {
+                        System.out.println("Primero debe cargar un archivo de laberinto.");
+                    }
+                    break;
+                case "11":
+                    if (grafo != null) {
+                        resolverEnRejilla();
+                    } else {
+                        System.out.println("Primero debe cargar un archivo de laberinto.");
+                    }
+                    break;
+                case "12":
                     salir = true;
                     System.out.println("¡Hasta luego!");
                     break;
@@ -99,6 +213,7 @@ public class LaberintoMain {
         }
 
         scanner.close();
+        salida.cerrar();
     }
 
     private void mostrarMenu() {
@@ -110,7 +225,13 @@ public class LaberintoMain {
         System.out.println("3. Encontrar camino más corto (A -> B)");
         System.out.println("4. Ejecutar recorridos del grafo");
         System.out.println("5. Mostrar matrices (adyacencia e incidencia)");
-        System.out.println("6. Salir");
+        System.out.println("6. Alternar celda (pared/espacio) y replanificar");
+        System.out.println("7. Exportar matrices a archivo (Matrix Market / CSV)");
+        System.out.println("8. Celdas alcanzables desde A en k movimientos");
+        System.out.println("9. Exportar solución a PNG (mapa de calor + camino)");
+        System.out.println("10. Consultas de distancia por lotes");
+        System.out.println("11. Resolver sobre la rejilla compacta (4 bits por celda)");
+        System.out.println("12. Salir");
         System.out.println("=".repeat(50));
     }
 
@@ -120,54 +241,145 @@ public class LaberintoMain {
 
         try {
             parser = new LaberintoParser();
-            parser.leerArchivo(ruta);
-            grafo = parser.construirGrafo();
+            entradaCache = obtenerDeCache(ruta);
+            if (entradaCache != null) {
+                grafo = parser.cargarDesdeGrafo(entradaCache.getGrafo());  // Sin reconstruir desde el texto
+            } else {
+                parser.leerArchivo(ruta);
+                grafo = parser.construirGrafo();
+            }
             caminoMasCorto = new CaminoMasCorto(grafo);
             recorridos = new Recorridos(grafo);
             matrices = new MatrizesGrafo(grafo);
+            planificador = null;
 
             System.out.println("\n✓ Archivo cargado exitosamente.");
-            parser.imprimirMapa();
+            parser.imprimirMapa(salida);
             System.out.println("\nGrafo construido:");
             System.out.println("- Nodos: " + grafo.getCantidadNodos());
             System.out.println("- Aristas: " + grafo.getCantidadAristas());
-            System.out.println("- Punto de inicio (A): " + grafo.getNodoA());
-            System.out.println("- Punto de fin (B): " + grafo.getNodoB());
+            System.out.println("- Punto de inicio (A): " + nodo(grafo.getIdA()));
+            System.out.println("- Punto de fin (B): " + nodo(idB()));
+            if (grafo.getCantidadSalidas() > 1) {
+                System.out.println("- Salidas (B) en total: " + grafo.getCantidadSalidas());
+            }
+            if (entradaCache != null) {
+                System.out.println("- Caché: " + (entradaCache.isAcierto() ? "reutilizada (mapeada)" : "creada"));
+            }
 
         } catch (IOException e) {
             System.out.println("✗ Error: " + e.getMessage());
         }
     }
 
+    /**
+     * Busca el laberinto en la caché (o lo agrega)
+     * @return la entrada, o null si la caché no está disponible o el
+     *         archivo no es válido (se informa y se lee como texto)
+     */
+    private CacheGrafos.Entrada obtenerDeCache(String ruta) {
+        try {
+            return cache.obtener(Paths.get(ruta));
+        } catch (IOException | RuntimeException e) {
+            System.out.println("! Caché no disponible (" + e + "): se lee el archivo de texto.");
+            return null;
+        }
+    }
+
+    /**
+     * Vista Nodo de un ID del grafo actual (para mostrar posiciones)
+     * @return el nodo, o null si el ID no existe
+     */
+    private Nodo nodo(int id) {
+        return id >= 0 && grafo.contieneNodo(id) ? new Nodo(id, grafo.getX(id), grafo.getY(id), grafo.getTipo(id)) : null;
+    }
+
+    /**
+     * ID de la primera salida B (-1 si no hay)
+     */
+    private int idB() {
+        return grafo.getCantidadSalidas() > 0 ? grafo.getIdSalida(0) : -1;
+    }
+
     private void mostrarInfoGrafo() {
         System.out.println("\n" + "=".repeat(50));
         System.out.println("INFORMACIÓN DEL GRAFO");
         System.out.println("=".repeat(50));
 
-        Nodo nodoA = grafo.getNodoA();
-        Nodo nodoB = grafo.getNodoB();
+        Nodo nodoA = nodo(grafo.getIdA());
 
         System.out.println("Cantidad de nodos: " + grafo.getCantidadNodos());
         System.out.println("Cantidad de aristas: " + grafo.getCantidadAristas());
         System.out.println("\nPunto de inicio (A): Posición (" + nodoA.getX() + ", " + nodoA.getY() + ")");
-        System.out.println("Punto de fin (B): Posición (" + nodoB.getX() + ", " + nodoB.getY() + ")");
+        for (int i = 0; i < grafo.getCantidadSalidas(); i++) {
+            Nodo nodoB = nodo(grafo.getIdSalida(i));
+            System.out.println("Punto de fin (B): Posición (" + nodoB.getX() + ", " + nodoB.getY() + ")");
+        }
+
+        // Cuellos de botella: celdas que, si se vuelven pared, desconectan A de B
+        AnalisisBiconexo analisis = new AnalisisBiconexo(grafo);
+        List<Integer> criticas = analisis.celdasCriticas(nodoA.getId(), idB());
+        System.out.println("\nPuntos de articulación: " + analisis.getPuntosArticulacion().size());
+        System.out.println("Bloques a cruzar entre A y B: "
+                + analisis.bloquesEntre(nodoA.getId(), idB()).size());
+        ResultadoBusqueda restringido = analisis.caminoRestringido(nodoA.getId(), idB(), ControlBusqueda.sinLimites());
+        System.out.println("Camino A -> B buscando solo en esos bloques: "
+                + (restringido.getNodos().isEmpty() ? "sin camino" : (restringido.getNodos().size() - 1) + " pasos")
+                + " (" + restringido.getNodosExpandidos() + " nodos expandidos)");
+        System.out.print("Celdas críticas A -> B (" + criticas.size() + "):");
+        for (Integer id : criticas) {
+            System.out.print(" (" + grafo.getX(id) + ", " + grafo.getY(id) + ")");
+        }
+        System.out.println();
+
+        // Índices precalculados de la caché (válidos mientras no se alternen celdas);
+        // sin caché, el campo de distancias se calcula con un BFS multi-fuente
+        int distancia;
+        if (entradaCache != null) {
+            distancia = entradaCache.getDistanciaASalida(nodoA.getId());
+            System.out.println("\nComponentes conexas: " + entradaCache.getCantidadComponentes());
+            System.out.print("Landmarks (cotas ALT para A*, " + entradaCache.getCantidadLandmarks() + "):");
+            for (int l = 0; l < entradaCache.getCantidadLandmarks(); l++) {
+                int id = entradaCache.getLandmark(l);
+                System.out.print(" (" + grafo.getX(id) + ", " + grafo.getY(id) + ")");
+            }
+            System.out.println();
+            BusquedaMultiObjetivo multi = new BusquedaMultiObjetivo(grafo);
+            System.out.println("Cota inferior de A a la salida más cercana: "
+                    + entradaCache.cotaInferior(multi.getIdsSalidas()).applyAsInt(nodoA.getId()) + " pasos");
+        } else {
+            BusquedaMultiObjetivo multi = new BusquedaMultiObjetivo(grafo);
+            distancia = multi.distanciaASalidaMasCercana(multi.getIdsSalidas())[nodoA.getId()];
+            System.out.println();
+        }
+        System.out.println("Distancia de A a la salida más cercana: "
+                + (distancia == -1 ? "sin camino" : distancia + " pasos"));
 
-        parser.imprimirMapa();
+        parser.imprimirMapa(salida);
     }
 
     private void encontrarCaminoMasCorto() {
-        Nodo nodoA = grafo.getNodoA();
-        Nodo nodoB = grafo.getNodoB();
+        Nodo nodoA = nodo(grafo.getIdA());
+        Nodo nodoB = nodo(idB());
+        List<Integer> camino;
 
-        List<Integer> camino = caminoMasCorto.encontrarCaminoMasCorto(nodoA.getId(), nodoB.getId());
+        if (grafo.getCantidadSalidas() > 1 || entradaCache != null) {
+            // Varias salidas: A* hacia la más cercana en una sola pasada. Con
+            // la caché, la heurística usa también las cotas de los landmarks (ALT)
+            BusquedaMultiObjetivo multi = new BusquedaMultiObjetivo(grafo);
+            if (entradaCache != null) multi.setCotaInferior(entradaCache.cotaInferior(multi.getIdsSalidas()));
+            camino = multi.salidaMasCercanaAEstrella(nodoA.getId(), multi.getIdsSalidas());
+        } else {
+            camino = caminoMasCorto.encontrarCaminoMasCorto(nodoA.getId(), nodoB.getId());
+        }
 
-        caminoMasCorto.imprimirCamino(camino);
-        caminoMasCorto.imprimirMapaConCamino(parser.getMapa(), camino);
+        caminoMasCorto.imprimirCamino(camino, salida);
+        caminoMasCorto.imprimirMapaConCamino(parser.getMapa(), camino, salida);
     }
 
     private void ejecutarRecorridos() {
-        Nodo nodoA = grafo.getNodoA();
-        Nodo nodoB = grafo.getNodoB();
+        Nodo nodoA = nodo(grafo.getIdA());
+        Nodo nodoB = nodo(idB());
 
         System.out.println("\n" + "=".repeat(50));
         System.out.println("EJECUTANDO RECORRIDOS DEL GRAFO");
@@ -175,23 +387,302 @@ public class LaberintoMain {
 
         // DFS Preorden
         List<Integer> dfsPreorden = recorridos.dfsPreorden(nodoA.getId());
-        recorridos.imprimirRecorrido("DFS - PREORDEN", dfsPreorden);
+        recorridos.imprimirRecorrido("DFS - PREORDEN", dfsPreorden, salida);
 
         // DFS Inorden
         List<Integer> dfsInorden = recorridos.dfsInorden(nodoA.getId());
-        recorridos.imprimirRecorrido("DFS - INORDEN", dfsInorden);
+        recorridos.imprimirRecorrido("DFS - INORDEN", dfsInorden, salida);
 
         // DFS Postorden
         List<Integer> dfsPostorden = recorridos.dfsPostorden(nodoA.getId());
-        recorridos.imprimirRecorrido("DFS - POSTORDEN", dfsPostorden);
+        recorridos.imprimirRecorrido("DFS - POSTORDEN", dfsPostorden, salida);
 
         // BFS
         List<Integer> bfs = recorridos.bfs(nodoA.getId());
-        recorridos.imprimirRecorrido("BFS (AMPLITUD)", bfs);
+        recorridos.imprimirRecorrido("BFS (AMPLITUD)", bfs, salida);
 
         // Greedy Best-First Search
         List<Integer> greedy = recorridos.greedyBestFirstSearch(nodoA.getId(), nodoB.getId());
-        recorridos.imprimirRecorrido("GREEDY BEST-FIRST SEARCH (HEURÍSTICO)", greedy);
+        recorridos.imprimirRecorrido("GREEDY BEST-FIRST SEARCH (HEURÍSTICO)", greedy, salida);
+    }
+
+    private void alternarCelda(Scanner scanner) {
+        // Editar necesita el grafo en el heap: si vino de la caché, se copia recién ahora
+        Grafo editable = parser.getGrafo();
+        if (grafo != editable) {
+            grafo = editable;
+            caminoMasCorto = new CaminoMasCorto(grafo);
+            recorridos = new Recorridos(grafo);
+            matrices = new MatrizesGrafo(grafo);
+        }
+        Nodo nodoA = nodo(grafo.getIdA());
+        Nodo nodoB = nodo(idB());
+
+        // Plan inicial: se calcula una sola vez y luego solo se repara
+        if (planificador == null) {
+            planificador = new DStarLite(editable, nodoA.getId(), nodoB.getId());
+            planificador.calcularCamino();
+        }
+
+        System.out.print("Ingrese fila y columna separadas por espacio: ");
+        String[] partes = scanner.nextLine().trim().split("\\s+");
+        try {
+            int fila = Integer.parseInt(partes[0]);
+            int columna = Integer.parseInt(partes[1]);
+
+            List<Integer> afectados = parser.alternarCelda(fila, columna);
+            entradaCache = null;  // Los índices de la caché ya no describen este mapa
+            matrices = new MatrizesGrafo(grafo);  // Las matrices dependen de la estructura
+
+            long expandidosAntes = planificador.getNodosExpandidos();
+            long inicio = System.nanoTime();
+            List<Integer> camino = planificador.notificarCambios(afectados);
+            long tiempoIncremental = System.nanoTime() - inicio;
+
+            // Referencia: BFS completo desde cero sobre el grafo modificado
+            inicio = System.nanoTime();
+            caminoMasCorto.encontrarCaminoMasCorto(nodoA.getId(), nodoB.getId());
+            long tiempoCompleto = System.nanoTime() - inicio;
+
+            System.out.println("\n✓ Celda (" + fila + ", " + columna + ") alternada.");
+            System.out.println("- Replanificación D* Lite: " + tiempoIncremental / 1000 + " µs, "
+                    + (planificador.getNodosExpandidos() - expandidosAntes) + " vértices expandidos");
+            System.out.println("- BFS completo (referencia): " + tiempoCompleto / 1000 + " µs");
+            caminoMasCorto.imprimirCamino(camino, salida);
+            caminoMasCorto.imprimirMapaConCamino(parser.getMapa(), camino, salida);
+
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            System.out.println("✗ Error: debe ingresar dos números enteros.");
+        } catch (IllegalArgumentException e) {
+            System.out.println("✗ Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Modo por lotes: carga el laberinto, lo resuelve y escribe el PNG
+     * @param args --png laberinto.txt salida.png [escala]
+     * @return true si se escribió la imagen
+     */
+    private boolean renderizarPorLotes(String[] args) {
+        try {
+            int escala = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+            parser = new LaberintoParser();
+            parser.leerArchivo(args[1]);
+            grafo = parser.construirGrafo();
+            caminoMasCorto = new CaminoMasCorto(grafo);
+            renderizarPng(Paths.get(args[2]), escala);
+            return true;
+        } catch (NumberFormatException e) {
+            System.out.println("✗ Error: la escala debe ser un número entero.");
+        } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+            System.out.println("✗ Error: " + e.getMessage());
+        }
+        return false;
+    }
+
+    private void exportarPng(Scanner scanner) {
+        System.out.print("Archivo de salida (.png): ");
+        String ruta = scanner.nextLine().trim();
+        System.out.print("Píxeles por celda [1]: ");
+        String texto = scanner.nextLine().trim();
+        try {
+            renderizarPng(Paths.get(ruta), texto.isEmpty() ? 1 : Integer.parseInt(texto));
+        } catch (NumberFormatException e) {
+            System.out.println("✗ Error: debe ingresar un número entero.");
+        } catch (IOException e) {
+            System.out.println("✗ Error al exportar: " + e.getMessage());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            System.out.println("✗ Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Resuelve A -> B (o la salida más cercana si hay varias B) registrando
+     * el orden de visita, y dibuja mapa de calor + camino en un PNG
+     */
+    private void renderizarPng(Path ruta, int escala) throws IOException {
+        RenderizadorPng renderizador = new RenderizadorPng(parser.getMapa(), grafo);
+        renderizador.setEscala(escala);
+
+        LineaTiempo visitas = new LineaTiempo(grafo, parser.getFilas(), parser.getColumnas());
+        ControlBusqueda control = ControlBusqueda.sinLimites();
+        control.setObservadorVisitas(visitas::agregar);
+        int idA = grafo.getIdA();
+        List<Integer> camino;
+        if (grafo.getCantidadSalidas() > 1) {
+            BusquedaMultiObjetivo multi = new BusquedaMultiObjetivo(grafo);
+            camino = multi.salidaMasCercanaAEstrella(idA, multi.getIdsSalidas(), control).getNodos();
+        } else {
+            camino = caminoMasCorto.encontrarCaminoMasCorto(idA, idB(), control).getNodos();
+        }
+        renderizador.setRecorrido(visitas);
+        renderizador.setCamino(camino);
+
+        long inicio = System.nanoTime();
+        long bytes = renderizador.escribirPng(ruta);
+        System.out.println("✓ Imagen " + renderizador.getAncho() + "x" + renderizador.getAlto()
+                + " escrita en " + ruta + " (" + bytes + " bytes, " + (System.nanoTime() - inicio) / 1_000_000 + " ms)");
+        System.out.println("- Celdas visitadas: " + visitas.getLongitud()
+                + ", largo del camino: " + (camino.isEmpty() ? "sin camino" : (camino.size() - 1) + " pasos"));
+    }
+
+    /**
+     * Construye la rejilla compacta desde el mapa actual, resuelve A -> B
+     * (o la salida más cercana) con los mismos algoritmos y compara
+     * tamaño y resultado con el grafo actual
+     */
+    private void resolverEnRejilla() {
+        long inicio = System.nanoTime();
+        GrafoRejilla rejilla = new GrafoRejilla(parser.getMapa());
+        long tiempoConstruccion = System.nanoTime() - inicio;
+
+        CaminoMasCorto caminoRejilla = new CaminoMasCorto(rejilla);
+        int idA = rejilla.getIdA();
+        inicio = System.nanoTime();
+        List<Integer> camino;
+        if (rejilla.getCantidadSalidas() > 1) {
+            BusquedaMultiObjetivo multi = new BusquedaMultiObjetivo(rejilla);
+            camino = multi.salidaMasCercanaAEstrella(idA, multi.getIdsSalidas());
+        } else {
+            camino = caminoRejilla.encontrarCaminoMasCorto(idA,
+                    rejilla.getCantidadSalidas() > 0 ? rejilla.getIdSalida(0) : -1);
+        }
+        long tiempoBusqueda = System.nanoTime() - inicio;
+
+        // Referencia: el mismo problema sobre el grafo actual
+        List<Integer> referencia;
+        if (grafo.getCantidadSalidas() > 1) {
+            BusquedaMultiObjetivo multi = new BusquedaMultiObjetivo(grafo);
+            referencia = multi.salidaMasCercanaAEstrella(grafo.getIdA(), multi.getIdsSalidas());
+        } else {
+            referencia = caminoMasCorto.encontrarCaminoMasCorto(grafo.getIdA(), idB());
+        }
+
+        long celdas = Math.max(1L, (long) rejilla.getFilas() * rejilla.getColumnas());
+        System.out.println("\n=== REJILLA COMPACTA ===");
+        System.out.printf("- Rejilla %dx%d: %d bytes (%.2f bytes por celda), construida en %d µs%n",
+                rejilla.getFilas(), rejilla.getColumnas(), rejilla.getBytesUsados(),
+                (double) rejilla.getBytesUsados() / celdas, tiempoConstruccion / 1000);
+        System.out.println("- Nodos: " + rejilla.getCantidadNodos() + ", aristas (popcount): "
+                + rejilla.getCantidadAristas());
+        if (grafo instanceof GrafoOffHeap) {
+            System.out.println("- Grafo actual: " + ((GrafoOffHeap) grafo).getBytesFueraDelHeap()
+                    + " bytes fuera del heap (mapeado desde la caché)");
+        } else if (grafo instanceof Grafo) {
+            System.out.println("- Grafo actual: ~" + ((Grafo) grafo).getBytesEstimados() + " bytes en el heap (estimado)");
+        }
+        System.out.println("- Búsqueda en la rejilla: " + tiempoBusqueda / 1000 + " µs, "
+                + (camino.isEmpty() ? "sin camino" : (camino.size() - 1) + " pasos")
+                + (camino.size() == referencia.size() ? " (igual que en el grafo)" : " (DISTINTO del grafo: "
+                        + (referencia.size() - 1) + " pasos)"));
+        caminoRejilla.imprimirMapaConCamino(parser.getMapa(), camino, salida);
+    }
+
+    /**
+     * Resuelve un lote de consultas de distancia entre celdas: desde un
+     * archivo ("fila1 columna1 fila2 columna2" por línea) o N pares
+     * aleatorios de celdas libres. Informa el rendimiento del lote.
+     */
+    private void consultasPorLotes(Scanner scanner) {
+        System.out.print("Archivo de consultas (Enter = consultas aleatorias): ");
+        String ruta = scanner.nextLine().trim();
+        int[] origenes;
+        int[] destinos;
+        try {
+            if (ruta.isEmpty()) {
+                System.out.print("Cantidad de consultas: ");
+                int cantidad = Integer.parseInt(scanner.nextLine().trim());
+                int[][] pares = consultasAleatorias(cantidad);
+                origenes = pares[0];
+                destinos = pares[1];
+            } else {
+                List<String> lineas = Files.readAllLines(Paths.get(ruta));
+                origenes = new int[lineas.size()];
+                destinos = new int[lineas.size()];
+                int m = 0;
+                for (String linea : lineas) {
+                    if (linea.isBlank()) continue;
+                    String[] partes = linea.trim().split("\\s+");
+                    origenes[m] = idEnCelda(Integer.parseInt(partes[0]), Integer.parseInt(partes[1]));
+                    destinos[m] = idEnCelda(Integer.parseInt(partes[2]), Integer.parseInt(partes[3]));
+                    m++;
+                }
+                origenes = Arrays.copyOf(origenes, m);
+                destinos = Arrays.copyOf(destinos, m);
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            System.out.println("✗ Error: cada consulta debe tener cuatro números enteros.");
+            return;
+        } catch (IOException e) {
+            System.out.println("✗ Error al leer las consultas: " + e.getMessage());
+            return;
+        }
+        if (origenes.length == 0) {
+            System.out.println("No hay consultas.");
+            return;
+        }
+        System.out.print("Tiempo máximo en ms (Enter = sin límite): ");
+        long tiempoMaximo;
+        try {
+            String texto = scanner.nextLine().trim();
+            tiempoMaximo = texto.isEmpty() ? 0 : Long.parseLong(texto);
+        } catch (NumberFormatException e) {
+            System.out.println("✗ Error: debe ingresar un número entero.");
+            return;
+        }
+
+        ConsultasPorLotes consultas = new ConsultasPorLotes(grafo, Runtime.getRuntime().availableProcessors());
+        try {
+            ConsultasPorLotes.ResultadoLotes resultado =
+                    consultas.resolver(origenes, destinos, new ControlBusqueda(Math.max(0, tiempoMaximo), 0));
+            int[] distancias = resultado.getDistancias();
+            salida.imprimirLinea("\n=== CONSULTAS POR LOTES ===");
+            for (int k = 0; k < distancias.length; k++) {
+                String respuesta = !resultado.estaRespondida(k) ? "sin respuesta (lote detenido)"
+                        : distancias[k] == -1 ? "sin camino" : distancias[k] + " pasos";
+                salida.imprimirLinea(textoCelda(origenes[k]) + " -> " + textoCelda(destinos[k]) + ": " + respuesta);
+            }
+            salida.terminarBloque();
+            System.out.println("✓ " + resultado);
+        } finally {
+            consultas.cerrar();
+        }
+    }
+
+    /**
+     * Pares (origen, destino) aleatorios entre celdas libres (semilla fija:
+     * el mismo laberinto da el mismo lote)
+     */
+    private int[][] consultasAleatorias(int cantidad) {
+        int[] libres = new int[grafo.getCantidadNodos()];
+        int n = 0;
+        for (int i = 0; i < parser.getFilas(); i++) {
+            for (int j = 0; j < parser.getColumnas(); j++) {
+                int id = parser.getIdEnCelda(i, j);
+                if (id != -1) libres[n++] = id;
+            }
+        }
+        Random azar = new Random(42);
+        int[][] pares = new int[2][Math.max(0, cantidad)];
+        for (int k = 0; k < pares[0].length; k++) {
+            pares[0][k] = libres[azar.nextInt(n)];
+            pares[1][k] = libres[azar.nextInt(n)];
+        }
+        return pares;
+    }
+
+    /**
+     * ID de la celda, o -1 si es pared o está fuera del mapa
+     */
+    private int idEnCelda(int fila, int columna) {
+        if (fila < 0 || fila >= parser.getFilas() || columna < 0 || columna >= parser.getColumnas()) {
+            return -1;
+        }
+        return parser.getIdEnCelda(fila, columna);
+    }
+
+    private String textoCelda(int id) {
+        return id == -1 ? "(pared)" : "(" + grafo.getX(id) + ", " + grafo.getY(id) + ")";
     }
 
     private void mostrarMatrices() {
@@ -202,4 +693,99 @@ public class LaberintoMain {
         matrices.imprimirMatrizAdyacencia();
         matrices.imprimirMatrizIncidencia();
     }
+
+    private void exportarMatrices(Scanner scanner) {
+        System.out.print("Directorio de salida: ");
+        String directorio = scanner.nextLine().trim();
+        System.out.print("Formato (1 = Matrix Market, 2 = CSV denso): ");
+        boolean csv = scanner.nextLine().trim().equals("2");
+        String extension = csv ? ".csv" : ".mtx";
+
+        Path rutaAdyacencia = Paths.get(directorio, "adyacencia" + extension);
+        Path rutaIncidencia = Paths.get(directorio, "incidencia" + extension);
+        ExportadorMatrices exportador = new ExportadorMatrices();
+        try {
+            long bytes;
+            if (csv) {
+                bytes = exportador.exportarCsv(matrices.getMatrizAdyacenciaDispersa(), rutaAdyacencia);
+                bytes += exportador.exportarCsv(matrices.getMatrizIncidenciaDispersa(), rutaIncidencia);
+            } else {
+                bytes = exportador.exportarMatrixMarket(matrices.getMatrizAdyacenciaDispersa(),
+                        rutaAdyacencia, "Matriz de adyacencia (nodos x nodos)");
+                bytes += exportador.exportarMatrixMarket(matrices.getMatrizIncidenciaDispersa(),
+                        rutaIncidencia, "Matriz de incidencia (nodos x aristas)");
+            }
+            System.out.println("✓ Exportadas: " + rutaAdyacencia + ", " + rutaIncidencia
+                    + " (" + bytes + " bytes)");
+        } catch (IOException e) {
+            System.out.println("✗ Error al exportar: " + e.getMessage());
+        }
+    }
+
+    private void consultarAlcanzables(Scanner scanner) {
+        System.out.print("Cantidad de movimientos k: ");
+        long k;
+        try {
+            k = Long.parseLong(scanner.nextLine().trim());
+        } catch (NumberFormatException e) {
+            System.out.println("✗ Error: debe ingresar un número entero.");
+            return;
+        }
+        if (k < 0) {
+            System.out.println("✗ Error: k debe ser >= 0.");
+            return;
+        }
+
+        Map<Integer, Integer> indices = matrices.getMapaIdAIndice();
+        int[] idPorIndice = new int[indices.size()];
+        for (Map.Entry<Integer, Integer> e : indices.entrySet()) {
+            idPorIndice[e.getValue()] = e.getKey();
+        }
+        int origen = indices.get(grafo.getIdA());
+        int destino = indices.get(idB());
+        final long modulo = 1_000_000_007L;
+
+        MotorMatricial motor = new MotorMatricial(matrices.getMatrizAdyacenciaDispersa());
+        long inicio = System.nanoTime();
+        BitSet exactamente = motor.alcanzablesExactamente(origen, k);
+        BitSet hasta = motor.alcanzablesHasta(origen, k);
+        long tiempoAlcance = System.nanoTime() - inicio;
+
+        System.out.println("\n=== ALCANCE DESDE A EN " + k + " MOVIMIENTOS ===");
+        System.out.println("- Exactamente " + k + ": " + exactamente.cardinality() + " celdas");
+        System.out.println("- A lo sumo " + k + ": " + hasta.cardinality() + " celdas");
+        System.out.println("- Tiempo: " + tiempoAlcance / 1000 + " µs");
+
+        // El conteo cuesta k pasos sobre las E aristas (o log2(k) productos N³):
+        // no se lanza si supera el presupuesto, porque no se puede interrumpir
+        double costo = motor.costoContarCaminatas(k);
+        if (costo <= PRESUPUESTO_CAMINATAS) {
+            inicio = System.nanoTime();
+            long caminatas = motor.contarCaminatas(origen, destino, k, modulo);
+            System.out.println("- Caminatas A -> B de largo " + k + " (mod " + modulo + "): " + caminatas
+                    + " (" + (System.nanoTime() - inicio) / 1000 + " µs)");
+        } else {
+            System.out.printf("- Caminatas A -> B de largo %d: omitido (~%.1e operaciones, límite %.0e)%n",
+                    k, costo, (double) PRESUPUESTO_CAMINATAS);
+        }
+
+        // Mapa: 'o' = exactamente k, '·' = a lo sumo k (pero no exactamente)
+        char[][] mapa = parser.getMapa();
+        char[][] marcado = new char[mapa.length][];
+        for (int i = 0; i < mapa.length; i++) {
+            marcado[i] = mapa[i].clone();
+        }
+        for (int j = hasta.nextSetBit(0); j >= 0; j = hasta.nextSetBit(j + 1)) {
+            int id = idPorIndice[j];
+            char actual = marcado[grafo.getX(id)][grafo.getY(id)];
+            if (actual != 'A' && actual != 'B') {
+                marcado[grafo.getX(id)][grafo.getY(id)] = exactamente.get(j) ? 'o' : '·';
+            }
+        }
+        salida.imprimirLinea("\n=== MAPA DE ALCANCE ('o' exactamente k, '·' a lo sumo k) ===");
+        for (char[] fila : marcado) {
+            salida.imprimirLinea(fila);
+        }
+        salida.terminarBloque();
+    }
 }
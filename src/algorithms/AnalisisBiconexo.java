@@ -0,0 +1,338 @@
+package algorithms;
+
+import grafo.GrafoLectura;
+import java.util.*;
+
+/**
+ * ============================================================
+ * CLASE: AnalisisBiconexo
+ * ============================================================
+ * Puntos de articulación y componentes biconexas (bloques) del grafo,
+ * calculados con el algoritmo de Tarjan en versión ITERATIVA (pila
+ * explícita), para no desbordar la pila en laberintos grandes como
+ * podría ocurrir con los DFS recursivos de Recorridos.
+ *
+ * Conceptos:
+ *   - Punto de articulación: celda cuya eliminación desconecta el grafo
+ *     (los "cuellos de botella" del laberinto)
+ *   - Bloque: subgrafo maximal sin puntos de articulación propios
+ *   - Árbol bloque-corte: un nodo por bloque y uno por punto de
+ *     articulación, unidos si el punto pertenece al bloque
+ *
+ * Con el árbol se responde:
+ *   - Qué bloques debe atravesar cualquier camino A -> B
+ *     (se busca solo dentro de ellos)
+ *   - Qué celdas, convertidas en pared, desconectan A de B
+ *     (los puntos de articulación en el camino del árbol)
+ *
+ * Complejidad: O(V + E) tiempo y espacio.
+ * El análisis es una instantánea: tras modificar el grafo hay que repetirlo.
+ */
+public class AnalisisBiconexo {
+    // ===== ATRIBUTOS =====
+    private GrafoLectura grafo;
+    private List<List<Integer>> bloques;         // Vértices (IDs) de cada bloque
+    private Set<Integer> puntosArticulacion;     // IDs de los puntos de articulación
+    private int[] bloqueDe;                      // ID no-corte -> su único bloque (-1 = ninguno)
+    private int[] nodoCorte;                     // ID de corte -> nodo del árbol (-1 = no es corte)
+    private int[] corteDeNodo;                   // Nodo del árbol -> ID de corte (-1 = es un bloque)
+    private List<List<Integer>> arbol;           // Árbol bloque-corte (bloques: 0..B-1)
+
+    /**
+     * Constructor: ejecuta el análisis completo sobre el grafo
+     * @param grafo el grafo a analizar
+     */
+    public AnalisisBiconexo(GrafoLectura grafo) {
+        this.grafo = grafo;
+        this.bloques = new ArrayList<>();
+        this.puntosArticulacion = new HashSet<>();
+        calcularBloques();
+        construirArbol();
+    }
+
+    // ===== TARJAN ITERATIVO =====
+
+    /**
+     * DFS iterativo que calcula disc/low, apila aristas y desapila un
+     * bloque cada vez que low[hijo] >= disc[padre]
+     */
+    private void calcularBloques() {
+        int tamano = grafo.getCapacidadIds();
+        int[] disc = new int[tamano];    // Orden de descubrimiento (0 = no visitado)
+        int[] low = new int[tamano];     // Menor disc alcanzable por el subárbol
+        int[] padre = new int[tamano];
+        int[] siguiente = new int[tamano];  // Próximo vecino a examinar en cada marco
+        int[] marca = new int[tamano];      // Evita repetir un vértice en el mismo bloque
+        Arrays.fill(marca, -1);
+
+        int capacidad = 2 * grafo.getCantidadAristas() + 2;
+        int[] pilaU = new int[capacidad];  // Pila de aristas (u, v)
+        int[] pilaV = new int[capacidad];
+        int[] pilaNodos = new int[tamano]; // Pila de marcos del DFS
+        int tiempo = 0;
+
+        for (int raiz = 0; raiz < tamano; raiz++) {
+            if (!grafo.contieneNodo(raiz) || disc[raiz] != 0) continue;
+
+            if (grafo.getGrado(raiz) == 0) {
+                // Nodo aislado: forma un bloque por sí solo
+                bloques.add(new ArrayList<>(Collections.singletonList(raiz)));
+                disc[raiz] = ++tiempo;
+                continue;
+            }
+
+            int hijosRaiz = 0;
+            int tope = 0;
+            int topeAristas = 0;
+            disc[raiz] = low[raiz] = ++tiempo;
+            padre[raiz] = -1;
+            siguiente[raiz] = 0;
+            pilaNodos[tope++] = raiz;
+
+            while (tope > 0) {
+                int v = pilaNodos[tope - 1];
+                if (siguiente[v] < grafo.getGrado(v)) {
+                    int w = grafo.getVecino(v, siguiente[v]++);
+                    if (disc[w] == 0) {
+                        // Arista de árbol: desciende
+                        pilaU[topeAristas] = v;
+                        pilaV[topeAristas++] = w;
+                        padre[w] = v;
+                        disc[w] = low[w] = ++tiempo;
+                        siguiente[w] = 0;
+                        pilaNodos[tope++] = w;
+                        if (v == raiz) hijosRaiz++;
+                    } else if (w != padre[v] && disc[w] < disc[v]) {
+                        // Arista de retroceso hacia un ancestro
+                        pilaU[topeAristas] = v;
+                        pilaV[topeAristas++] = w;
+                        low[v] = Math.min(low[v], disc[w]);
+                    }
+                } else {
+                    // Todos los vecinos examinados: retrocede hacia el padre
+                    tope--;
+                    int p = padre[v];
+                    if (p == -1) continue;
+                    low[p] = Math.min(low[p], low[v]);
+
+                    if (low[v] >= disc[p]) {
+                        // p separa el subárbol de v: se cierra un bloque
+                        if (p != raiz) puntosArticulacion.add(p);
+                        int indiceBloque = bloques.size();
+                        List<Integer> bloque = new ArrayList<>();
+                        int u;
+                        int x;
+                        do {
+                            u = pilaU[--topeAristas];
+                            x = pilaV[topeAristas];
+                            if (marca[u] != indiceBloque) { marca[u] = indiceBloque; bloque.add(u); }
+                            if (marca[x] != indiceBloque) { marca[x] = indiceBloque; bloque.add(x); }
+                        } while (!(u == p && x == v));
+                        bloques.add(bloque);
+                    }
+                }
+            }
+
+            if (hijosRaiz > 1) {
+                puntosArticulacion.add(raiz);  // La raíz es de corte si tiene 2+ hijos
+            }
+        }
+    }
+
+    /**
+     * Construye el árbol bloque-corte y el índice vértice -> nodo del árbol
+     */
+    private void construirArbol() {
+        int tamano = grafo.getCapacidadIds();
+        this.bloqueDe = new int[tamano];
+        this.nodoCorte = new int[tamano];
+        this.corteDeNodo = new int[bloques.size() + puntosArticulacion.size()];
+        this.arbol = new ArrayList<>();
+        Arrays.fill(bloqueDe, -1);
+        Arrays.fill(nodoCorte, -1);
+        Arrays.fill(corteDeNodo, -1);
+
+        for (int b = 0; b < bloques.size(); b++) {
+            arbol.add(new ArrayList<>());
+        }
+        for (Integer corte : puntosArticulacion) {
+            nodoCorte[corte] = arbol.size();
+            corteDeNodo[arbol.size()] = corte;
+            arbol.add(new ArrayList<>());
+        }
+
+        for (int b = 0; b < bloques.size(); b++) {
+            for (int id : bloques.get(b)) {
+                int corte = nodoCorte[id];
+                if (corte != -1) {
+                    arbol.get(b).add(corte);
+                    arbol.get(corte).add(b);
+                } else {
+                    bloqueDe[id] = b;
+                }
+            }
+        }
+    }
+
+    // ===== CONSULTAS =====
+
+    /**
+     * Bloques (índices) que cualquier camino entre dos nodos debe cruzar,
+     * en orden desde el origen hasta el destino
+     * @return lista de índices de bloque, vacía si no están conectados
+     */
+    public List<Integer> bloquesEntre(int idOrigen, int idDestino) {
+        List<Integer> bloquesCamino = new ArrayList<>();
+        for (int nodoArbol : caminoEnArbol(idOrigen, idDestino)) {
+            if (nodoArbol < bloques.size()) {
+                bloquesCamino.add(nodoArbol);
+            }
+        }
+        return bloquesCamino;
+    }
+
+    /**
+     * Celdas que, convertidas en pared, desconectan el origen del destino:
+     * los puntos de articulación en el camino del árbol (sin contar extremos)
+     * @return IDs de las celdas críticas, en orden desde el origen
+     */
+    public List<Integer> celdasCriticas(int idOrigen, int idDestino) {
+        List<Integer> criticas = new ArrayList<>();
+        for (int nodoArbol : caminoEnArbol(idOrigen, idDestino)) {
+            int id = corteDeNodo[nodoArbol];
+            if (id != -1 && id != idOrigen && id != idDestino) {
+                criticas.add(id);
+            }
+        }
+        return criticas;
+    }
+
+    /**
+     * Camino más corto buscando solo dentro de los bloques que separan
+     * origen y destino (el resto del laberinto no puede acortar el camino)
+     * @return Lista de IDs del camino, vacía si no existe
+     */
+    public List<Integer> caminoRestringido(int idOrigen, int idDestino) {
+        return caminoRestringido(idOrigen, idDestino, ControlBusqueda.sinLimites()).getNodos();
+    }
+
+    /**
+     * Igual que caminoRestringido(origen, destino), bajo un control de búsqueda
+     * @param control tiempo máximo, presupuesto de nodos y cancelación
+     * @return Resultado con el estado y el camino (vacío si se detuvo antes)
+     */
+    public ResultadoBusqueda caminoRestringido(int idOrigen, int idDestino, ControlBusqueda control) {
+        control.iniciar();
+        if (idOrigen == idDestino) {
+            // Un punto de articulación no tiene bloque propio en bloquesEntre:
+            // el camino trivial se resuelve antes de restringir
+            List<Integer> camino = new ArrayList<>();
+            if (grafo.contieneNodo(idOrigen)) camino.add(idOrigen);
+            return new ResultadoBusqueda(EstadoBusqueda.COMPLETADA, camino, 0);
+        }
+
+        int capacidad = grafo.getCapacidadIds();
+        BitSet permitidos = new BitSet(capacidad);
+        for (int b : bloquesEntre(idOrigen, idDestino)) {
+            for (int id : bloques.get(b)) {
+                permitidos.set(id);
+            }
+        }
+        if (permitidos.isEmpty()) {
+            return new ResultadoBusqueda(EstadoBusqueda.COMPLETADA, new ArrayList<>(), 0);
+        }
+
+        int[] padres = new int[capacidad];
+        int[] cola = new int[capacidad];  // Cada nodo entra una sola vez
+        BitSet visitados = new BitSet(capacidad);
+        int frente = 0;
+        int fin = 0;
+        padres[idOrigen] = -1;
+        visitados.set(idOrigen);
+        cola[fin++] = idOrigen;
+
+        while (frente < fin) {
+            int idActual = cola[frente++];
+            if (idActual == idDestino) {
+                List<Integer> camino = new ArrayList<>();
+                for (int actual = idDestino; actual != -1; actual = padres[actual]) {
+                    camino.add(actual);
+                }
+                Collections.reverse(camino);
+                return new ResultadoBusqueda(EstadoBusqueda.COMPLETADA, camino, control.getExpandidos());
+            }
+            if (control.expandir()) {
+                return new ResultadoBusqueda(control.getEstado(), new ArrayList<>(), control.getExpandidos());
+            }
+            for (int k = 0, grado = grafo.getGrado(idActual); k < grado; k++) {
+                int idVecino = grafo.getVecino(idActual, k);
+                if (permitidos.get(idVecino) && !visitados.get(idVecino)) {
+                    visitados.set(idVecino);
+                    padres[idVecino] = idActual;
+                    cola[fin++] = idVecino;
+                }
+            }
+        }
+
+        return new ResultadoBusqueda(EstadoBusqueda.COMPLETADA, new ArrayList<>(), control.getExpandidos());
+    }
+
+    // ===== GETTERS =====
+    public Set<Integer> getPuntosArticulacion() {
+        return Collections.unmodifiableSet(puntosArticulacion);
+    }
+
+    /**
+     * Retorna los bloques: cada uno es la lista de IDs de sus vértices
+     */
+    public List<List<Integer>> getBloques() {
+        return Collections.unmodifiableList(bloques);
+    }
+
+    /**
+     * Árbol bloque-corte: nodos 0..B-1 son bloques, el resto puntos de corte
+     */
+    public List<List<Integer>> getArbolBloqueCorte() {
+        return Collections.unmodifiableList(arbol);
+    }
+
+    /**
+     * Nodo del árbol que representa a un vértice (-1 si no existe)
+     */
+    private int nodoDelArbol(int id) {
+        if (id < 0 || id >= nodoCorte.length) return -1;
+        return nodoCorte[id] != -1 ? nodoCorte[id] : bloqueDe[id];
+    }
+
+    /**
+     * Camino (único) entre los representantes de dos vértices en el árbol
+     */
+    private List<Integer> caminoEnArbol(int idOrigen, int idDestino) {
+        int desde = nodoDelArbol(idOrigen);
+        int hasta = nodoDelArbol(idDestino);
+        List<Integer> camino = new ArrayList<>();
+        if (desde == -1 || hasta == -1) return camino;
+
+        int[] padres = new int[arbol.size()];
+        Arrays.fill(padres, -2);  // -2 = no visitado
+        Queue<Integer> cola = new ArrayDeque<>();
+        padres[desde] = -1;
+        cola.offer(desde);
+        while (!cola.isEmpty() && padres[hasta] == -2) {
+            int actual = cola.poll();
+            for (int vecino : arbol.get(actual)) {
+                if (padres[vecino] == -2) {
+                    padres[vecino] = actual;
+                    cola.offer(vecino);
+                }
+            }
+        }
+        if (padres[hasta] == -2) return camino;  // Distintas componentes
+
+        for (int actual = hasta; actual != -1; actual = padres[actual]) {
+            camino.add(actual);
+        }
+        Collections.reverse(camino);
+        return camino;
+    }
+}
@@ -0,0 +1,349 @@
+package algorithms;
+
+import grafo.GrafoLectura;
+import utils.IndiceEspacial;
+import java.util.*;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * ============================================================
+ * CLASE: BusquedaMultiObjetivo
+ * ============================================================
+ * Búsquedas sobre laberintos con varias salidas (varios nodos B).
+ *
+ * SALIDA MÁS CERCANA DESDE UN ORIGEN (una sola pasada):
+ *   - BFS: se detiene en la primera salida extraída de la cola
+ *   - A*:  heurística = distancia Manhattan a la salida más cercana,
+ *          calculada con un IndiceEspacial (admisible y consistente);
+ *          con setCotaInferior, el máximo entre esa y otra cota
+ *          consistente (por ejemplo, landmarks de CacheGrafos)
+ *
+ * DISTANCIA A LA SALIDA MÁS CERCANA PARA TODO EL MAPA:
+ *   - BFS multi-fuente: todas las salidas entran a la cola con
+ *     distancia 0; cada nodo recibe la distancia a su salida más cercana
+ *
+ * Complejidad: O(V + E) para BFS; A* expande normalmente mucho menos.
+ * El estado de las búsquedas vive en arreglos primitivos indexados por
+ * ID (int[] y BitSet), como en CaminoMasCorto y Recorridos.
+ */
+public class BusquedaMultiObjetivo {
+    // ===== ATRIBUTOS =====
+    private GrafoLectura grafo;  // El grafo en el que se busca (Grafo o GrafoOffHeap)
+    private IntUnaryOperator cotaInferior;  // Cota extra para A* (null = solo Manhattan)
+
+    /**
+     * Constructor
+     * @param grafo el grafo en el que se buscarán las salidas
+     */
+    public BusquedaMultiObjetivo(GrafoLectura grafo) {
+        this.grafo = grafo;
+    }
+
+    /**
+     * Agrega a la heurística de A* una cota inferior de la distancia de
+     * cada nodo a la salida más cercana; se usa max(Manhattan, cota).
+     * Debe ser consistente (cambiar a lo sumo 1 por arista) y valer
+     * para las salidas que se busquen, como CacheGrafos.Entrada.cotaInferior.
+     * @param cota función ID -> cota, o null para usar solo Manhattan
+     */
+    public void setCotaInferior(IntUnaryOperator cota) {
+        this.cotaInferior = cota;
+    }
+
+    /**
+     * Retorna los IDs de todas las salidas (B) del grafo
+     */
+    public List<Integer> getIdsSalidas() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < grafo.getCantidadSalidas(); i++) {
+            ids.add(grafo.getIdSalida(i));
+        }
+        return ids;
+    }
+
+    /**
+     * Camino más corto desde el origen hasta la salida más cercana usando BFS
+     * @param idOrigen ID del nodo de inicio
+     * @param destinos IDs de las salidas candidatas
+     * @return Lista de IDs del camino, vacía si ninguna salida es alcanzable
+     */
+    public List<Integer> salidaMasCercanaBfs(int idOrigen, Collection<Integer> destinos) {
+        return salidaMasCercanaBfs(idOrigen, destinos, ControlBusqueda.sinLimites()).getNodos();
+    }
+
+    /**
+     * BFS hacia la salida más cercana bajo un control de búsqueda
+     * @param idOrigen ID del nodo de inicio
+     * @param destinos IDs de las salidas candidatas
+     * @param control tiempo máximo, presupuesto de nodos y cancelación
+     * @return Resultado con el estado y el camino (vacío si se detuvo antes)
+     */
+    public ResultadoBusqueda salidaMasCercanaBfs(int idOrigen, Collection<Integer> destinos, ControlBusqueda control) {
+        int capacidad = grafo.getCapacidadIds();
+        BitSet objetivos = marcarObjetivos(destinos);
+        int[] cola = new int[capacidad];          // Cada nodo entra una sola vez
+        int[] padres = new int[capacidad];
+        BitSet visitados = new BitSet(capacidad);
+        int frente = 0;
+        int fin = 0;
+        control.iniciar();
+
+        cola[fin++] = idOrigen;
+        visitados.set(idOrigen);
+        padres[idOrigen] = -1;  // El origen no tiene padre
+
+        while (frente < fin) {
+            int idActual = cola[frente++];
+
+            // La primera salida extraída es la más cercana (BFS por niveles)
+            if (objetivos.get(idActual)) {
+                return new ResultadoBusqueda(EstadoBusqueda.COMPLETADA,
+                        reconstruirCamino(padres, idActual), control.getExpandidos());
+            }
+            if (control.expandir()) {
+                return new ResultadoBusqueda(control.getEstado(), new ArrayList<>(), control.getExpandidos());
+            }
+            control.visitar(idActual);
+
+            for (int k = 0, grado = grafo.getGrado(idActual); k < grado; k++) {
+                int idVecino = grafo.getVecino(idActual, k);
+                if (!visitados.get(idVecino)) {
+                    visitados.set(idVecino);
+                    padres[idVecino] = idActual;
+                    cola[fin++] = idVecino;
+                }
+            }
+        }
+
+        return new ResultadoBusqueda(EstadoBusqueda.COMPLETADA, new ArrayList<>(), control.getExpandidos());
+    }
+
+    /**
+     * Camino más corto desde el origen hasta la salida más cercana usando A*
+     * @param idOrigen ID del nodo de inicio
+     * @param destinos IDs de las salidas candidatas
+     * @return Lista de IDs del camino, vacía si ninguna salida es alcanzable
+     */
+    public List<Integer> salidaMasCercanaAEstrella(int idOrigen, Collection<Integer> destinos) {
+        return salidaMasCercanaAEstrella(idOrigen, destinos, ControlBusqueda.sinLimites()).getNodos();
+    }
+
+    /**
+     * A* hacia la salida más cercana bajo un control de búsqueda
+     * Heurística h(n) = min sobre salidas de la distancia Manhattan,
+     * resuelta con un IndiceEspacial en lugar de recorrer todas las salidas
+     * (y la cota de setCotaInferior, si la hay).
+     * Si se detiene antes, el resultado parcial es el camino hasta el nodo
+     * expandido con menor h (el que quedó más cerca de alguna salida).
+     * @param idOrigen ID del nodo de inicio
+     * @param destinos IDs de las salidas candidatas
+     * @param control tiempo máximo, presupuesto de nodos y cancelación
+     * @return Resultado con el estado y el camino (completo o parcial)
+     */
+    public ResultadoBusqueda salidaMasCercanaAEstrella(int idOrigen, Collection<Integer> destinos,
+                                                        ControlBusqueda control) {
+        BitSet objetivos = marcarObjetivos(destinos);
+        IndiceEspacial indice = new IndiceEspacial(grafo, destinos);
+        int capacidad = grafo.getCapacidadIds();
+        int[] costos = new int[capacidad];         // g(n): pasos desde el origen (-1 = sin costo aún)
+        int[] padres = new int[capacidad];
+        BitSet cerrados = new BitSet(capacidad);
+        // Entradas (f, h, id): menor f primero; a igual f, menor h (más cerca de una salida)
+        MonticuloAbiertos abiertos = new MonticuloAbiertos(capacidad);
+        control.iniciar();
+
+        if (!grafo.contieneNodo(idOrigen) || indice.getCantidadPuntos() == 0) {
+            return new ResultadoBusqueda(EstadoBusqueda.COMPLETADA, new ArrayList<>(), 0);
+        }
+
+        Arrays.fill(costos, -1);
+        int hOrigen = heuristica(indice, idOrigen);
+        costos[idOrigen] = 0;
+        padres[idOrigen] = -1;
+        abiertos.agregar(hOrigen, hOrigen, idOrigen);
+        int mejorParcial = idOrigen;
+        int mejorH = hOrigen;
+
+        // ===== ALGORITMO A* =====
+        while (!abiertos.estaVacio()) {
+            int hActual = abiertos.getTopeH();
+            int idActual = abiertos.extraer();
+            if (cerrados.get(idActual)) {
+                continue;  // Entrada obsoleta: el nodo ya se cerró con menor costo
+            }
+            cerrados.set(idActual);
+
+            if (objetivos.get(idActual)) {
+                return new ResultadoBusqueda(EstadoBusqueda.COMPLETADA,
+                        reconstruirCamino(padres, idActual), control.getExpandidos());
+            }
+            if (control.expandir()) {
+                return new ResultadoBusqueda(control.getEstado(),
+                        reconstruirCamino(padres, mejorParcial), control.getExpandidos());
+            }
+            control.visitar(idActual);
+            if (hActual < mejorH) {
+                mejorH = hActual;
+                mejorParcial = idActual;
+            }
+
+            int costoVecino = costos[idActual] + 1;  // Costo uniforme por arista
+            for (int k = 0, grado = grafo.getGrado(idActual); k < grado; k++) {
+                int idVecino = grafo.getVecino(idActual, k);
+                if (cerrados.get(idVecino)) continue;
+                int costoPrevio = costos[idVecino];
+                if (costoPrevio == -1 || costoVecino < costoPrevio) {
+                    costos[idVecino] = costoVecino;
+                    padres[idVecino] = idActual;
+                    int h = heuristica(indice, idVecino);
+                    abiertos.agregar(costoVecino + h, h, idVecino);
+                }
+            }
+        }
+
+        return new ResultadoBusqueda(EstadoBusqueda.COMPLETADA, new ArrayList<>(), control.getExpandidos());
+    }
+
+    /**
+     * Distancia (en pasos) de cada nodo a su salida más cercana
+     * BFS multi-fuente: todas las salidas comienzan con distancia 0.
+     * Mismo formato que el índice que guarda CacheGrafos.
+     * @param salidas IDs de las salidas
+     * @return Arreglo indexado por ID (getCapacidadIds()) con la distancia
+     *         a la salida más cercana, -1 si no se alcanza ninguna
+     */
+    public int[] distanciaASalidaMasCercana(Collection<Integer> salidas) {
+        int capacidad = grafo.getCapacidadIds();
+        int[] distancias = new int[capacidad];
+        Arrays.fill(distancias, -1);  // -1 también marca "no visitado"
+        int[] cola = new int[capacidad];  // Cada nodo entra una sola vez
+        int frente = 0;
+        int fin = 0;
+
+        // Todas las fuentes entran juntas al nivel 0
+        for (Integer id : salidas) {
+            if (grafo.contieneNodo(id) && distancias[id] == -1) {
+                distancias[id] = 0;
+                cola[fin++] = id;
+            }
+        }
+
+        while (frente < fin) {
+            int idActual = cola[frente++];
+            int siguiente = distancias[idActual] + 1;
+            for (int k = 0, grado = grafo.getGrado(idActual); k < grado; k++) {
+                int idVecino = grafo.getVecino(idActual, k);
+                if (distancias[idVecino] == -1) {
+                    distancias[idVecino] = siguiente;
+                    cola[fin++] = idVecino;
+                }
+            }
+        }
+
+        return distancias;
+    }
+
+    /**
+     * Reconstruye el camino origen -> destino siguiendo el arreglo de padres
+     */
+    private List<Integer> reconstruirCamino(int[] padres, int destino) {
+        List<Integer> camino = new ArrayList<>();
+        for (int actual = destino; actual != -1; actual = padres[actual]) {
+            camino.add(actual);
+        }
+        Collections.reverse(camino);  // Se construyó del destino al origen
+        return camino;
+    }
+
+    /**
+     * Marca en un BitSet las salidas que existen en el grafo
+     */
+    private BitSet marcarObjetivos(Collection<Integer> destinos) {
+        BitSet objetivos = new BitSet(grafo.getCapacidadIds());
+        for (Integer id : destinos) {
+            if (grafo.contieneNodo(id)) objetivos.set(id);
+        }
+        return objetivos;
+    }
+
+    /**
+     * h(n): distancia Manhattan del nodo a la salida más cercana, o la
+     * cota inferior configurada si es mayor
+     */
+    private int heuristica(IndiceEspacial indice, int id) {
+        int manhattan = indice.distanciaMinima(grafo.getX(id), grafo.getY(id));
+        return cotaInferior == null ? manhattan : Math.max(manhattan, cotaInferior.applyAsInt(id));
+    }
+
+    /**
+     * Cola de prioridad de A* sobre arreglos primitivos: la prioridad
+     * (f, h) se empaqueta en un long (f en los 32 bits altos) junto al ID.
+     * Un nodo puede entrar varias veces (borrado perezoso), así que los
+     * arreglos crecen al doble si hace falta. Las reglas de hundir y
+     * flotar son las de PriorityQueue: los empates se resuelven igual.
+     */
+    private static final class MonticuloAbiertos {
+        private long[] prioridades;
+        private int[] ids;
+        private int tamano;
+
+        MonticuloAbiertos(int capacidad) {
+            this.prioridades = new long[Math.max(16, capacidad)];
+            this.ids = new int[prioridades.length];
+        }
+
+        boolean estaVacio() {
+            return tamano == 0;
+        }
+
+        /**
+         * h de la entrada de menor prioridad (la que saldrá primero)
+         */
+        int getTopeH() {
+            return (int) prioridades[0];
+        }
+
+        void agregar(int f, int h, int id) {
+            if (tamano == ids.length) {
+                prioridades = Arrays.copyOf(prioridades, tamano * 2);
+                ids = Arrays.copyOf(ids, tamano * 2);
+            }
+            long prioridad = ((long) f << 32) | h;
+            int k = tamano++;
+            while (k > 0) {
+                int padre = (k - 1) >>> 1;
+                if (prioridad >= prioridades[padre]) break;
+                prioridades[k] = prioridades[padre];
+                ids[k] = ids[padre];
+                k = padre;
+            }
+            prioridades[k] = prioridad;
+            ids[k] = id;
+        }
+
+        int extraer() {
+            int primero = ids[0];
+            int n = --tamano;
+            if (n > 0) {
+                long prioridad = prioridades[n];
+                int id = ids[n];
+                int k = 0;
+                int mitad = n >>> 1;
+                while (k < mitad) {
+                    int hijo = 2 * k + 1;
+                    int derecho = hijo + 1;
+                    if (derecho < n && prioridades[hijo] > prioridades[derecho]) {
+                        hijo = derecho;
+                    }
+                    if (prioridad <= prioridades[hijo]) break;
+                    prioridades[k] = prioridades[hijo];
+                    ids[k] = ids[hijo];
+                    k = hijo;
+                }
+                prioridades[k] = prioridad;
+                ids[k] = id;
+            }
+            return primero;
+        }
+    }
+}
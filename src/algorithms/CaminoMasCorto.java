@@ -1,7 +1,7 @@
 package algorithms;
 
-import grafo.Grafo;
-import models.Nodo;
+import grafo.GrafoLectura;
+import utils.SalidaTexto;
 import java.util.*;
 
 /**
@@ -18,17 +18,19 @@ import java.util.*;
  * 
  * Complejidad:
  *   - Tiempo: O(V + E) donde V es vértices y E es aristas
- *   - Espacio: O(V) para la cola y visitados
+ *   - Espacio: O(V) para la cola y visitados, en arreglos primitivos
+ *     indexados por ID (cola y padres int[], visitados BitSet):
+ *     ~8 bytes por ID en lugar de ~100 con mapas y conjuntos de Integer
  */
 public class CaminoMasCorto {
     // ===== ATRIBUTOS =====
-    private Grafo grafo;  // El grafo en el que buscar el camino
+    private GrafoLectura grafo;  // El grafo en el que buscar el camino
 
     /**
      * Constructor
-     * @param grafo el grafo en el que se buscará el camino
+     * @param grafo el grafo en el que se buscará el camino (Grafo o GrafoOffHeap)
      */
-    public CaminoMasCorto(Grafo grafo) {
+    public CaminoMasCorto(GrafoLectura grafo) {
         this.grafo = grafo;
     }
 
@@ -39,53 +41,93 @@ public class CaminoMasCorto {
      * @return Lista de IDs de nodos que forman el camino, vacía si no existe
      */
     public List<Integer> encontrarCaminoMasCorto(int idOrigen, int idDestino) {
-        Queue<Integer> cola = new LinkedList<>();     // Cola para BFS
-        Map<Integer, Integer> padres = new HashMap<>();  // Almacena el padre de cada nodo
-        Set<Integer> visitados = new HashSet<>();     // Nodos ya visitados
+        return encontrarCaminoMasCorto(idOrigen, idDestino, ControlBusqueda.sinLimites()).getNodos();
+    }
+
+    /**
+     * Encuentra el camino más corto usando BFS bajo un control de búsqueda
+     * Si la búsqueda se detiene antes de llegar al destino, el resultado
+     * parcial es el camino hasta el nodo visitado más cercano al destino
+     * (distancia Manhattan).
+     * @param idOrigen ID del nodo de inicio
+     * @param idDestino ID del nodo de destino
+     * @param control tiempo máximo, presupuesto de nodos y cancelación
+     * @return Resultado con el estado y el camino (completo o parcial)
+     */
+    public ResultadoBusqueda encontrarCaminoMasCorto(int idOrigen, int idDestino, ControlBusqueda control) {
+        int capacidad = grafo.getCapacidadIds();
+        int[] cola = new int[capacidad];          // Cola para BFS: cada nodo entra una sola vez
+        int[] padres = new int[capacidad];        // Padre de cada nodo visitado
+        BitSet visitados = new BitSet(capacidad); // Nodos ya visitados
+        int frente = 0;
+        int fin = 0;
+        control.iniciar();
 
         // Inicializa el BFS con el nodo origen
-        cola.offer(idOrigen);
-        visitados.add(idOrigen);
-        padres.put(idOrigen, -1);  // El origen no tiene padre
+        cola[fin++] = idOrigen;
+        visitados.set(idOrigen);
+        padres[idOrigen] = -1;  // El origen no tiene padre
+        int mejorParcial = idOrigen;  // Nodo visitado más cercano al destino
 
         // ===== ALGORITMO BFS =====
-        while (!cola.isEmpty()) {
-            int idActual = cola.poll();  // Extrae el primer nodo de la cola
+        while (frente < fin) {
+            int idActual = cola[frente++];  // Extrae el primer nodo de la cola
 
             // Si encontramos el destino, reconstruimos el camino
             if (idActual == idDestino) {
-                return reconstruirCamino(padres, idDestino);
+                return new ResultadoBusqueda(EstadoBusqueda.COMPLETADA,
+                        reconstruirCamino(padres, idDestino), control.getExpandidos());
+            }
+
+            if (control.expandir()) {  // Tiempo, presupuesto o cancelación
+                return new ResultadoBusqueda(control.getEstado(),
+                        reconstruirCamino(padres, mejorParcial), control.getExpandidos());
+            }
+            control.visitar(idActual);  // Exploración en vivo (si alguien escucha)
+            if (distanciaManhattan(idActual, idDestino) < distanciaManhattan(mejorParcial, idDestino)) {
+                mejorParcial = idActual;
             }
 
             // Explora los vecinos del nodo actual
-            for (Integer idVecino : grafo.getAdyacentes(idActual)) {
-                if (!visitados.contains(idVecino)) {  // Si no ha sido visitado
-                    visitados.add(idVecino);
-                    padres.put(idVecino, idActual);   // Registra que idActual es padre de idVecino
-                    cola.offer(idVecino);             // Añade a la cola para explorar después
+            for (int k = 0, grado = grafo.getGrado(idActual); k < grado; k++) {
+                int idVecino = grafo.getVecino(idActual, k);
+                if (!visitados.get(idVecino)) {  // Si no ha sido visitado
+                    visitados.set(idVecino);
+                    padres[idVecino] = idActual;  // Registra que idActual es padre de idVecino
+                    cola[fin++] = idVecino;       // Añade a la cola para explorar después
                 }
             }
         }
 
-        return new ArrayList<>();  // Sin camino encontrado
+        // Sin camino encontrado
+        return new ResultadoBusqueda(EstadoBusqueda.COMPLETADA, new ArrayList<>(), control.getExpandidos());
+    }
+
+    /**
+     * Distancia Manhattan entre dos nodos (criterio del mejor resultado parcial)
+     */
+    private int distanciaManhattan(int id1, int id2) {
+        if (!grafo.contieneNodo(id1) || !grafo.contieneNodo(id2)) {
+            return Integer.MAX_VALUE;
+        }
+        return Math.abs(grafo.getX(id1) - grafo.getX(id2)) + Math.abs(grafo.getY(id1) - grafo.getY(id2));
     }
 
     /**
      * Reconstruye el camino desde el origen hasta el destino
-     * usando el mapa de padres. Retrocede desde destino hasta origen.
-     * @param padres mapa de ID -> ID del padre
+     * usando el arreglo de padres. Retrocede desde destino hasta origen.
+     * @param padres ID del padre de cada nodo visitado (-1 en el origen)
      * @param destino ID del nodo destino
      * @return Lista de IDs del camino (origen -> destino)
      */
-    private List<Integer> reconstruirCamino(Map<Integer, Integer> padres, int destino) {
+    private List<Integer> reconstruirCamino(int[] padres, int destino) {
         List<Integer> camino = new ArrayList<>();
-        int actual = destino;
 
         // Retrocede desde el destino hasta el origen siguiendo los padres
-        while (actual != -1) {
-            camino.add(0, actual);  // Añade al principio para mantener orden
-            actual = padres.get(actual);
+        for (int actual = destino; actual != -1; actual = padres[actual]) {
+            camino.add(actual);
         }
+        Collections.reverse(camino);  // Del origen al destino
 
         return camino;
     }
@@ -95,21 +137,31 @@ public class CaminoMasCorto {
      * @param camino lista de IDs del camino
      */
     public void imprimirCamino(List<Integer> camino) {
+        imprimirCamino(camino, SalidaTexto.consola());
+    }
+
+    /**
+     * Imprime el camino en la salida indicada
+     * @param camino lista de IDs del camino
+     * @param salida consola o archivo (con su truncado)
+     */
+    public void imprimirCamino(List<Integer> camino, SalidaTexto salida) {
         if (camino.isEmpty()) {
-            System.out.println("No hay camino entre A y B");
+            salida.imprimirLinea("No hay camino entre A y B");
+            salida.terminarBloque();
             return;
         }
 
-        System.out.println("\n=== CAMINO MÁS CORTO ===");
-        System.out.println("Longitud del camino: " + (camino.size() - 1) + " pasos");
-        System.out.print("Camino: ");
+        salida.imprimirLinea("\n=== CAMINO MÁS CORTO ===");
+        salida.imprimirLinea("Longitud del camino: " + (camino.size() - 1) + " pasos");
+        salida.imprimir("Camino: ");
         for (int i = 0; i < camino.size(); i++) {
             int id = camino.get(i);
-            Nodo nodo = grafo.getNodo(id);
-            if (i > 0) System.out.print(" -> ");
-            System.out.print(nodo.getTipo() == ' ' ? "·" : nodo.getTipo());  // Punto o letra
+            char tipo = grafo.getTipo(id);
+            if (i > 0) salida.imprimir(" -> ");
+            salida.imprimir(tipo == ' ' ? '·' : tipo);  // Punto o letra
         }
-        System.out.println();
+        salida.terminarBloque();
     }
 
     /**
@@ -119,30 +171,41 @@ public class CaminoMasCorto {
      * @param camino lista de IDs del camino a marcar
      */
     public void imprimirMapaConCamino(char[][] mapa, List<Integer> camino) {
+        imprimirMapaConCamino(mapa, camino, SalidaTexto.consola());
+    }
+
+    /**
+     * Imprime el mapa con el camino marcado en la salida indicada
+     * No copia el mapa: cada fila se arma en un único arreglo reutilizado
+     * y se escribe de una vez.
+     * @param mapa el mapa original del laberinto
+     * @param camino lista de IDs del camino a marcar
+     * @param salida consola o archivo (con su truncado)
+     */
+    public void imprimirMapaConCamino(char[][] mapa, List<Integer> camino, SalidaTexto salida) {
         if (camino.isEmpty()) {
             return;
         }
 
-        // Crear copia del mapa para no modificar el original
-        char[][] mapaConCamino = new char[mapa.length][];
-        for (int i = 0; i < mapa.length; i++) {
-            mapaConCamino[i] = mapa[i].clone();
-        }
-
         // Marcar el camino (excepto origen y destino que ya tienen símbolos A y B)
+        int columnas = mapa.length > 0 ? mapa[0].length : 0;
+        BitSet marcadas = new BitSet();  // Bit fila * columnas + columna
         for (int i = 1; i < camino.size() - 1; i++) {
             int id = camino.get(i);
-            Nodo nodo = grafo.getNodo(id);
-            mapaConCamino[nodo.getX()][nodo.getY()] = '·';  // Marca con punto
+            marcadas.set(grafo.getX(id) * columnas + grafo.getY(id));
         }
 
         // Imprime el mapa con el camino
-        System.out.println("\n=== MAPA CON CAMINO MARCADO ===");
-        for (int i = 0; i < mapaConCamino.length; i++) {
-            for (int j = 0; j < mapaConCamino[i].length; j++) {
-                System.out.print(mapaConCamino[i][j]);
+        salida.imprimirLinea("\n=== MAPA CON CAMINO MARCADO ===");
+        char[] fila = new char[columnas];
+        for (int i = 0; i < mapa.length; i++) {
+            System.arraycopy(mapa[i], 0, fila, 0, columnas);
+            int inicio = i * columnas;
+            for (int c = marcadas.nextSetBit(inicio); c >= 0 && c < inicio + columnas; c = marcadas.nextSetBit(c + 1)) {
+                fila[c - inicio] = '·';  // Marca con punto
             }
-            System.out.println();
+            salida.imprimirLinea(fila);
         }
+        salida.terminarBloque();
     }
 }
@@ -0,0 +1,369 @@
+package algorithms;
+
+import grafo.GrafoLectura;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * ============================================================
+ * CLASE: ConsultasPorLotes
+ * ============================================================
+ * Responde miles de consultas de distancia (origen, destino) sobre
+ * el mismo laberinto sin repetir trabajo.
+ *
+ * Estrategia:
+ *   1. Toma una instantánea compacta del grafo (formato CSR: arreglos
+ *      de enteros con los vecinos de cada nodo, sin mapas ni objetos)
+ *   2. Agrupa las consultas por origen: un solo BFS desde cada origen
+ *      responde todos sus destinos, y se corta en cuanto los encontró
+ *   3. Reparte los grupos entre los hilos de un pool fijo; cada hilo
+ *      reutiliza sus propios arreglos de trabajo entre grupos
+ *
+ * Los resultados se entregan en arreglos primitivos (distancia en
+ * pasos, -1 si no hay camino o algún ID no existe).
+ *
+ * Con un ControlBusqueda compartido por los hilos, el lote se puede
+ * acotar en tiempo o expansiones y cancelar: se devuelven las respuestas
+ * obtenidas hasta ese momento (las demás quedan en -1, sin respuesta).
+ *
+ * La instantánea no ve cambios posteriores del grafo: tras modificarlo
+ * se debe crear otra instancia. Llamar a cerrar() al terminar.
+ */
+public class ConsultasPorLotes {
+    // ===== CONSTANTES =====
+    private static final int TAREAS_POR_HILO = 4;  // Granularidad del reparto (balanceo)
+    private static final int BLOQUE_EXPANSIONES = 1024;  // Expansiones reservadas por consulta al control
+
+    // ===== ATRIBUTOS =====
+    private int[] idAIndice;      // ID de nodo -> índice compacto (-1 si no existe)
+    private int[] inicioVecinos;  // CSR: vecinos del nodo i en [inicio[i], inicio[i+1])
+    private int[] vecinos;        // CSR: índices compactos de los vecinos
+    private int cantidadNodos;
+    private int hilos;
+    private ExecutorService pool;
+    private ThreadLocal<Buffers> buffers;  // Arreglos de trabajo por hilo
+
+    /**
+     * Arreglos reutilizables de un hilo. Las marcas por "época" evitan
+     * limpiar los arreglos entre un BFS y el siguiente.
+     */
+    private static class Buffers {
+        final int[] distancia;
+        final int[] visitado;   // Época en que se visitó cada nodo
+        final int[] objetivo;   // Época en que el nodo es destino pendiente
+        final int[] cola;
+        int epoca;
+
+        Buffers(int n) {
+            distancia = new int[n];
+            visitado = new int[n];
+            objetivo = new int[n];
+            cola = new int[n];
+        }
+    }
+
+    /**
+     * Resultado de un lote: distancias por consulta y métricas de rendimiento
+     */
+    public static class ResultadoLotes {
+        private final EstadoBusqueda estado;
+        private final int[] distancias;
+        private final boolean[] respondidas;
+        private final int cantidadRespondidas;
+        private final int grupos;
+        private final long nanos;
+
+        ResultadoLotes(EstadoBusqueda estado, int[] distancias, boolean[] respondidas, int grupos, long nanos) {
+            this.estado = estado;
+            this.distancias = distancias;
+            this.respondidas = respondidas;
+            this.grupos = grupos;
+            this.nanos = nanos;
+            int cantidad = 0;
+            for (boolean r : respondidas) {
+                if (r) cantidad++;
+            }
+            this.cantidadRespondidas = cantidad;
+        }
+
+        /**
+         * Cómo terminó el lote (COMPLETADA si se respondieron todas)
+         */
+        public EstadoBusqueda getEstado() {
+            return estado;
+        }
+
+        /**
+         * Distancia de cada consulta, en el mismo orden de entrada
+         * (-1 = sin camino, o sin respuesta si el lote se detuvo)
+         */
+        public int[] getDistancias() {
+            return distancias;
+        }
+
+        /**
+         * Indica si la consulta k tiene respuesta definitiva (siempre true
+         * si el lote se completó)
+         */
+        public boolean estaRespondida(int k) {
+            return respondidas[k];
+        }
+
+        public int getCantidadRespondidas() {
+            return cantidadRespondidas;
+        }
+
+        /**
+         * Cantidad de orígenes distintos (un BFS por cada uno)
+         */
+        public int getGrupos() {
+            return grupos;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * Rendimiento del lote en consultas por segundo
+         */
+        public double getConsultasPorSegundo() {
+            return nanos == 0 ? 0 : distancias.length * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            String texto = String.format("%d consultas, %d orígenes, %.2f ms, %.0f consultas/s",
+                    distancias.length, grupos, nanos / 1e6, getConsultasPorSegundo());
+            if (estado != EstadoBusqueda.COMPLETADA) {
+                texto += " (detenido: " + estado + ", " + cantidadRespondidas + " respondidas)";
+            }
+            return texto;
+        }
+    }
+
+    /**
+     * Constructor: toma la instantánea CSR del grafo y crea el pool
+     * @param grafo el grafo sobre el que se harán las consultas
+     * @param hilos cantidad de hilos del pool (mínimo 1)
+     */
+    public ConsultasPorLotes(GrafoLectura grafo, int hilos) {
+        construirInstantanea(grafo);
+        this.hilos = Math.max(1, hilos);
+        this.pool = Executors.newFixedThreadPool(this.hilos, r -> {
+            Thread t = new Thread(r, "consultas-lotes");
+            t.setDaemon(true);  // No impide que la aplicación termine
+            return t;
+        });
+        this.buffers = ThreadLocal.withInitial(() -> new Buffers(cantidadNodos));
+    }
+
+    /**
+     * Resuelve un lote de consultas (origenes[k], destinos[k])
+     * @param origenes IDs de origen
+     * @param destinos IDs de destino (mismo largo que origenes)
+     * @return Distancias por consulta y métricas del lote
+     */
+    public ResultadoLotes resolver(int[] origenes, int[] destinos) {
+        return resolver(origenes, destinos, ControlBusqueda.sinLimites());
+    }
+
+    /**
+     * Resuelve un lote de consultas bajo un control de búsqueda
+     * El control lo comparten todos los hilos: el presupuesto cuenta los
+     * nodos expandidos por todos los BFS del lote. Si se detiene antes,
+     * cada BFS cortado responde los destinos que ya había alcanzado.
+     * @param origenes IDs de origen
+     * @param destinos IDs de destino (mismo largo que origenes)
+     * @param control tiempo máximo, presupuesto de nodos y cancelación
+     * @return Estado, distancias obtenidas (-1 sin respuesta) y métricas
+     */
+    public ResultadoLotes resolver(int[] origenes, int[] destinos, ControlBusqueda control) {
+        if (origenes.length != destinos.length) {
+            throw new IllegalArgumentException("origenes y destinos deben tener el mismo largo");
+        }
+        long inicio = System.nanoTime();
+        control.iniciar();
+        int m = origenes.length;
+        int[] distancias = new int[m];
+        boolean[] respondidas = new boolean[m];  // Cada consulta la escribe un solo hilo
+        Arrays.fill(distancias, -1);
+
+        // ===== AGRUPAR POR ORIGEN =====
+        // Clave (índice origen << 32 | nº de consulta): ordenar agrupa sin objetos
+        long[] claves = new long[m];
+        int validas = 0;
+        for (int k = 0; k < m; k++) {
+            int o = indice(origenes[k]);
+            if (o < 0 || indice(destinos[k]) < 0) {
+                respondidas[k] = true;  // ID inexistente: sin camino (queda en -1)
+            } else {
+                claves[validas++] = ((long) o << 32) | k;
+            }
+        }
+        Arrays.sort(claves, 0, validas);
+
+        // Límites de cada grupo dentro de claves
+        int[] limites = new int[validas + 1];
+        int grupos = 0;
+        for (int k = 0; k < validas; k++) {
+            if (k == 0 || (claves[k] >>> 32) != (claves[k - 1] >>> 32)) {
+                limites[grupos++] = k;
+            }
+        }
+        limites[grupos] = validas;
+
+        // ===== REPARTO ENTRE HILOS =====
+        int cantidadTareas = Math.max(1, Math.min(grupos, hilos * TAREAS_POR_HILO));
+        List<Callable<Void>> tareas = new ArrayList<>();
+        for (int t = 0; t < cantidadTareas; t++) {
+            int desde = (int) ((long) grupos * t / cantidadTareas);
+            int hasta = (int) ((long) grupos * (t + 1) / cantidadTareas);
+            final int gruposTotales = grupos;
+            tareas.add(() -> {
+                Buffers b = buffers.get();
+                for (int gIdx = desde; gIdx < hasta && gIdx < gruposTotales; gIdx++) {
+                    if (!resolverGrupo(b, claves, limites[gIdx], limites[gIdx + 1], destinos,
+                            distancias, respondidas, control)) {
+                        break;  // El control detuvo el lote
+                    }
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> f : pool.invokeAll(tareas)) {
+                f.get();  // Propaga errores de los hilos
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Lote interrumpido", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error al resolver el lote", e.getCause());
+        }
+
+        return new ResultadoLotes(control.getEstado(), distancias, respondidas, grupos,
+                System.nanoTime() - inicio);
+    }
+
+    /**
+     * Libera los hilos del pool
+     */
+    public void cerrar() {
+        pool.shutdown();
+    }
+
+    /**
+     * BFS desde el origen común de claves[desde..hasta) que se detiene
+     * cuando ya encontró todos los destinos del grupo. Las expansiones se
+     * piden al control por bloques, para no sincronizar en cada nodo.
+     * @return false si el control detuvo el BFS antes de terminar
+     */
+    private boolean resolverGrupo(Buffers b, long[] claves, int desde, int hasta, int[] destinos,
+                                  int[] distancias, boolean[] respondidas, ControlBusqueda control) {
+        int reservadas = control.reservarExpansiones(BLOQUE_EXPANSIONES);
+        if (reservadas == 0) {
+            return false;  // Detenido antes de empezar: el grupo queda sin respuesta
+        }
+        if (b.epoca == Integer.MAX_VALUE) {
+            // Desborde de épocas (improbable): se limpian las marcas una vez
+            Arrays.fill(b.visitado, 0);
+            Arrays.fill(b.objetivo, 0);
+            b.epoca = 0;
+        }
+        int epoca = ++b.epoca;
+        int origen = (int) (claves[desde] >>> 32);
+
+        // Marca los destinos pendientes del grupo (sin repetir)
+        int pendientes = 0;
+        for (int k = desde; k < hasta; k++) {
+            int d = indice(destinos[(int) claves[k]]);
+            if (b.objetivo[d] != epoca) {
+                b.objetivo[d] = epoca;
+                pendientes++;
+            }
+        }
+
+        // ===== BFS CON ARREGLOS PRIMITIVOS =====
+        int cabeza = 0;
+        int fin = 0;
+        b.cola[fin++] = origen;
+        b.visitado[origen] = epoca;
+        b.distancia[origen] = 0;
+        if (b.objetivo[origen] == epoca) pendientes--;
+
+        boolean detenido = false;
+        while (cabeza < fin && pendientes > 0) {
+            if (reservadas == 0 && (reservadas = control.reservarExpansiones(BLOQUE_EXPANSIONES)) == 0) {
+                detenido = true;  // Tiempo, presupuesto o cancelación
+                break;
+            }
+            reservadas--;
+            int u = b.cola[cabeza++];
+            int siguiente = b.distancia[u] + 1;
+            for (int e = inicioVecinos[u]; e < inicioVecinos[u + 1]; e++) {
+                int v = vecinos[e];
+                if (b.visitado[v] != epoca) {
+                    b.visitado[v] = epoca;
+                    b.distancia[v] = siguiente;
+                    b.cola[fin++] = v;
+                    if (b.objetivo[v] == epoca) pendientes--;
+                }
+            }
+        }
+
+        control.devolverExpansiones(reservadas);
+
+        // Escribe las respuestas del grupo (en BFS la distancia de un nodo
+        // alcanzado ya es definitiva, aunque el BFS se haya detenido)
+        for (int k = desde; k < hasta; k++) {
+            int consulta = (int) claves[k];
+            int d = indice(destinos[consulta]);
+            if (b.visitado[d] == epoca) {
+                distancias[consulta] = b.distancia[d];
+                respondidas[consulta] = true;
+            } else {
+                respondidas[consulta] = !detenido;  // Inalcanzable solo si el BFS terminó
+            }
+        }
+        return !detenido;
+    }
+
+    /**
+     * Construye la instantánea CSR con índices compactos 0..n-1
+     */
+    private void construirInstantanea(GrafoLectura grafo) {
+        this.idAIndice = new int[grafo.getCapacidadIds()];
+        Arrays.fill(idAIndice, -1);
+
+        int[] indiceAId = new int[grafo.getCantidadNodos()];
+        int n = 0;
+        int totalVecinos = 0;
+        for (int id = 0; id < idAIndice.length; id++) {
+            if (!grafo.contieneNodo(id)) continue;
+            idAIndice[id] = n;
+            indiceAId[n++] = id;
+            totalVecinos += grafo.getGrado(id);
+        }
+        this.cantidadNodos = n;
+
+        this.inicioVecinos = new int[n + 1];
+        this.vecinos = new int[totalVecinos];
+        int pos = 0;
+        for (int i = 0; i < n; i++) {
+            inicioVecinos[i] = pos;
+            int id = indiceAId[i];
+            for (int k = 0, grado = grafo.getGrado(id); k < grado; k++) {
+                vecinos[pos++] = idAIndice[grafo.getVecino(id, k)];
+            }
+        }
+        inicioVecinos[n] = pos;
+    }
+
+    /**
+     * Índice compacto de un ID de nodo (-1 si no existe)
+     */
+    private int indice(int id) {
+        return id >= 0 && id < idAIndice.length ? idAIndice[id] : -1;
+    }
+}
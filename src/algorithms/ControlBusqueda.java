@@ -0,0 +1,170 @@
+package algorithms;
+
+import java.util.function.IntConsumer;
+
+/**
+ * ============================================================
+ * CLASE: ControlBusqueda
+ * ============================================================
+ * Controla la ejecución de un algoritmo de búsqueda o recorrido:
+ *   - Tiempo máximo (se convierte en fecha límite al iniciar)
+ *   - Presupuesto máximo de nodos expandidos
+ *   - Bandera de cancelación que otro hilo puede activar
+ *
+ * Los algoritmos llaman a expandir() una vez por nodo procesado y
+ * visitar(id) cuando un nodo entra al resultado: un observador opcional
+ * recibe así las visitas mientras la búsqueda sigue (ej: la GUI las anima
+ * antes de que termine).
+ * La verificación es barata: la bandera es un campo volatile y el
+ * reloj solo se consulta cada INTERVALO_RELOJ expansiones.
+ *
+ * Un control se usa para una sola búsqueda a la vez. Una búsqueda
+ * repartida entre hilos lo comparte con reservarExpansiones().
+ */
+public class ControlBusqueda {
+    // ===== CONSTANTES =====
+    private static final int INTERVALO_RELOJ = 1024;  // Potencia de 2: se usa como máscara
+
+    // ===== ATRIBUTOS =====
+    private final long tiempoMaximoNanos;   // 0 = sin límite de tiempo
+    private final long maxExpandidos;       // 0 = sin límite de nodos
+    private volatile boolean cancelado;     // Escrito por otro hilo (ej: botón Detener)
+    private long fechaLimite;               // System.nanoTime() en que vence el tiempo
+    private long expandidos;                // Nodos expandidos en la búsqueda actual
+    private EstadoBusqueda motivoParada;    // null mientras no haya que detenerse
+    private IntConsumer observadorVisitas;  // null = nadie escucha las visitas
+
+    /**
+     * Constructor
+     * @param tiempoMaximoMs tiempo máximo en milisegundos (0 = sin límite)
+     * @param maxExpandidos máximo de nodos expandidos (0 = sin límite)
+     */
+    public ControlBusqueda(long tiempoMaximoMs, long maxExpandidos) {
+        this.tiempoMaximoNanos = tiempoMaximoMs * 1_000_000L;
+        this.maxExpandidos = maxExpandidos;
+    }
+
+    /**
+     * Crea un control sin límites (solo cancelable)
+     */
+    public static ControlBusqueda sinLimites() {
+        return new ControlBusqueda(0, 0);
+    }
+
+    /**
+     * Reinicia los contadores y fija la fecha límite
+     * Lo llama el algoritmo al comenzar; no borra una cancelación previa
+     */
+    public void iniciar() {
+        this.expandidos = 0;
+        this.motivoParada = null;
+        this.fechaLimite = tiempoMaximoNanos > 0 ? System.nanoTime() + tiempoMaximoNanos : Long.MAX_VALUE;
+    }
+
+    /**
+     * Registra la expansión de un nodo. Una expansión rechazada no se
+     * cuenta: con presupuesto N, getExpandidos() nunca pasa de N.
+     * @return true si la búsqueda debe detenerse ahora (sin expandir el nodo)
+     */
+    public boolean expandir() {
+        if (cancelado) {
+            motivoParada = EstadoBusqueda.CANCELADA;
+            return true;
+        }
+        if (maxExpandidos > 0 && expandidos >= maxExpandidos) {
+            motivoParada = EstadoBusqueda.LIMITE_NODOS;
+            return true;
+        }
+        long siguiente = expandidos + 1;
+        // El reloj es caro comparado con el resto: solo cada INTERVALO_RELOJ expansiones
+        if ((siguiente & (INTERVALO_RELOJ - 1)) == 0 && System.nanoTime() - fechaLimite > 0) {
+            motivoParada = EstadoBusqueda.LIMITE_TIEMPO;
+            return true;
+        }
+        expandidos = siguiente;
+        return false;
+    }
+
+    /**
+     * Reserva un bloque de expansiones para búsquedas que reparten el
+     * trabajo entre hilos (ej: ConsultasPorLotes): cada hilo pide un
+     * bloque, lo consume y pide otro. Es sincronizado, así que varios
+     * hilos pueden compartir el mismo control; el presupuesto se respeta
+     * igual que con expandir() y el reloj se consulta en cada reserva.
+     * @param cantidad expansiones que se quieren hacer
+     * @return expansiones concedidas (0 = la búsqueda debe detenerse)
+     */
+    public synchronized int reservarExpansiones(int cantidad) {
+        if (motivoParada != null) {
+            return 0;  // Otro hilo ya detuvo la búsqueda
+        }
+        if (cancelado) {
+            motivoParada = EstadoBusqueda.CANCELADA;
+            return 0;
+        }
+        if (System.nanoTime() - fechaLimite > 0) {
+            motivoParada = EstadoBusqueda.LIMITE_TIEMPO;
+            return 0;
+        }
+        long concedidas = cantidad;
+        if (maxExpandidos > 0) {
+            concedidas = Math.min(concedidas, maxExpandidos - expandidos);
+            if (concedidas <= 0) {
+                motivoParada = EstadoBusqueda.LIMITE_NODOS;
+                return 0;
+            }
+        }
+        expandidos += concedidas;
+        return (int) concedidas;
+    }
+
+    /**
+     * Devuelve la parte de una reserva que no se usó (la búsqueda del
+     * hilo terminó antes), para que getExpandidos() sea exacto
+     * @param sobrantes expansiones reservadas y no hechas
+     */
+    public synchronized void devolverExpansiones(int sobrantes) {
+        expandidos -= sobrantes;
+    }
+
+    /**
+     * Informa una visita al observador (si hay). Se ejecuta en el hilo
+     * de la búsqueda: el observador debe ser rápido y no bloquear.
+     */
+    public void visitar(int id) {
+        if (observadorVisitas != null) {
+            observadorVisitas.accept(id);
+        }
+    }
+
+    /**
+     * Registra quién recibe las visitas en orden (null para ninguno)
+     * Se debe fijar antes de iniciar la búsqueda.
+     */
+    public void setObservadorVisitas(IntConsumer observadorVisitas) {
+        this.observadorVisitas = observadorVisitas;
+    }
+
+    /**
+     * Solicita detener la búsqueda (seguro desde cualquier hilo)
+     */
+    public void cancelar() {
+        this.cancelado = true;
+    }
+
+    // ===== GETTERS =====
+    public boolean estaCancelado() {
+        return cancelado;
+    }
+
+    public long getExpandidos() {
+        return expandidos;
+    }
+
+    /**
+     * Estado final de la búsqueda: COMPLETADA si nunca hubo que detenerse
+     */
+    public EstadoBusqueda getEstado() {
+        return motivoParada == null ? EstadoBusqueda.COMPLETADA : motivoParada;
+    }
+}
@@ -0,0 +1,402 @@
+package algorithms;
+
+import grafo.GrafoLectura;
+import java.util.*;
+
+/**
+ * ============================================================
+ * CLASE: DStarLite
+ * ============================================================
+ * Planificador incremental D* Lite para laberintos que cambian
+ * mientras el agente se mueve (paredes que se abren o cierran).
+ *
+ * A diferencia de CaminoMasCorto, que repite el BFS desde cero,
+ * D* Lite conserva sus estimaciones entre llamadas y solo vuelve a
+ * procesar los vértices afectados por un cambio:
+ *   - g(s):   distancia conocida desde s hasta el destino
+ *   - rhs(s): valor de un paso hacia adelante, min(1 + g(s')) sobre vecinos
+ *   - Un vértice es inconsistente si g(s) != rhs(s) y entra en la cola
+ *
+ * La búsqueda se hace en reversa (desde B hacia A), de modo que mover
+ * el inicio no invalida lo calculado; el desplazamiento se compensa
+ * con el modificador de claves km.
+ *
+ * Uso típico:
+ *   1. calcularCamino() para el plan inicial
+ *   2. Tras LaberintoParser.alternarCelda(), notificarCambios(afectados)
+ *   3. moverInicio(id) cuando el agente avanza
+ *
+ * Heurística: distancia Manhattan (admisible en rejilla de 4 vecinos)
+ *
+ * g, rhs y la cola viven en arreglos primitivos indexados por ID, que
+ * crecen si el laberinto gana celdas nuevas. La clave [k1, k2] se
+ * empaqueta en un long (k1 en los 32 bits altos): ambas son >= 0.
+ */
+public class DStarLite {
+    // ===== CONSTANTES =====
+    private static final int INFINITO = Integer.MAX_VALUE / 4;  // Evita desbordes al sumar
+
+    // ===== ATRIBUTOS =====
+    private GrafoLectura grafo;            // Grafo que el llamador modifica en el lugar
+    private int idInicio;                  // Posición actual del agente
+    private int idDestino;                 // Destino fijo (raíz de la búsqueda)
+    private int idUltimo;                  // Inicio al momento del último ajuste de km
+    private int km;                        // Modificador de claves por movimiento del inicio
+    private int[] g;                       // Distancias conocidas al destino (INFINITO = desconocida)
+    private int[] rhs;                     // Valores de un paso hacia adelante
+    private int[] enCola;                  // Secuencia de la entrada vigente de cada vértice (0 = ninguna)
+    private int secuencia;                 // Última secuencia asignada a una entrada
+    private MonticuloClaves abiertos;      // Cola de prioridad (borrado perezoso)
+    private long nodosExpandidos;          // Vértices procesados desde la creación
+
+    /**
+     * Constructor: prepara la búsqueda en reversa desde el destino
+     * @param grafo el grafo en el que se planifica
+     * @param idInicio ID del nodo donde está el agente
+     * @param idDestino ID del nodo destino
+     */
+    public DStarLite(GrafoLectura grafo, int idInicio, int idDestino) {
+        this.grafo = grafo;
+        this.idInicio = idInicio;
+        this.idDestino = idDestino;
+        this.idUltimo = idInicio;
+        this.km = 0;
+        this.g = new int[0];
+        this.rhs = new int[0];
+        this.enCola = new int[0];
+        this.abiertos = new MonticuloClaves(grafo.getCapacidadIds());
+        asegurarCapacidad();
+
+        // El destino es el único vértice con rhs = 0 al comenzar
+        rhs[idDestino] = 0;
+        insertar(idDestino);
+    }
+
+    /**
+     * Calcula (o completa) el plan y retorna el camino actual inicio -> destino
+     * @return Lista de IDs del camino, vacía si no existe
+     */
+    public List<Integer> calcularCamino() {
+        return calcularCamino(ControlBusqueda.sinLimites()).getNodos();
+    }
+
+    /**
+     * Calcula (o completa) el plan bajo un control de búsqueda
+     * Si se detiene antes, el estado interno sigue siendo válido: una
+     * llamada posterior continúa desde donde quedó. Mientras tanto no
+     * hay camino parcial confiable, por lo que se retorna vacío.
+     * @param control tiempo máximo, presupuesto de nodos y cancelación
+     * @return Resultado con el estado y el camino actual
+     */
+    public ResultadoBusqueda calcularCamino(ControlBusqueda control) {
+        control.iniciar();
+        if (!calcularRutaMasCorta(control)) {
+            return new ResultadoBusqueda(control.getEstado(), new ArrayList<>(), control.getExpandidos());
+        }
+        return new ResultadoBusqueda(EstadoBusqueda.COMPLETADA, obtenerCamino(), control.getExpandidos());
+    }
+
+    /**
+     * Informa al planificador que ciertos vértices cambiaron (aparecieron,
+     * desaparecieron o ganaron/perdieron vecinos) y repara el plan tocando
+     * solo lo necesario.
+     * @param afectados IDs retornados por LaberintoParser.alternarCelda()
+     * @return El camino reparado, vacío si ya no existe
+     */
+    public List<Integer> notificarCambios(Collection<Integer> afectados) {
+        return notificarCambios(afectados, ControlBusqueda.sinLimites()).getNodos();
+    }
+
+    /**
+     * Igual que notificarCambios(afectados), bajo un control de búsqueda
+     * @param afectados IDs retornados por LaberintoParser.alternarCelda()
+     * @param control tiempo máximo, presupuesto de nodos y cancelación
+     * @return Resultado con el estado y el camino reparado
+     */
+    public ResultadoBusqueda notificarCambios(Collection<Integer> afectados, ControlBusqueda control) {
+        asegurarCapacidad();  // Una pared abierta puede traer IDs nuevos
+        for (Integer id : afectados) {
+            if (!grafo.contieneNodo(id)) {
+                // El vértice se convirtió en pared: deja de existir para el plan
+                g[id] = INFINITO;
+                rhs[id] = INFINITO;
+                enCola[id] = 0;
+            } else {
+                actualizarVertice(id);
+            }
+        }
+        return calcularCamino(control);
+    }
+
+    /**
+     * Mueve el inicio (el agente avanzó) sin invalidar el plan
+     * @param nuevoInicio ID del nodo donde está ahora el agente
+     */
+    public void moverInicio(int nuevoInicio) {
+        km += heuristica(idUltimo, nuevoInicio);
+        idUltimo = nuevoInicio;
+        idInicio = nuevoInicio;
+    }
+
+    /**
+     * Retorna cuántos vértices se han expandido desde la creación
+     * Útil para comparar el costo de replanificar contra un BFS completo
+     */
+    public long getNodosExpandidos() {
+        return nodosExpandidos;
+    }
+
+    // ===== NÚCLEO DE D* LITE =====
+
+    /**
+     * Procesa la cola hasta que el inicio sea consistente y ningún
+     * vértice pendiente pueda mejorar su distancia
+     * @return false si el control pidió detenerse antes de terminar
+     */
+    private boolean calcularRutaMasCorta(ControlBusqueda control) {
+        while (true) {
+            boolean hayTope = descartarObsoletas();
+            long claveInicio = calcularClave(idInicio);
+            if (!hayTope || (abiertos.getTopeClave() >= claveInicio && getRhs(idInicio) == getG(idInicio))) {
+                return true;
+            }
+            if (control.expandir()) {
+                return false;  // La cola queda intacta para continuar después
+            }
+
+            long claveTope = abiertos.getTopeClave();
+            int u = abiertos.extraer();
+            enCola[u] = 0;
+            long nueva = calcularClave(u);
+            nodosExpandidos++;
+            control.visitar(u);  // Exploración en vivo (si alguien escucha)
+
+            if (claveTope < nueva) {
+                // La clave quedó desactualizada (km cambió): reinsertar
+                encolar(u, nueva);
+            } else if (getG(u) > getRhs(u)) {
+                // Sobre-consistente: se fija la distancia y se propaga
+                g[u] = getRhs(u);
+                for (int k = 0, grado = grafo.getGrado(u); k < grado; k++) {
+                    int vecino = grafo.getVecino(u, k);
+                    actualizarVertice(vecino);
+                }
+            } else {
+                // Sub-consistente: la distancia empeoró, se invalida y se propaga
+                g[u] = INFINITO;
+                actualizarVertice(u);
+                for (int k = 0, grado = grafo.getGrado(u); k < grado; k++) {
+                    int vecino = grafo.getVecino(u, k);
+                    actualizarVertice(vecino);
+                }
+            }
+        }
+    }
+
+    /**
+     * Recalcula rhs(u) a partir de sus vecinos y lo (re)encola si es inconsistente
+     */
+    private void actualizarVertice(int u) {
+        if (u != idDestino) {
+            int mejor = INFINITO;
+            for (int k = 0, grado = grafo.getGrado(u); k < grado; k++) {
+                int vecino = grafo.getVecino(u, k);
+                mejor = Math.min(mejor, getG(vecino) + 1);  // Costo uniforme 1 por arista
+            }
+            rhs[u] = Math.min(mejor, INFINITO);
+        }
+        enCola[u] = 0;  // La entrada vieja en el heap queda obsoleta
+        if (getG(u) != getRhs(u)) {
+            insertar(u);
+        }
+    }
+
+    /**
+     * Reconstruye el camino siguiendo el vecino con menor g desde el inicio
+     */
+    private List<Integer> obtenerCamino() {
+        List<Integer> camino = new ArrayList<>();
+        if (!grafo.contieneNodo(idInicio) || getG(idInicio) >= INFINITO) {
+            return camino;  // Sin camino
+        }
+
+        int actual = idInicio;
+        camino.add(actual);
+        int limite = grafo.getCantidadNodos();  // Protección contra ciclos
+        while (actual != idDestino && camino.size() <= limite) {
+            int siguiente = -1;
+            int mejor = INFINITO;
+            for (int k = 0, grado = grafo.getGrado(actual); k < grado; k++) {
+                int vecino = grafo.getVecino(actual, k);
+                int costo = getG(vecino);
+                if (costo < mejor) {
+                    mejor = costo;
+                    siguiente = vecino;
+                }
+            }
+            if (siguiente == -1) {
+                return new ArrayList<>();  // Plan incompleto
+            }
+            actual = siguiente;
+            camino.add(actual);
+        }
+        return camino;
+    }
+
+    // ===== UTILIDADES DE COLA Y CLAVES =====
+
+    /**
+     * Clave [k1, k2] empaquetada: comparar los long es comparar las claves
+     */
+    private long calcularClave(int id) {
+        int minimo = Math.min(getG(id), getRhs(id));
+        if (minimo >= INFINITO) {
+            return empaquetar(INFINITO, INFINITO);
+        }
+        return empaquetar(minimo + heuristica(idInicio, id) + km, minimo);
+    }
+
+    private static long empaquetar(int k1, int k2) {
+        return ((long) k1 << 32) | k2;
+    }
+
+    private void insertar(int id) {
+        encolar(id, calcularClave(id));
+    }
+
+    private void encolar(int id, long clave) {
+        enCola[id] = ++secuencia;
+        abiertos.agregar(clave, id, secuencia);
+    }
+
+    /**
+     * Descarta las entradas obsoletas del tope de la cola
+     * @return true si queda una entrada vigente en el tope
+     */
+    private boolean descartarObsoletas() {
+        while (!abiertos.estaVacio()) {
+            if (enCola[abiertos.getTopeId()] == abiertos.getTopeSecuencia()) {
+                return true;
+            }
+            abiertos.extraer();  // Borrado perezoso
+        }
+        return false;
+    }
+
+    /**
+     * Agranda g, rhs y enCola si el grafo tiene IDs nuevos
+     */
+    private void asegurarCapacidad() {
+        int capacidad = grafo.getCapacidadIds();
+        if (capacidad <= g.length) return;
+        int anterior = g.length;
+        g = Arrays.copyOf(g, capacidad);
+        rhs = Arrays.copyOf(rhs, capacidad);
+        enCola = Arrays.copyOf(enCola, capacidad);
+        Arrays.fill(g, anterior, capacidad, INFINITO);
+        Arrays.fill(rhs, anterior, capacidad, INFINITO);
+    }
+
+    private int getG(int id) {
+        return g[id];
+    }
+
+    private int getRhs(int id) {
+        return rhs[id];
+    }
+
+    /**
+     * Distancia Manhattan entre dos nodos (0 si alguno ya no existe)
+     */
+    private int heuristica(int id1, int id2) {
+        if (!grafo.contieneNodo(id1) || !grafo.contieneNodo(id2)) {
+            return 0;
+        }
+        return Math.abs(grafo.getX(id1) - grafo.getX(id2)) + Math.abs(grafo.getY(id1) - grafo.getY(id2));
+    }
+
+    /**
+     * Cola de prioridad sobre arreglos primitivos: clave empaquetada, ID y
+     * secuencia de cada entrada (la secuencia distingue la entrada vigente
+     * de las obsoletas del mismo vértice). Los arreglos crecen al doble;
+     * hundir y flotar siguen las reglas de PriorityQueue.
+     */
+    private static final class MonticuloClaves {
+        private long[] claves;
+        private int[] ids;
+        private int[] secuencias;
+        private int tamano;
+
+        MonticuloClaves(int capacidad) {
+            this.claves = new long[Math.max(16, capacidad)];
+            this.ids = new int[claves.length];
+            this.secuencias = new int[claves.length];
+        }
+
+        boolean estaVacio() {
+            return tamano == 0;
+        }
+
+        long getTopeClave() {
+            return claves[0];
+        }
+
+        int getTopeId() {
+            return ids[0];
+        }
+
+        int getTopeSecuencia() {
+            return secuencias[0];
+        }
+
+        void agregar(long clave, int id, int secuencia) {
+            if (tamano == ids.length) {
+                claves = Arrays.copyOf(claves, tamano * 2);
+                ids = Arrays.copyOf(ids, tamano * 2);
+                secuencias = Arrays.copyOf(secuencias, tamano * 2);
+            }
+            int k = tamano++;
+            while (k > 0) {
+                int padre = (k - 1) >>> 1;
+                if (clave >= claves[padre]) break;
+                mover(padre, k);
+                k = padre;
+            }
+            claves[k] = clave;
+            ids[k] = id;
+            secuencias[k] = secuencia;
+        }
+
+        int extraer() {
+            int primero = ids[0];
+            int n = --tamano;
+            if (n > 0) {
+                long clave = claves[n];
+                int id = ids[n];
+                int secuencia = secuencias[n];
+                int k = 0;
+                int mitad = n >>> 1;
+                while (k < mitad) {
+                    int hijo = 2 * k + 1;
+                    int derecho = hijo + 1;
+                    if (derecho < n && claves[hijo] > claves[derecho]) {
+                        hijo = derecho;
+                    }
+                    if (clave <= claves[hijo]) break;
+                    mover(hijo, k);
+                    k = hijo;
+                }
+                claves[k] = clave;
+                ids[k] = id;
+                secuencias[k] = secuencia;
+            }
+            return primero;
+        }
+
+        private void mover(int desde, int hacia) {
+            claves[hacia] = claves[desde];
+            ids[hacia] = ids[desde];
+            secuencias[hacia] = secuencias[desde];
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package algorithms;
+
+/**
+ * ============================================================
+ * ENUM: EstadoBusqueda
+ * ============================================================
+ * Indica cómo terminó una búsqueda o recorrido controlado:
+ *   - COMPLETADA:    terminó normalmente (con o sin camino)
+ *   - LIMITE_TIEMPO: se agotó el tiempo máximo
+ *   - LIMITE_NODOS:  se agotó el presupuesto de nodos expandidos
+ *   - CANCELADA:     alguien llamó a ControlBusqueda.cancelar()
+ */
+public enum EstadoBusqueda {
+    COMPLETADA,
+    LIMITE_TIEMPO,
+    LIMITE_NODOS,
+    CANCELADA
+}
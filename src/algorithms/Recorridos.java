@@ -1,7 +1,7 @@
 package algorithms;
 
-import grafo.Grafo;
-import models.Nodo;
+import grafo.GrafoLectura;
+import utils.SalidaTexto;
 import java.util.*;
 
 /**
@@ -22,20 +22,30 @@ import java.util.*;
  *   - Usa distancia Manhattan al destino como heurística
  *   - Se aproxima al destino sin garantizar óptimo
  * 
+ * Cada recorrido acepta opcionalmente un ControlBusqueda (tiempo
+ * máximo, presupuesto de nodos, cancelación) y retorna entonces un
+ * ResultadoBusqueda con el recorrido parcial si se detuvo antes.
+ * 
  * Complejidad de todos: O(V + E)
- * Espacio: O(V) para visitados y recursión
+ * Espacio: O(V) para visitados y la pila. Los DFS son iterativos, con
+ * una pila explícita en int[], así no dependen del tamaño de la pila del
+ * hilo. El estado por nodo vive en arreglos primitivos indexados por ID
+ * (visitados BitSet, colas y pilas int[]), no en conjuntos de Integer.
  */
 public class Recorridos {
     // ===== ATRIBUTOS =====
-    private Grafo grafo;          // Grafo sobre el que hacer recorridos
+    private GrafoLectura grafo;   // Grafo sobre el que hacer recorridos
     private List<Integer> resultado;  // Lista de nodos visitados
-    private Set<Integer> visitados;   // Conjunto de nodos ya visitados
+    private BitSet visitados;         // Nodos ya visitados (bit por ID)
+    private ControlBusqueda control;  // Control del recorrido DFS en curso
+    private int[] pila;               // Nodos de la rama DFS actual
+    private int[] siguienteVecino;    // Próximo adyacente a revisar en cada marco
 
     /**
      * Constructor
-     * @param grafo el grafo a recorrer
+     * @param grafo el grafo a recorrer (Grafo o GrafoOffHeap)
      */
-    public Recorridos(Grafo grafo) {
+    public Recorridos(GrafoLectura grafo) {
         this.grafo = grafo;
     }
 
@@ -47,25 +57,63 @@ public class Recorridos {
      * @return Lista de IDs visitados en orden DFS preorden
      */
     public List<Integer> dfsPreorden(int idInicio) {
-        resultado = new ArrayList<>();
-        visitados = new HashSet<>();
-        dfsPreordenHelper(idInicio);  // Comienza recorrido recursivo
-        return resultado;
+        return dfsPreorden(idInicio, ControlBusqueda.sinLimites()).getNodos();
     }
 
     /**
-     * Método privado recursivo para DFS preorden
+     * DFS preorden bajo un control de búsqueda
+     * @param idInicio ID del nodo donde comienza el recorrido
+     * @param control tiempo máximo, presupuesto de nodos y cancelación
+     * @return Resultado con el estado y el recorrido (parcial si se detuvo)
      */
-    private void dfsPreordenHelper(int id) {
-        visitados.add(id);       // Marca como visitado
-        resultado.add(id);       // PREORDEN: añade antes de explorar
+    public ResultadoBusqueda dfsPreorden(int idInicio, ControlBusqueda control) {
+        iniciarRecorrido(control);
+        dfsPreordenIterativo(idInicio);
+        return terminarRecorrido();
+    }
+
+    /**
+     * DFS preorden iterativo: cada marco de la pila guarda el nodo y el
+     * próximo vecino a revisar, así el orden es el mismo que la versión
+     * recursiva sin depender del tamaño de la pila del hilo.
+     * @return false si el control pidió detener el recorrido
+     */
+    private boolean dfsPreordenIterativo(int idInicio) {
+        if (!entrarPreorden(idInicio)) return false;
+        int tope = 0;
+        pila[0] = idInicio;
+        siguienteVecino[0] = 0;
 
-        // Explora todos los adyacentes
-        for (Integer vecino : grafo.getAdyacentes(id)) {
-            if (!visitados.contains(vecino)) {
-                dfsPreordenHelper(vecino);  // Recursión
+        while (tope >= 0) {
+            int id = pila[tope];
+            int grado = grafo.getGrado(id);
+            int k = siguienteVecino[tope];
+            while (k < grado && visitados.get(grafo.getVecino(id, k))) {
+                k++;  // Salta los adyacentes ya visitados
+            }
+            if (k == grado) {
+                tope--;  // Sin adyacentes pendientes: vuelve al padre
+                continue;
             }
+            int vecino = grafo.getVecino(id, k);
+            siguienteVecino[tope] = k + 1;
+            if (!entrarPreorden(vecino)) return false;
+            pila[++tope] = vecino;  // Baja al adyacente
+            siguienteVecino[tope] = 0;
         }
+        return true;
+    }
+
+    /**
+     * Entrada a un nodo en preorden: lo marca y lo añade antes de explorar
+     * @return false si el control pidió detener el recorrido
+     */
+    private boolean entrarPreorden(int id) {
+        if (control.expandir()) return false;
+        visitados.set(id);       // Marca como visitado
+        resultado.add(id);       // PREORDEN: añade antes de explorar
+        control.visitar(id);
+        return true;
     }
 
     /**
@@ -76,42 +124,70 @@ public class Recorridos {
      * @return Lista de IDs visitados en orden DFS inorden
      */
     public List<Integer> dfsInorden(int idInicio) {
-        resultado = new ArrayList<>();
-        visitados = new HashSet<>();
-        dfsInordenHelper(idInicio, 0);
-        return resultado;
-    }
-
-    /**
-     * Método privado recursivo para DFS inorden
-     * Divide adyacentes en dos mitades: izquierda (mid) y derecha
-     */
-    private void dfsInordenHelper(int id, int profundidad) {
-        if (visitados.contains(id)) return;  // Ya fue visitado
-        
-        visitados.add(id);
-        List<Integer> adyacentes = grafo.getAdyacentes(id);
-        
-        int mid = adyacentes.size() / 2;  // Punto medio
-        
-        // INORDEN: izquierda → nodo → derecha
-        // Primero explora la mitad izquierda
-        for (int i = 0; i < mid; i++) {
-            Integer vecino = adyacentes.get(i);
-            if (!visitados.contains(vecino)) {
-                dfsInordenHelper(vecino, profundidad + 1);
+        return dfsInorden(idInicio, ControlBusqueda.sinLimites()).getNodos();
+    }
+
+    /**
+     * DFS inorden bajo un control de búsqueda
+     * @param idInicio ID del nodo donde comienza el recorrido
+     * @param control tiempo máximo, presupuesto de nodos y cancelación
+     * @return Resultado con el estado y el recorrido (parcial si se detuvo)
+     */
+    public ResultadoBusqueda dfsInorden(int idInicio, ControlBusqueda control) {
+        iniciarRecorrido(control);
+        dfsInordenIterativo(idInicio);
+        return terminarRecorrido();
+    }
+
+    /**
+     * DFS inorden iterativo
+     * Divide adyacentes en dos mitades: izquierda (mid) y derecha. El nodo
+     * se añade cuando su marco llega al vecino mid, igual que la versión
+     * recursiva después de explorar la mitad izquierda.
+     * @return false si el control pidió detener el recorrido
+     */
+    private boolean dfsInordenIterativo(int idInicio) {
+        if (control.expandir()) return false;
+        visitados.set(idInicio);
+        int tope = 0;
+        pila[0] = idInicio;
+        siguienteVecino[0] = 0;
+
+        while (tope >= 0) {
+            int id = pila[tope];
+            int grado = grafo.getGrado(id);
+            int mid = grado / 2;  // Punto medio
+            int k = siguienteVecino[tope];
+            int vecino = -1;
+
+            // INORDEN: izquierda → nodo → derecha
+            while (k < grado) {
+                if (k == mid) {
+                    resultado.add(id);  // INORDEN: visita el nodo en el medio
+                    control.visitar(id);
+                }
+                int candidato = grafo.getVecino(id, k++);
+                if (!visitados.get(candidato)) {
+                    vecino = candidato;
+                    break;
+                }
             }
-        }
-        
-        resultado.add(id);  // INORDEN: visita el nodo en el medio
-        
-        // Luego explora la mitad derecha
-        for (int i = mid; i < adyacentes.size(); i++) {
-            Integer vecino = adyacentes.get(i);
-            if (!visitados.contains(vecino)) {
-                dfsInordenHelper(vecino, profundidad + 1);
+
+            if (vecino < 0) {
+                if (grado == 0) {  // Sin adyacentes: el medio es el propio nodo
+                    resultado.add(id);
+                    control.visitar(id);
+                }
+                tope--;  // Vuelve al padre
+                continue;
             }
+            siguienteVecino[tope] = k;
+            if (control.expandir()) return false;
+            visitados.set(vecino);
+            pila[++tope] = vecino;  // Baja al adyacente
+            siguienteVecino[tope] = 0;
         }
+        return true;
     }
 
     /**
@@ -122,26 +198,74 @@ public class Recorridos {
      * @return Lista de IDs visitados en orden DFS postorden
      */
     public List<Integer> dfsPostorden(int idInicio) {
-        resultado = new ArrayList<>();
-        visitados = new HashSet<>();
-        dfsPostordenHelper(idInicio);
-        return resultado;
+        return dfsPostorden(idInicio, ControlBusqueda.sinLimites()).getNodos();
     }
 
     /**
-     * Método privado recursivo para DFS postorden
+     * DFS postorden bajo un control de búsqueda
+     * @param idInicio ID del nodo donde comienza el recorrido
+     * @param control tiempo máximo, presupuesto de nodos y cancelación
+     * @return Resultado con el estado y el recorrido (parcial si se detuvo)
      */
-    private void dfsPostordenHelper(int id) {
-        visitados.add(id);
+    public ResultadoBusqueda dfsPostorden(int idInicio, ControlBusqueda control) {
+        iniciarRecorrido(control);
+        dfsPostordenIterativo(idInicio);
+        return terminarRecorrido();
+    }
 
-        // Primero explora todos los adyacentes
-        for (Integer vecino : grafo.getAdyacentes(id)) {
-            if (!visitados.contains(vecino)) {
-                dfsPostordenHelper(vecino);
+    /**
+     * DFS postorden iterativo: el nodo se añade al sacar su marco de la
+     * pila, después de explorar todos sus adyacentes
+     * @return false si el control pidió detener el recorrido
+     */
+    private boolean dfsPostordenIterativo(int idInicio) {
+        if (control.expandir()) return false;
+        visitados.set(idInicio);
+        int tope = 0;
+        pila[0] = idInicio;
+        siguienteVecino[0] = 0;
+
+        while (tope >= 0) {
+            int id = pila[tope];
+            int grado = grafo.getGrado(id);
+            int k = siguienteVecino[tope];
+            while (k < grado && visitados.get(grafo.getVecino(id, k))) {
+                k++;  // Salta los adyacentes ya visitados
+            }
+            if (k == grado) {
+                resultado.add(id);  // POSTORDEN: añade después de explorar
+                control.visitar(id);
+                tope--;
+                continue;
             }
+            int vecino = grafo.getVecino(id, k);
+            siguienteVecino[tope] = k + 1;
+            if (control.expandir()) return false;
+            visitados.set(vecino);
+            pila[++tope] = vecino;  // Baja al adyacente
+            siguienteVecino[tope] = 0;
         }
+        return true;
+    }
 
-        resultado.add(id);  // POSTORDEN: añade después de explorar
+    /**
+     * Prepara el estado compartido de los recorridos DFS
+     */
+    private void iniciarRecorrido(ControlBusqueda control) {
+        this.resultado = new ArrayList<>();
+        int capacidad = grafo.getCapacidadIds();
+        this.visitados = new BitSet(capacidad);
+        this.pila = new int[capacidad];             // Cada nodo entra una sola vez a la rama
+        this.siguienteVecino = new int[capacidad];
+        this.control = control;
+        control.iniciar();
+    }
+
+    /**
+     * Empaqueta el recorrido DFS (completo o parcial) con su estado
+     */
+    private ResultadoBusqueda terminarRecorrido() {
+        return new ResultadoBusqueda(control.getEstado(), resultado, control.getExpandidos());
     }
 
     /**
@@ -151,29 +275,46 @@ public class Recorridos {
      * @return Lista de IDs visitados en orden BFS
      */
     public List<Integer> bfs(int idInicio) {
+        return bfs(idInicio, ControlBusqueda.sinLimites()).getNodos();
+    }
+
+    /**
+     * BFS bajo un control de búsqueda
+     * @param idInicio ID del nodo donde comienza el recorrido
+     * @param control tiempo máximo, presupuesto de nodos y cancelación
+     * @return Resultado con el estado y el recorrido (parcial si se detuvo)
+     */
+    public ResultadoBusqueda bfs(int idInicio, ControlBusqueda control) {
         List<Integer> resultado = new ArrayList<>();
-        Set<Integer> visitados = new HashSet<>();
-        Queue<Integer> cola = new LinkedList<>();
+        int capacidad = grafo.getCapacidadIds();
+        BitSet visitados = new BitSet(capacidad);
+        int[] cola = new int[capacidad];  // Cada nodo entra una sola vez
+        int frente = 0;
+        int fin = 0;
+        control.iniciar();
 
         // Inicializa con el nodo de inicio
-        cola.offer(idInicio);
-        visitados.add(idInicio);
+        cola[fin++] = idInicio;
+        visitados.set(idInicio);
 
         // Procesa nodos nivel a nivel
-        while (!cola.isEmpty()) {
-            int id = cola.poll();  // Extrae el primer nodo
+        while (frente < fin) {
+            if (control.expandir()) break;  // Tiempo, presupuesto o cancelación
+            int id = cola[frente++];  // Extrae el primer nodo
             resultado.add(id);
+            control.visitar(id);
 
             // Añade todos los adyacentes no visitados a la cola
-            for (Integer vecino : grafo.getAdyacentes(id)) {
-                if (!visitados.contains(vecino)) {
-                    visitados.add(vecino);
-                    cola.offer(vecino);
+            for (int k = 0, grado = grafo.getGrado(id); k < grado; k++) {
+                int vecino = grafo.getVecino(id, k);
+                if (!visitados.get(vecino)) {
+                    visitados.set(vecino);
+                    cola[fin++] = vecino;
                 }
             }
         }
 
-        return resultado;
+        return new ResultadoBusqueda(control.getEstado(), resultado, control.getExpandidos());
     }
 
     /**
@@ -186,22 +327,32 @@ public class Recorridos {
      * @return Lista de IDs visitados siguiendo heurística
      */
     public List<Integer> greedyBestFirstSearch(int idInicio, int idDestino) {
+        return greedyBestFirstSearch(idInicio, idDestino, ControlBusqueda.sinLimites()).getNodos();
+    }
+
+    /**
+     * Greedy Best-First Search bajo un control de búsqueda
+     * @param idInicio ID del nodo donde comienza
+     * @param idDestino ID del nodo destino
+     * @param control tiempo máximo, presupuesto de nodos y cancelación
+     * @return Resultado con el estado y el recorrido (parcial si se detuvo)
+     */
+    public ResultadoBusqueda greedyBestFirstSearch(int idInicio, int idDestino, ControlBusqueda control) {
         List<Integer> resultado = new ArrayList<>();
-        Set<Integer> visitados = new HashSet<>();
+        BitSet visitados = new BitSet(grafo.getCapacidadIds());
         // Cola de prioridad: ordena por distancia Manhattan al destino
-        PriorityQueue<Integer> cola = new PriorityQueue<>((a, b) -> {
-            int distA = calcularDistancia(a, idDestino);  // Distancia a destino
-            int distB = calcularDistancia(b, idDestino);
-            return Integer.compare(distA, distB);  // Menor distancia = mayor prioridad
-        });
+        MonticuloDistancias cola = new MonticuloDistancias(grafo.getCapacidadIds(), idDestino);
+        control.iniciar();
 
-        cola.offer(idInicio);
-        visitados.add(idInicio);
+        cola.agregar(idInicio);
+        visitados.set(idInicio);
 
         // Procesa nodos por proximidad al destino
-        while (!cola.isEmpty()) {
-            int id = cola.poll();
+        while (!cola.estaVacio()) {
+            if (control.expandir()) break;  // Tiempo, presupuesto o cancelación
+            int id = cola.extraer();
             resultado.add(id);
+            control.visitar(id);
 
             // Si llegamos al destino, se detiene
             if (id == idDestino) {
@@ -209,15 +360,72 @@ public class Recorridos {
             }
 
             // Añade adyacentes ordenados por distancia al destino
-            for (Integer vecino : grafo.getAdyacentes(id)) {
-                if (!visitados.contains(vecino)) {
-                    visitados.add(vecino);
-                    cola.offer(vecino);
+            for (int k = 0, grado = grafo.getGrado(id); k < grado; k++) {
+                int vecino = grafo.getVecino(id, k);
+                if (!visitados.get(vecino)) {
+                    visitados.set(vecino);
+                    cola.agregar(vecino);
                 }
             }
         }
 
-        return resultado;
+        return new ResultadoBusqueda(control.getEstado(), resultado, control.getExpandidos());
+    }
+
+    /**
+     * Cola de prioridad de IDs por distancia Manhattan al destino, sobre un
+     * int[] (sin Integer por nodo). Sigue las mismas reglas de subida y
+     * bajada que java.util.PriorityQueue, así los empates se resuelven
+     * igual y el orden del recorrido no cambia.
+     */
+    private final class MonticuloDistancias {
+        private final int[] ids;
+        private final int destino;
+        private int tamano;
+
+        MonticuloDistancias(int capacidad, int destino) {
+            this.ids = new int[Math.max(1, capacidad)];  // Cada nodo entra una sola vez
+            this.destino = destino;
+        }
+
+        boolean estaVacio() {
+            return tamano == 0;
+        }
+
+        void agregar(int id) {
+            int k = tamano++;
+            int distancia = calcularDistancia(id, destino);
+            while (k > 0) {
+                int padre = (k - 1) >>> 1;
+                if (distancia >= calcularDistancia(ids[padre], destino)) break;
+                ids[k] = ids[padre];
+                k = padre;
+            }
+            ids[k] = id;
+        }
+
+        int extraer() {
+            int primero = ids[0];
+            int ultimo = ids[--tamano];
+            if (tamano > 0) {
+                int distancia = calcularDistancia(ultimo, destino);
+                int k = 0;
+                int mitad = tamano >>> 1;
+                while (k < mitad) {
+                    int hijo = 2 * k + 1;
+                    int derecho = hijo + 1;
+                    if (derecho < tamano
+                            && calcularDistancia(ids[hijo], destino) > calcularDistancia(ids[derecho], destino)) {
+                        hijo = derecho;
+                    }
+                    if (distancia <= calcularDistancia(ids[hijo], destino)) break;
+                    ids[k] = ids[hijo];
+                    k = hijo;
+                }
+                ids[k] = ultimo;
+            }
+            return primero;
+        }
     }
 
     /**
@@ -228,9 +436,8 @@ public class Recorridos {
      * @return Distancia Manhattan entre los nodos
      */
     private int calcularDistancia(int id1, int id2) {
-        Nodo nodo1 = grafo.getNodo(id1);
-        Nodo nodo2 = grafo.getNodo(id2);
-        return Math.abs(nodo1.getX() - nodo2.getX()) + Math.abs(nodo1.getY() - nodo2.getY());
+        // Lecturas directas de los arreglos del grafo (sin crear Nodo)
+        return Math.abs(grafo.getX(id1) - grafo.getX(id2)) + Math.abs(grafo.getY(id1) - grafo.getY(id2));
     }
 
     /**
@@ -239,15 +446,25 @@ public class Recorridos {
      * @param recorrido lista de IDs del recorrido
      */
     public void imprimirRecorrido(String nombre, List<Integer> recorrido) {
-        System.out.println("\n=== RECORRIDO " + nombre + " ===");
-        System.out.println("Total de nodos visitados: " + recorrido.size());
-        System.out.print("Recorrido: ");
+        imprimirRecorrido(nombre, recorrido, SalidaTexto.consola());
+    }
+
+    /**
+     * Imprime un recorrido en la salida indicada
+     * @param nombre nombre del recorrido
+     * @param recorrido lista de IDs del recorrido
+     * @param salida consola o archivo (con su truncado)
+     */
+    public void imprimirRecorrido(String nombre, List<Integer> recorrido, SalidaTexto salida) {
+        salida.imprimirLinea("\n=== RECORRIDO " + nombre + " ===");
+        salida.imprimirLinea("Total de nodos visitados: " + recorrido.size());
+        salida.imprimir("Recorrido: ");
         for (int i = 0; i < recorrido.size(); i++) {
             int id = recorrido.get(i);
-            Nodo nodo = grafo.getNodo(id);
-            if (i > 0) System.out.print(" -> ");
-            System.out.print(nodo.getTipo() == ' ' ? "·" : nodo.getTipo());  // Punto o letra
+            char tipo = grafo.getTipo(id);
+            if (i > 0) salida.imprimir(" -> ");
+            salida.imprimir(tipo == ' ' ? '·' : tipo);  // Punto o letra
         }
-        System.out.println();
+        salida.terminarBloque();
     }
 }
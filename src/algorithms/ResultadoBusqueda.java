@@ -0,0 +1,60 @@
+package algorithms;
+
+import java.util.List;
+
+/**
+ * ============================================================
+ * CLASE: ResultadoBusqueda
+ * ============================================================
+ * Resultado de una búsqueda o recorrido controlado por ControlBusqueda.
+ *
+ * Contiene:
+ *   - El estado final (completada, límite alcanzado o cancelada)
+ *   - La lista de nodos: el recorrido o el camino encontrado; si la
+ *     búsqueda se detuvo antes, el mejor resultado parcial disponible
+ *   - La cantidad de nodos expandidos
+ */
+public class ResultadoBusqueda {
+    // ===== ATRIBUTOS =====
+    private final EstadoBusqueda estado;
+    private final List<Integer> nodos;
+    private final long nodosExpandidos;
+
+    /**
+     * Constructor
+     * @param estado cómo terminó la búsqueda
+     * @param nodos recorrido o camino (parcial si no se completó)
+     * @param nodosExpandidos nodos procesados por el algoritmo
+     */
+    public ResultadoBusqueda(EstadoBusqueda estado, List<Integer> nodos, long nodosExpandidos) {
+        this.estado = estado;
+        this.nodos = nodos;
+        this.nodosExpandidos = nodosExpandidos;
+    }
+
+    // ===== GETTERS =====
+    public EstadoBusqueda getEstado() {
+        return estado;
+    }
+
+    /**
+     * Indica si la búsqueda terminó sin ser interrumpida
+     */
+    public boolean estaCompleta() {
+        return estado == EstadoBusqueda.COMPLETADA;
+    }
+
+    public List<Integer> getNodos() {
+        return nodos;
+    }
+
+    public long getNodosExpandidos() {
+        return nodosExpandidos;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultadoBusqueda{estado=" + estado + ", nodos=" + nodos.size()
+                + ", expandidos=" + nodosExpandidos + '}';
+    }
+}
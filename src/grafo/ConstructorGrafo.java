@@ -0,0 +1,125 @@
+package grafo;
+
+import java.util.*;
+
+/**
+ * ============================================================
+ * CLASE: ConstructorGrafo
+ * ============================================================
+ * Construye un Grafo completo en bloque, más rápido que llamar a
+ * Grafo.agregarNodo / agregarArista por cada elemento.
+ *
+ * Diferencias con la construcción incremental:
+ *   - Las aristas se acumulan en dos arreglos de enteros (lista de
+ *     aristas), sin buscar en mapas ni revisar duplicados
+ *   - Al construir, se cuentan los grados y cada lista de adyacencia
+ *     se crea con el tamaño exacto
+ *   - La cantidad de aristas queda calculada (caché de getCantidadAristas)
+ *
+ * Contrato: cada arista no dirigida se agrega UNA sola vez. En una
+ * rejilla basta con emitir solo los vecinos de la derecha y de abajo.
+ *
+ * Uso:
+ *   ConstructorGrafo c = new ConstructorGrafo(nodos, aristas);
+ *   c.agregarNodo(id, x, y, tipo);  ...
+ *   c.agregarArista(u, v);          ...
+ *   Grafo g = c.construir();
+ */
+public class ConstructorGrafo {
+    // ===== ATRIBUTOS =====
+    private int[] xs;              // Coordenada X por ID
+    private int[] ys;              // Coordenada Y por ID
+    private char[] tipos;          // Tipo por ID ('\0' = sin nodo)
+    private int[] aristasOrigen;   // Lista de aristas: extremo u
+    private int[] aristasDestino;  // Lista de aristas: extremo v
+    private int cantidadAristas;
+    private boolean construido;
+
+    /**
+     * Constructor
+     * @param capacidadNodos cantidad de IDs esperados (0..capacidadNodos-1)
+     * @param capacidadAristas cantidad de aristas esperadas (estimación)
+     */
+    public ConstructorGrafo(int capacidadNodos, int capacidadAristas) {
+        capacidadNodos = Math.max(1, capacidadNodos);
+        this.xs = new int[capacidadNodos];
+        this.ys = new int[capacidadNodos];
+        this.tipos = new char[capacidadNodos];
+        this.aristasOrigen = new int[Math.max(1, capacidadAristas)];
+        this.aristasDestino = new int[Math.max(1, capacidadAristas)];
+    }
+
+    /**
+     * Registra un nodo
+     * @param id identificador (índice en los arreglos)
+     * @param x coordenada X (fila)
+     * @param y coordenada Y (columna)
+     * @param tipo ' ', 'A' o 'B'
+     */
+    public void agregarNodo(int id, int x, int y, char tipo) {
+        if (id >= tipos.length) {
+            int nueva = Math.max(id + 1, tipos.length * 2);
+            xs = Arrays.copyOf(xs, nueva);
+            ys = Arrays.copyOf(ys, nueva);
+            tipos = Arrays.copyOf(tipos, nueva);
+        }
+        xs[id] = x;
+        ys[id] = y;
+        tipos[id] = tipo;
+    }
+
+    /**
+     * Registra una arista no dirigida (una sola vez por par)
+     */
+    public void agregarArista(int idOrigen, int idDestino) {
+        if (cantidadAristas == aristasOrigen.length) {
+            aristasOrigen = Arrays.copyOf(aristasOrigen, cantidadAristas * 2);
+            aristasDestino = Arrays.copyOf(aristasDestino, cantidadAristas * 2);
+        }
+        aristasOrigen[cantidadAristas] = idOrigen;
+        aristasDestino[cantidadAristas] = idDestino;
+        cantidadAristas++;
+    }
+
+    /**
+     * Arma el Grafo: cuenta grados, crea listas de tamaño exacto y
+     * las llena en ambas direcciones
+     * @return el grafo terminado
+     * @throws IllegalStateException si ya se construyó o una arista usa un ID sin nodo
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})  // Arreglo genérico de listas
+    public Grafo construir() {
+        if (construido) {
+            throw new IllegalStateException("El constructor ya se usó");
+        }
+        construido = true;
+
+        // ===== PASO 1: GRADOS =====
+        int[] grados = new int[tipos.length];
+        for (int k = 0; k < cantidadAristas; k++) {
+            int u = aristasOrigen[k];
+            int v = aristasDestino[k];
+            if (u >= tipos.length || v >= tipos.length || tipos[u] == '\0' || tipos[v] == '\0') {
+                throw new IllegalStateException("Arista (" + u + ", " + v + ") con un nodo inexistente");
+            }
+            grados[u]++;
+            grados[v]++;
+        }
+
+        // ===== PASO 2: LISTAS DE TAMAÑO EXACTO =====
+        List<Integer>[] listas = new List[tipos.length];
+        for (int id = 0; id < tipos.length; id++) {
+            if (tipos[id] != '\0') {
+                listas[id] = new ArrayList<>(grados[id]);
+            }
+        }
+        for (int k = 0; k < cantidadAristas; k++) {
+            listas[aristasOrigen[k]].add(aristasDestino[k]);
+            listas[aristasDestino[k]].add(aristasOrigen[k]);
+        }
+
+        Grafo grafo = new Grafo(1);
+        grafo.cargarMasivo(xs, ys, tipos, listas, cantidadAristas);
+        return grafo;
+    }
+}
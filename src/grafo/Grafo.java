@@ -2,6 +2,7 @@ package grafo;
 
 import models.Nodo;
 import java.util.*;
+import java.util.function.IntConsumer;
 
 /**
  * ============================================================
@@ -14,45 +15,138 @@ import java.util.*;
  *   - Aristas: conexiones entre nodos adyacentes
  * 
  * Esta implementación almacena:
- *   - Un mapa de IDs a objetos Nodo
+ *   - Los datos de los nodos (x, y, tipo) en arreglos primitivos
+ *     paralelos indexados por ID, sin un objeto por celda
  *   - Una lista de adyacencia para cada nodo
- *   - Referencias especiales a los nodos A (inicio) y B (fin)
+ *   - Referencias especiales al nodo A (inicio) y a los nodos B (salidas)
+ * 
+ * Puede haber varias salidas B; getNodoB() retorna la primera agregada
+ * y getNodosB() todas, en orden de aparición.
+ * 
+ * Los objetos Nodo que retornan getNodo() y getTodosNodos() son vistas
+ * creadas bajo demanda a partir de los arreglos: modificarlas no altera
+ * el grafo. Para consultas intensivas conviene usar getX/getY/getTipo.
+ * 
+ * Las listas de adyacencia también se guardan en un arreglo por ID.
+ * getAdyacentes() y getListaAdyacencia() entregan vistas de solo lectura
+ * sin copiar; forEachNeighbor() / getGrado() / getVecino() recorren los
+ * vecinos sin crear objetos.
+ * 
+ * Implementa GrafoLectura, la vista que usan los motores de búsqueda
+ * (también implementada por GrafoOffHeap, fuera del heap).
  * 
  * Nota: El grafo es NO DIRIGIDO, por lo que si hay una arista (u,v),
  *       también existe la arista (v,u).
  */
-public class Grafo {
+public class Grafo implements GrafoLectura {
+    // ===== CONSTANTES =====
+    private static final int CAPACIDAD_INICIAL = 16;
+    private static final char SIN_NODO = '\0';      // Tipo de un ID libre
+
     // ===== ATRIBUTOS =====
-    private Map<Integer, Nodo> nodos;                // Almacena todos los nodos por ID
-    private Map<Integer, List<Integer>> listaAdyacencia;  // Lista de adyacencia
-    private Nodo nodoA;  // Nodo de inicio (tipo 'A')
-    private Nodo nodoB;  // Nodo de destino (tipo 'B')
+    private int[] xs;                                // Coordenada X (fila) por ID
+    private int[] ys;                                // Coordenada Y (columna) por ID
+    private char[] tipos;                            // Tipo por ID ('\0' = no existe)
+    private int cantidadNodos;                       // Nodos presentes
+    private int cantidadAristas;                     // Aristas presentes (se mantiene al día)
+    private List<Integer>[] listas;                  // Lista de adyacencia por ID (null = sin nodo)
+    private List<Integer>[] vistas;                  // Vista de solo lectura de cada lista
+    private Map<Integer, List<Integer>> vistaMapa;   // Vista de solo lectura ID -> vecinos
+    private int idA;            // ID del nodo de inicio (tipo 'A'), -1 si no hay
+    private List<Integer> idsB; // IDs de las salidas (tipo 'B'), en orden de aparición
 
     /**
      * Constructor: inicializa el grafo vacío
      */
     public Grafo() {
-        this.nodos = new HashMap<>();
-        this.listaAdyacencia = new HashMap<>();
+        this(CAPACIDAD_INICIAL);
+    }
+
+    /**
+     * Constructor con capacidad inicial de IDs (evita redimensionar
+     * los arreglos cuando se conoce la cantidad de nodos)
+     * @param capacidad cantidad esperada de IDs (0..capacidad-1)
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Grafo(int capacidad) {
+        capacidad = Math.max(1, capacidad);
+        this.xs = new int[capacidad];
+        this.ys = new int[capacidad];
+        this.tipos = new char[capacidad];
+        this.listas = new List[capacidad];
+        this.vistas = new List[capacidad];
+        this.vistaMapa = new VistaAdyacencia();
+        this.idA = -1;
+        this.idsB = new ArrayList<>();
     }
 
     /**
      * Agrega un nodo al grafo
      * Si el nodo es de tipo 'A' o 'B', se almacena como nodo especial
+     * (una B posterior se suma a las salidas, no reemplaza a la anterior)
      * @param nodo el nodo a agregar
      */
     public void agregarNodo(Nodo nodo) {
-        if (!nodos.containsKey(nodo.getId())) {  // Evita duplicados
-            nodos.put(nodo.getId(), nodo);
-            listaAdyacencia.put(nodo.getId(), new ArrayList<>());
+        int id = nodo.getId();
+        if (!contieneNodo(id)) {  // Evita duplicados
+            asegurarCapacidad(id + 1);
+            xs[id] = nodo.getX();
+            ys[id] = nodo.getY();
+            tipos[id] = nodo.getTipo();
+            cantidadNodos++;
+            listas[id] = new ArrayList<>();
+            vistas[id] = Collections.unmodifiableList(listas[id]);
             
             // Identifica puntos especiales
             if (nodo.getTipo() == 'A') {
-                this.nodoA = nodo;  // Punto de inicio
+                this.idA = id;  // Punto de inicio
             } else if (nodo.getTipo() == 'B') {
-                this.nodoB = nodo;  // Punto de destino
+                idsB.add(id);   // Una salida más (la primera es el destino por defecto)
+            }
+        }
+    }
+
+    /**
+     * Carga masiva usada por ConstructorGrafo: recibe los arreglos de nodos
+     * ya dimensionados y las listas de adyacencia ya armadas (sin duplicados)
+     * @param listas lista de adyacencia por ID (null = ID sin nodo)
+     * @param aristas cantidad de aristas no dirigidas ya contadas
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void cargarMasivo(int[] xs, int[] ys, char[] tipos, List<Integer>[] listas, int aristas) {
+        this.xs = xs;
+        this.ys = ys;
+        this.tipos = tipos;
+        this.listas = listas;
+        this.vistas = new List[listas.length];
+        this.cantidadNodos = 0;
+        this.idA = -1;
+        this.idsB.clear();
+        for (int id = 0; id < tipos.length; id++) {
+            if (tipos[id] == SIN_NODO) continue;
+            cantidadNodos++;
+            vistas[id] = Collections.unmodifiableList(listas[id]);
+            if (tipos[id] == 'A') {
+                idA = id;
+            } else if (tipos[id] == 'B') {
+                idsB.add(id);
             }
         }
+        this.cantidadAristas = aristas;
+    }
+
+    /**
+     * Agranda los arreglos de nodos (al doble) si no alcanzan para el ID
+     */
+    private void asegurarCapacidad(int minimo) {
+        if (minimo > tipos.length) {
+            int nueva = Math.max(minimo, tipos.length * 2);
+            xs = Arrays.copyOf(xs, nueva);
+            ys = Arrays.copyOf(ys, nueva);
+            tipos = Arrays.copyOf(tipos, nueva);
+            listas = Arrays.copyOf(listas, nueva);
+            vistas = Arrays.copyOf(vistas, nueva);
+        }
     }
 
     /**
@@ -62,80 +156,314 @@ public class Grafo {
      * @param idDestino ID del segundo nodo
      */
     public void agregarArista(int idOrigen, int idDestino) {
-        if (nodos.containsKey(idOrigen) && nodos.containsKey(idDestino)) {
+        if (contieneNodo(idOrigen) && contieneNodo(idDestino)) {
             // Agregar arista origen -> destino
-            List<Integer> adyacentes = listaAdyacencia.get(idOrigen);
+            List<Integer> adyacentes = listas[idOrigen];
             if (!adyacentes.contains(idDestino)) {
                 adyacentes.add(idDestino);
+                cantidadAristas++;  // Arista nueva
             }
             // Para grafo no dirigido, agregar también destino -> origen
-            adyacentes = listaAdyacencia.get(idDestino);
+            adyacentes = listas[idDestino];
             if (!adyacentes.contains(idOrigen)) {
                 adyacentes.add(idOrigen);
             }
         }
     }
 
+    /**
+     * Elimina la arista entre dos nodos en ambas direcciones
+     * (grafo NO DIRIGIDO: se quitan (u,v) y (v,u))
+     * @param idOrigen ID del primer nodo
+     * @param idDestino ID del segundo nodo
+     */
+    public void eliminarArista(int idOrigen, int idDestino) {
+        if (!contieneNodo(idOrigen) || !contieneNodo(idDestino)) {
+            return;
+        }
+        if (listas[idOrigen].remove(Integer.valueOf(idDestino))) {  // Por valor, no por índice
+            cantidadAristas--;
+        }
+        listas[idDestino].remove(Integer.valueOf(idOrigen));
+    }
+
+    /**
+     * Elimina un nodo y todas sus aristas incidentes
+     * Cada vecino pierde también la referencia al nodo eliminado,
+     * de modo que la lista de adyacencia sigue siendo simétrica.
+     * @param id ID del nodo a eliminar
+     * @return IDs de los nodos que eran vecinos del eliminado
+     */
+    public List<Integer> eliminarNodo(int id) {
+        if (!contieneNodo(id)) {
+            return new ArrayList<>();  // El nodo no existía
+        }
+        List<Integer> vecinos = listas[id];
+        listas[id] = null;
+        vistas[id] = null;
+        for (Integer vecino : vecinos) {
+            listas[vecino].remove(Integer.valueOf(id));
+        }
+        cantidadAristas -= vecinos.size();
+        tipos[id] = SIN_NODO;
+        cantidadNodos--;
+        if (id == idA) idA = -1;
+        idsB.remove(Integer.valueOf(id));
+        return vecinos;
+    }
+
     // ===== GETTERS =====
     /**
-     * Obtiene un nodo por su ID
+     * Indica si existe un nodo con el ID dado
+     */
+    @Override
+    public boolean contieneNodo(int id) {
+        return id >= 0 && id < tipos.length && tipos[id] != SIN_NODO;
+    }
+
+    /**
+     * Obtiene un nodo por su ID (vista creada desde los arreglos)
+     * @return el nodo, o null si no existe
      */
     public Nodo getNodo(int id) {
-        return nodos.get(id);
+        return contieneNodo(id) ? new Nodo(id, xs[id], ys[id], tipos[id]) : null;
+    }
+
+    /**
+     * Coordenada X (fila) del nodo; lectura directa del arreglo
+     */
+    @Override
+    public int getX(int id) {
+        return xs[id];
+    }
+
+    /**
+     * Coordenada Y (columna) del nodo; lectura directa del arreglo
+     */
+    @Override
+    public int getY(int id) {
+        return ys[id];
+    }
+
+    /**
+     * Tipo del nodo (' ', 'A' o 'B'); '\0' si el ID no existe
+     */
+    @Override
+    public char getTipo(int id) {
+        return id >= 0 && id < tipos.length ? tipos[id] : SIN_NODO;
+    }
+
+    /**
+     * Retorna el mayor ID posible + 1 (límite para arreglos indexados por ID)
+     */
+    @Override
+    public int getCapacidadIds() {
+        return tipos.length;
     }
 
     /**
      * Obtiene la lista de adyacentes (vecinos) de un nodo
      */
     public List<Integer> getAdyacentes(int id) {
-        return listaAdyacencia.getOrDefault(id, new ArrayList<>());
+        // Vista de solo lectura (sin copia); lista vacía compartida si no existe
+        return contieneNodo(id) ? vistas[id] : Collections.emptyList();
+    }
+
+    /**
+     * Aplica la acción a cada vecino del nodo, sin crear listas ni iteradores
+     * @param id ID del nodo (si no existe, no hace nada)
+     * @param accion recibe el ID de cada vecino
+     */
+    @Override
+    public void forEachNeighbor(int id, IntConsumer accion) {
+        if (!contieneNodo(id)) return;
+        List<Integer> vecinos = listas[id];
+        for (int i = 0, n = vecinos.size(); i < n; i++) {
+            accion.accept(vecinos.get(i));
+        }
+    }
+
+    /**
+     * Cantidad de vecinos del nodo (0 si no existe)
+     */
+    @Override
+    public int getGrado(int id) {
+        return contieneNodo(id) ? listas[id].size() : 0;
+    }
+
+    /**
+     * i-ésimo vecino del nodo (0 <= i < getGrado(id))
+     */
+    @Override
+    public int getVecino(int id, int i) {
+        return listas[id].get(i);
     }
 
     /**
      * Retorna todos los nodos del grafo
      */
     public Collection<Nodo> getTodosNodos() {
-        return nodos.values();
+        // Colección de vistas: recorre los IDs presentes en orden ascendente
+        return new AbstractCollection<Nodo>() {
+            @Override
+            public Iterator<Nodo> iterator() {
+                return new Iterator<Nodo>() {
+                    private int siguiente = avanzar(0);
+
+                    private int avanzar(int desde) {
+                        while (desde < tipos.length && tipos[desde] == SIN_NODO) desde++;
+                        return desde;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return siguiente < tipos.length;
+                    }
+
+                    @Override
+                    public Nodo next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        int id = siguiente;
+                        siguiente = avanzar(id + 1);
+                        return new Nodo(id, xs[id], ys[id], tipos[id]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return cantidadNodos;
+            }
+        };
     }
 
     /**
      * Obtiene el nodo de inicio (A)
      */
     public Nodo getNodoA() {
-        return nodoA;
+        return idA == -1 ? null : getNodo(idA);
+    }
+
+    @Override
+    public int getIdA() {
+        return idA;
+    }
+
+    @Override
+    public int getCantidadSalidas() {
+        return idsB.size();
+    }
+
+    @Override
+    public int getIdSalida(int i) {
+        return idsB.get(i);
     }
 
     /**
      * Obtiene el nodo de destino (B)
      */
     public Nodo getNodoB() {
-        return nodoB;
+        return idsB.isEmpty() ? null : getNodo(idsB.get(0));
+    }
+
+    /**
+     * Obtiene todas las salidas (B) en orden de aparición
+     */
+    public List<Nodo> getNodosB() {
+        List<Nodo> salidas = new ArrayList<>(idsB.size());
+        for (Integer id : idsB) {
+            salidas.add(getNodo(id));
+        }
+        return Collections.unmodifiableList(salidas);
     }
 
     /**
      * Retorna la cantidad de nodos en el grafo
      */
+    @Override
     public int getCantidadNodos() {
-        return nodos.size();
+        return cantidadNodos;
     }
 
     /**
-     * Calcula y retorna la cantidad de aristas
-     * Divide por 2 porque el grafo es no dirigido
+     * Retorna la cantidad de aristas
+     * Se mantiene al agregar/eliminar, sin recorrer la lista de adyacencia
      */
+    @Override
     public int getCantidadAristas() {
-        int count = 0;
-        for (List<Integer> adyacentes : listaAdyacencia.values()) {
-            count += adyacentes.size();
+        return cantidadAristas;
+    }
+
+    /**
+     * Estimación de los bytes que ocupa el grafo en el heap (JVM de 64
+     * bits con referencias comprimidas): arreglos por ID, y por nodo su
+     * ArrayList, la vista de solo lectura y un Integer por vecino.
+     * Sirve para comparar con las representaciones compactas.
+     */
+    public long getBytesEstimados() {
+        long bytes = 5L * 16 + tipos.length * (4L + 4 + 2 + 4 + 4);  // xs, ys, tipos, listas, vistas
+        for (int id = 0; id < listas.length; id++) {
+            if (listas[id] == null) continue;
+            // ArrayList (24) + su arreglo (16 + 4 por vecino) + vista (16)
+            bytes += 24 + 16 + 16 + listas[id].size() * (4L + 16);  // Integer fuera de la caché: 16
         }
-        return count / 2;  // Cada arista se cuenta dos veces
+        return bytes;
     }
 
     /**
-     * Retorna una copia de la lista de adyacencia completa
+     * Retorna la lista de adyacencia completa como vista de solo lectura
+     * (sin copiar; refleja los cambios posteriores del grafo)
      */
     public Map<Integer, List<Integer>> getListaAdyacencia() {
-        return new HashMap<>(listaAdyacencia);
+        return vistaMapa;
+    }
+
+    /**
+     * Vista de solo lectura ID -> vecinos sobre los arreglos internos
+     * Se recorre en orden ascendente de ID
+     */
+    private class VistaAdyacencia extends AbstractMap<Integer, List<Integer>> {
+        @Override
+        public List<Integer> get(Object clave) {
+            return clave instanceof Integer && contieneNodo((Integer) clave) ? vistas[(Integer) clave] : null;
+        }
+
+        @Override
+        public boolean containsKey(Object clave) {
+            return clave instanceof Integer && contieneNodo((Integer) clave);
+        }
+
+        @Override
+        public int size() {
+            return cantidadNodos;
+        }
+
+        @Override
+        public Set<Entry<Integer, List<Integer>>> entrySet() {
+            return new AbstractSet<Entry<Integer, List<Integer>>>() {
+                @Override
+                public Iterator<Entry<Integer, List<Integer>>> iterator() {
+                    Iterator<Nodo> nodos = getTodosNodos().iterator();
+                    return new Iterator<Entry<Integer, List<Integer>>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return nodos.hasNext();
+                        }
+
+                        @Override
+                        public Entry<Integer, List<Integer>> next() {
+                            int id = nodos.next().getId();
+                            return new SimpleImmutableEntry<>(id, vistas[id]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return cantidadNodos;
+                }
+            };
+        }
     }
 
     /**
@@ -144,12 +472,12 @@ public class Grafo {
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        sb.append("Grafo con ").append(nodos.size()).append(" nodos y ")
+        sb.append("Grafo con ").append(cantidadNodos).append(" nodos y ")
           .append(getCantidadAristas()).append(" aristas\n");
-        for (Integer id : listaAdyacencia.keySet()) {
-            Nodo nodo = nodos.get(id);
-            sb.append("Nodo ").append(id).append(" (").append(nodo.getTipo()).append(") -> ")
-              .append(listaAdyacencia.get(id)).append("\n");
+        for (int id = 0; id < tipos.length; id++) {
+            if (tipos[id] == SIN_NODO) continue;
+            sb.append("Nodo ").append(id).append(" (").append(tipos[id]).append(") -> ")
+              .append(listas[id]).append("\n");
         }
         return sb.toString();
     }
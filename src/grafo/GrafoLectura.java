@@ -0,0 +1,96 @@
+package grafo;
+
+import java.util.function.IntConsumer;
+
+/**
+ * ============================================================
+ * INTERFAZ: GrafoLectura
+ * ============================================================
+ * Operaciones de solo lectura que necesitan los motores de búsqueda
+ * y recorrido (BFS, DFS, Greedy), expresadas solo con enteros y
+ * caracteres para no exigir objetos Nodo ni listas por vecino.
+ *
+ * Implementaciones:
+ *   - Grafo: en el heap, modificable
+ *   - GrafoOffHeap: fuera del heap (buffers directos o archivo
+ *     mapeado en memoria), de solo lectura
+ *   - GrafoRejilla: 4 bits de lados abiertos por celda, de solo lectura
+ *   - GrafoVersionado.Instantanea: versión inmutable de una rejilla
+ *     compartida entre hilos (copy-on-write)
+ *
+ * Los IDs válidos están en 0..getCapacidadIds()-1; contieneNodo()
+ * indica cuáles existen.
+ */
+public interface GrafoLectura {
+
+    /**
+     * Retorna la cantidad de nodos en el grafo
+     */
+    int getCantidadNodos();
+
+    /**
+     * Retorna la cantidad de aristas (no dirigidas)
+     */
+    int getCantidadAristas();
+
+    /**
+     * Retorna el mayor ID posible + 1 (límite para arreglos indexados por ID)
+     */
+    int getCapacidadIds();
+
+    /**
+     * Indica si existe un nodo con el ID dado
+     */
+    boolean contieneNodo(int id);
+
+    /**
+     * Coordenada X (fila) del nodo
+     */
+    int getX(int id);
+
+    /**
+     * Coordenada Y (columna) del nodo
+     */
+    int getY(int id);
+
+    /**
+     * Tipo del nodo (' ', 'A' o 'B'); '\0' si el ID no existe
+     */
+    char getTipo(int id);
+
+    /**
+     * Cantidad de vecinos del nodo (0 si no existe)
+     */
+    int getGrado(int id);
+
+    /**
+     * i-ésimo vecino del nodo (0 <= i < getGrado(id))
+     */
+    int getVecino(int id, int i);
+
+    /**
+     * ID del nodo de inicio (A), -1 si no hay
+     */
+    int getIdA();
+
+    /**
+     * Cantidad de salidas (B)
+     */
+    int getCantidadSalidas();
+
+    /**
+     * ID de la i-ésima salida, en orden de aparición
+     */
+    int getIdSalida(int i);
+
+    /**
+     * Aplica la acción a cada vecino del nodo, sin crear objetos
+     * @param id ID del nodo (si no existe, no hace nada)
+     * @param accion recibe el ID de cada vecino
+     */
+    default void forEachNeighbor(int id, IntConsumer accion) {
+        for (int i = 0, grado = getGrado(id); i < grado; i++) {
+            accion.accept(getVecino(id, i));
+        }
+    }
+}
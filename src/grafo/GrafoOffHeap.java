@@ -0,0 +1,425 @@
+package grafo;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.function.IntConsumer;
+
+/**
+ * ============================================================
+ * CLASE: GrafoOffHeap
+ * ============================================================
+ * Grafo de solo lectura cuyos datos viven FUERA del heap de Java, para
+ * laberintos cuyo grafo no cabe (o no conviene tener) en el heap.
+ *
+ * Almacenamiento (formato CSR, todo en enteros de 4 bytes):
+ *   - xs, ys:   coordenadas por ID
+ *   - tipos:    un byte por ID (' ', 'A' o 'B')
+ *   - inicio:   los vecinos del nodo i están en [inicio[i], inicio[i+1])
+ *   - vecinos:  IDs de los vecinos, en el mismo orden que produce
+ *               LaberintoParser (arriba, izquierda, abajo, derecha)
+ *   - salidas:  IDs de los nodos B en orden de aparición
+ *
+ * Respaldo:
+ *   - Buffers directos (ByteBuffer.allocateDirect): memoria nativa
+ *   - Archivo mapeado en memoria: el sistema operativo pagina los datos
+ *     y el archivo se puede volver a abrir con abrir() sin reconstruir
+ *
+ * Construcción en streaming: el archivo de texto se lee tres veces
+ * (dimensiones, conteo, llenado) con una ventana de tres filas; nunca
+ * se carga el mapa completo ni se crea un objeto por celda o arista.
+ *
+ * Los IDs son 0..N-1 en orden fila-columna (igual que LaberintoParser).
+ * Límite: cada región debe caber en un ByteBuffer (2 GB), es decir
+ * hasta ~500 millones de nodos y de entradas de vecinos.
+ * La memoria se libera cuando el objeto deja de ser alcanzable.
+ */
+public class GrafoOffHeap implements GrafoLectura {
+    // ===== CONSTANTES =====
+    private static final int MAGICO = 0x4C414247;    // "LABG"
+    private static final int VERSION = 1;
+    private static final int TAMANO_CABECERA = 64;   // Bytes reservados al inicio del archivo
+    private static final char PARED = '*';
+
+    // ===== ATRIBUTOS =====
+    private int filas;               // Dimensiones del laberinto de origen
+    private int columnas;
+    private int cantidadNodos;
+    private int cantidadVecinos;     // Entradas de vecinos (2 por arista)
+    private int idA;                 // ID del nodo A, -1 si no hay
+    private int cantidadSalidas;
+    private IntBuffer xs;
+    private IntBuffer ys;
+    private ByteBuffer tipos;
+    private IntBuffer inicio;
+    private IntBuffer vecinos;
+    private IntBuffer salidas;
+    private boolean mapeado;         // true si está respaldado por un archivo
+
+    private GrafoOffHeap() {
+    }
+
+    // ===== CREACIÓN =====
+
+    /**
+     * Construye el grafo de un archivo de laberinto en buffers directos
+     * @param rutaArchivo ruta al archivo .txt del laberinto
+     * @throws IOException si hay error al leer o el laberinto no es válido
+     */
+    public static GrafoOffHeap desdeLaberinto(String rutaArchivo) throws IOException {
+        return desdeLaberinto(rutaArchivo, null);
+    }
+
+    /**
+     * Construye el grafo de un archivo de laberinto
+     * @param rutaArchivo ruta al archivo .txt del laberinto
+     * @param respaldo archivo donde mapear los datos (se sobrescribe),
+     *                 o null para usar buffers directos
+     * @throws IOException si hay error al leer/escribir o el laberinto no es válido
+     */
+    public static GrafoOffHeap desdeLaberinto(String rutaArchivo, Path respaldo) throws IOException {
+        Path ruta = Paths.get(rutaArchivo);
+        GrafoOffHeap g = new GrafoOffHeap();
+
+        // ===== PASO 1: DIMENSIONES Y VALIDACIÓN =====
+        int cantidadA = 0;
+        int cantidadB = 0;
+        try (BufferedReader lector = Files.newBufferedReader(ruta)) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                g.filas++;
+                g.columnas = Math.max(g.columnas, linea.length());
+                for (int j = 0; j < linea.length(); j++) {
+                    char c = linea.charAt(j);
+                    if (c == 'A') cantidadA++;
+                    if (c == 'B') cantidadB++;
+                }
+            }
+        }
+        if (cantidadA == 0 || cantidadB == 0) {
+            throw new IOException("El laberinto debe contener un punto A (inicio) y al menos un punto B (fin)");
+        }
+        if (cantidadA > 1) {
+            throw new IOException("El laberinto debe contener un solo punto A (se encontraron " + cantidadA + ")");
+        }
+        g.cantidadSalidas = cantidadB;
+
+        // ===== PASO 2: CONTEO DE NODOS Y ARISTAS =====
+        long nodos = 0;
+        long entradas = 0;
+        try (BufferedReader lector = Files.newBufferedReader(ruta)) {
+            char[] anterior = null;
+            char[] actual = new char[g.columnas];
+            for (int i = 0; i < g.filas; i++) {
+                leerFila(lector, actual);
+                for (int j = 0; j < g.columnas; j++) {
+                    if (actual[j] == PARED) continue;
+                    nodos++;
+                    if (j + 1 < g.columnas && actual[j + 1] != PARED) entradas += 2;
+                    if (anterior != null && anterior[j] != PARED) entradas += 2;
+                }
+                if (anterior == null) anterior = new char[g.columnas];
+                char[] t = anterior; anterior = actual; actual = t;
+            }
+        }
+        if (4 * (nodos + 1) > Integer.MAX_VALUE || 4 * entradas > Integer.MAX_VALUE) {
+            throw new IOException("El laberinto excede el tamaño máximo de una región (2 GB)");
+        }
+        g.cantidadNodos = (int) nodos;
+        g.cantidadVecinos = (int) entradas;
+
+        // ===== RESERVA DE MEMORIA =====
+        FileChannel canal = null;
+        if (respaldo != null) {
+            canal = FileChannel.open(respaldo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        try {
+            ByteBuffer[] regiones = g.reservarRegiones(canal, FileChannel.MapMode.READ_WRITE);
+
+            // ===== PASO 3: LLENADO CON VENTANA DE TRES FILAS =====
+            try (BufferedReader lector = Files.newBufferedReader(ruta)) {
+                g.llenar(lector);
+            }
+
+            if (canal != null) {
+                escribirCabecera(regiones[0], g);
+                for (ByteBuffer region : regiones) {
+                    ((MappedByteBuffer) region).force();  // Datos completos en disco
+                }
+            }
+        } finally {
+            if (canal != null) canal.close();  // El mapeo sigue válido tras cerrar el canal
+        }
+        return g;
+    }
+
+    /**
+     * Abre un grafo guardado previamente con desdeLaberinto(ruta, respaldo),
+     * mapeándolo en modo solo lectura (no se lee el archivo completo)
+     * @param archivo archivo de respaldo
+     * @throws IOException si el archivo no existe, no es válido o está incompleto
+     */
+    public static GrafoOffHeap abrir(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            if (canal.size() < TAMANO_CABECERA) {
+                throw new IOException("Archivo de grafo inválido: " + archivo);
+            }
+            ByteBuffer cabecera = canal.map(FileChannel.MapMode.READ_ONLY, 0, TAMANO_CABECERA)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (cabecera.getInt(0) != MAGICO || cabecera.getInt(4) != VERSION) {
+                throw new IOException("Archivo de grafo inválido o de otra versión: " + archivo);
+            }
+            GrafoOffHeap g = new GrafoOffHeap();
+            g.filas = cabecera.getInt(8);
+            g.columnas = cabecera.getInt(12);
+            g.cantidadNodos = cabecera.getInt(16);
+            g.cantidadVecinos = cabecera.getInt(20);
+            g.idA = cabecera.getInt(24);
+            g.cantidadSalidas = cabecera.getInt(28);
+            if (canal.size() < tamanoArchivo(g.cantidadNodos, g.cantidadVecinos, g.cantidadSalidas)) {
+                throw new IOException("Archivo de grafo incompleto: " + archivo);
+            }
+            g.reservarRegiones(canal, FileChannel.MapMode.READ_ONLY);
+            return g;
+        }
+    }
+
+    // ===== CONSTRUCCIÓN INTERNA =====
+
+    /**
+     * Crea las regiones (directas o mapeadas) y las vistas de enteros
+     * @return las regiones en orden: cabecera (o null), xs, ys, tipos, inicio, vecinos, salidas
+     */
+    private ByteBuffer[] reservarRegiones(FileChannel canal, FileChannel.MapMode modo) throws IOException {
+        long[] tamanos = {
+            canal != null ? TAMANO_CABECERA : 0,
+            4L * cantidadNodos,
+            4L * cantidadNodos,
+            alinear(cantidadNodos),
+            4L * (cantidadNodos + 1),
+            4L * cantidadVecinos,
+            4L * cantidadSalidas
+        };
+        ByteBuffer[] regiones = new ByteBuffer[tamanos.length];
+        long desplazamiento = 0;
+        for (int r = 0; r < tamanos.length; r++) {
+            if (canal == null) {
+                regiones[r] = r == 0 ? null : ByteBuffer.allocateDirect((int) tamanos[r]);
+            } else {
+                regiones[r] = canal.map(modo, desplazamiento, tamanos[r]);
+            }
+            if (regiones[r] != null) regiones[r].order(ByteOrder.LITTLE_ENDIAN);
+            desplazamiento += tamanos[r];
+        }
+        this.xs = regiones[1].asIntBuffer();
+        this.ys = regiones[2].asIntBuffer();
+        this.tipos = regiones[3];
+        this.inicio = regiones[4].asIntBuffer();
+        this.vecinos = regiones[5].asIntBuffer();
+        this.salidas = regiones[6].asIntBuffer();
+        this.mapeado = canal != null;
+        return regiones;
+    }
+
+    /**
+     * Tercera pasada: asigna IDs fila a fila y escribe nodos y vecinos
+     * Ventana: fila anterior, actual y siguiente (mapa e IDs de cada una)
+     */
+    private void llenar(BufferedReader lector) throws IOException {
+        char[] anterior = new char[columnas];
+        char[] actual = new char[columnas];
+        char[] siguiente = new char[columnas];
+        int[] idsAnterior = new int[columnas];
+        int[] idsActual = new int[columnas];
+        int[] idsSiguiente = new int[columnas];
+
+        this.idA = -1;
+        int salida = 0;
+        int pos = 0;
+        int base = 0;
+        if (filas > 0) {
+            leerFila(lector, actual);
+            base = asignarIds(actual, idsActual, base);
+        }
+
+        for (int i = 0; i < filas; i++) {
+            boolean haySiguiente = i + 1 < filas;
+            if (haySiguiente) {
+                leerFila(lector, siguiente);
+                base = asignarIds(siguiente, idsSiguiente, base);
+            }
+
+            for (int j = 0; j < columnas; j++) {
+                int id = idsActual[j];
+                if (id == -1) continue;
+                xs.put(id, i);
+                ys.put(id, j);
+                tipos.put(id, (byte) actual[j]);
+                if (actual[j] == 'A') idA = id;
+                if (actual[j] == 'B') salidas.put(salida++, id);
+
+                // Mismo orden que las listas armadas por LaberintoParser
+                inicio.put(id, pos);
+                if (i > 0 && idsAnterior[j] != -1) vecinos.put(pos++, idsAnterior[j]);       // Arriba
+                if (j > 0 && idsActual[j - 1] != -1) vecinos.put(pos++, idsActual[j - 1]);   // Izquierda
+                if (haySiguiente && idsSiguiente[j] != -1) vecinos.put(pos++, idsSiguiente[j]);  // Abajo
+                if (j + 1 < columnas && idsActual[j + 1] != -1) vecinos.put(pos++, idsActual[j + 1]);  // Derecha
+            }
+
+            // Desplaza la ventana una fila hacia abajo
+            char[] t = anterior; anterior = actual; actual = siguiente; siguiente = t;
+            int[] ti = idsAnterior; idsAnterior = idsActual; idsActual = idsSiguiente; idsSiguiente = ti;
+        }
+        inicio.put(cantidadNodos, pos);
+    }
+
+    /**
+     * Lee la siguiente línea en la fila, completando con espacios
+     * (igual que LaberintoParser con las líneas cortas)
+     */
+    private static void leerFila(BufferedReader lector, char[] fila) throws IOException {
+        String linea = lector.readLine();
+        int largo = linea == null ? 0 : linea.length();
+        if (largo > 0) linea.getChars(0, largo, fila, 0);
+        for (int j = largo; j < fila.length; j++) {
+            fila[j] = ' ';
+        }
+    }
+
+    /**
+     * IDs consecutivos para las celdas transitables de una fila (-1 = pared)
+     * @return el siguiente ID libre
+     */
+    private static int asignarIds(char[] fila, int[] ids, int base) {
+        for (int j = 0; j < fila.length; j++) {
+            ids[j] = fila[j] != PARED ? base++ : -1;
+        }
+        return base;
+    }
+
+    private static void escribirCabecera(ByteBuffer cabecera, GrafoOffHeap g) {
+        cabecera.putInt(0, MAGICO);
+        cabecera.putInt(4, VERSION);
+        cabecera.putInt(8, g.filas);
+        cabecera.putInt(12, g.columnas);
+        cabecera.putInt(16, g.cantidadNodos);
+        cabecera.putInt(20, g.cantidadVecinos);
+        cabecera.putInt(24, g.idA);
+        cabecera.putInt(28, g.cantidadSalidas);
+    }
+
+    /**
+     * Bytes que ocupa el archivo de respaldo con las cantidades dadas
+     */
+    private static long tamanoArchivo(int nodos, int entradas, int salidas) {
+        return TAMANO_CABECERA + 8L * nodos + alinear(nodos) + 4L * (nodos + 1)
+                + 4L * entradas + 4L * salidas;
+    }
+
+    /**
+     * Redondea hacia arriba a múltiplo de 8 (mantiene alineadas las regiones de enteros)
+     */
+    private static long alinear(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    // ===== GETTERS =====
+    @Override
+    public int getCantidadNodos() {
+        return cantidadNodos;
+    }
+
+    @Override
+    public int getCantidadAristas() {
+        return cantidadVecinos / 2;
+    }
+
+    @Override
+    public int getCapacidadIds() {
+        return cantidadNodos;  // IDs contiguos 0..N-1
+    }
+
+    @Override
+    public boolean contieneNodo(int id) {
+        return id >= 0 && id < cantidadNodos;
+    }
+
+    @Override
+    public int getX(int id) {
+        return xs.get(id);
+    }
+
+    @Override
+    public int getY(int id) {
+        return ys.get(id);
+    }
+
+    @Override
+    public char getTipo(int id) {
+        return contieneNodo(id) ? (char) (tipos.get(id) & 0xFF) : '\0';
+    }
+
+    @Override
+    public int getGrado(int id) {
+        return contieneNodo(id) ? inicio.get(id + 1) - inicio.get(id) : 0;
+    }
+
+    @Override
+    public int getVecino(int id, int i) {
+        return vecinos.get(inicio.get(id) + i);
+    }
+
+    @Override
+    public void forEachNeighbor(int id, IntConsumer accion) {
+        if (!contieneNodo(id)) return;
+        for (int e = inicio.get(id), fin = inicio.get(id + 1); e < fin; e++) {
+            accion.accept(vecinos.get(e));
+        }
+    }
+
+    @Override
+    public int getIdA() {
+        return idA;
+    }
+
+    @Override
+    public int getCantidadSalidas() {
+        return cantidadSalidas;
+    }
+
+    @Override
+    public int getIdSalida(int i) {
+        return salidas.get(i);
+    }
+
+    public int getFilas() {
+        return filas;
+    }
+
+    public int getColumnas() {
+        return columnas;
+    }
+
+    /**
+     * Indica si los datos están respaldados por un archivo mapeado
+     */
+    public boolean isMapeado() {
+        return mapeado;
+    }
+
+    /**
+     * Bytes ocupados fuera del heap (sin contar la cabecera del archivo)
+     */
+    public long getBytesFueraDelHeap() {
+        return tamanoArchivo(cantidadNodos, cantidadVecinos, cantidadSalidas) - TAMANO_CABECERA;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("GrafoOffHeap[%dx%d, %d nodos, %d aristas, %s, %d bytes]",
+                filas, columnas, cantidadNodos, getCantidadAristas(),
+                mapeado ? "mapeado" : "directo", getBytesFueraDelHeap());
+    }
+}
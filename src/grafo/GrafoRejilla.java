@@ -0,0 +1,210 @@
+package grafo;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * ============================================================
+ * CLASE: GrafoRejilla
+ * ============================================================
+ * Representación compacta de un laberinto de 4 vecinos: cada celda
+ * guarda en 4 bits (un "nibble") qué lados están abiertos, y 16
+ * celdas se empaquetan en cada long.
+ *
+ * Bits de cada celda (mismo orden de vecinos que LaberintoParser):
+ *   1 = arriba, 2 = izquierda, 4 = abajo, 8 = derecha
+ *
+ * Además se guarda un bit por celda que indica si es transitable,
+ * para distinguir una pared de un espacio aislado (ambos tienen 0000).
+ *
+ * Memoria: ~0.6 bytes por celda (un millón de celdas ~ 625 KB), lo que
+ * permite que la rejilla completa quede en caché durante la búsqueda.
+ *
+ * IDs: el ID de un nodo es el índice de su celda (fila * columnas + col),
+ * NO el ID correlativo que asigna LaberintoParser; las paredes son IDs
+ * sin nodo. De solo lectura: se construye desde LaberintoParser.getMapa().
+ */
+public class GrafoRejilla implements GrafoLectura {
+    // ===== CONSTANTES =====
+    private static final int ARRIBA = 1;
+    private static final int IZQUIERDA = 2;
+    private static final int ABAJO = 4;
+    private static final int DERECHA = 8;
+    private static final char PARED = '*';
+
+    // ===== ATRIBUTOS =====
+    private int filas;
+    private int columnas;
+    private long[] lados;         // Nibble de lados abiertos por celda (16 por long)
+    private long[] abiertas;      // Bit por celda: 1 = transitable
+    private int cantidadNodos;
+    private int idA;              // Celda del nodo A, -1 si no hay
+    private int[] salidas;        // Celdas de los nodos B, en orden fila-columna
+
+    /**
+     * Constructor: codifica el mapa del laberinto
+     * @param mapa mapa 2D ('*' = pared; cualquier otro carácter es transitable)
+     */
+    public GrafoRejilla(char[][] mapa) {
+        this.filas = mapa.length;
+        this.columnas = filas == 0 ? 0 : mapa[0].length;
+        int celdas = filas * columnas;
+        this.lados = new long[(celdas + 15) >>> 4];
+        this.abiertas = new long[(celdas + 63) >>> 6];
+        this.idA = -1;
+        int[] b = new int[16];
+        int cantidadB = 0;
+
+        for (int i = 0; i < filas; i++) {
+            for (int j = 0; j < columnas; j++) {
+                if (mapa[i][j] == PARED) continue;
+                int celda = i * columnas + j;
+                abiertas[celda >>> 6] |= 1L << celda;
+                cantidadNodos++;
+                if (mapa[i][j] == 'A') idA = celda;
+                if (mapa[i][j] == 'B') {
+                    if (cantidadB == b.length) b = Arrays.copyOf(b, b.length * 2);
+                    b[cantidadB++] = celda;
+                }
+
+                long mascara = 0;
+                if (i > 0 && mapa[i - 1][j] != PARED) mascara |= ARRIBA;
+                if (j > 0 && mapa[i][j - 1] != PARED) mascara |= IZQUIERDA;
+                if (i + 1 < filas && mapa[i + 1][j] != PARED) mascara |= ABAJO;
+                if (j + 1 < columnas && mapa[i][j + 1] != PARED) mascara |= DERECHA;
+                lados[celda >>> 4] |= mascara << ((celda & 15) << 2);
+            }
+        }
+        this.salidas = Arrays.copyOf(b, cantidadB);
+    }
+
+    /**
+     * Nibble de lados abiertos de una celda (0 si no existe)
+     */
+    public int getLados(int id) {
+        if (!contieneNodo(id)) return 0;
+        return (int) (lados[id >>> 4] >>> ((id & 15) << 2)) & 0xF;
+    }
+
+    /**
+     * ID (índice de celda) de la posición dada
+     */
+    public int getIdCelda(int fila, int columna) {
+        return fila * columnas + columna;
+    }
+
+    /**
+     * Vecino en la dirección indicada por un único bit de lado
+     */
+    private int vecinoEn(int id, int lado) {
+        switch (lado) {
+            case ARRIBA:    return id - columnas;
+            case IZQUIERDA: return id - 1;
+            case ABAJO:     return id + columnas;
+            default:        return id + 1;  // DERECHA
+        }
+    }
+
+    // ===== GETTERS =====
+    @Override
+    public int getCantidadNodos() {
+        return cantidadNodos;
+    }
+
+    /**
+     * Cantidad de aristas por conteo de bits: cada arista abre un lado
+     * en sus dos extremos, así que es la mitad de los bits encendidos
+     */
+    @Override
+    public int getCantidadAristas() {
+        long bits = 0;
+        for (long palabra : lados) {
+            bits += Long.bitCount(palabra);
+        }
+        return (int) (bits / 2);
+    }
+
+    @Override
+    public int getCapacidadIds() {
+        return filas * columnas;
+    }
+
+    @Override
+    public boolean contieneNodo(int id) {
+        return id >= 0 && id < filas * columnas && (abiertas[id >>> 6] & (1L << id)) != 0;
+    }
+
+    @Override
+    public int getX(int id) {
+        return id / columnas;
+    }
+
+    @Override
+    public int getY(int id) {
+        return id % columnas;
+    }
+
+    @Override
+    public char getTipo(int id) {
+        if (!contieneNodo(id)) return '\0';
+        if (id == idA) return 'A';
+        return Arrays.binarySearch(salidas, id) >= 0 ? 'B' : ' ';  // salidas está ordenado
+    }
+
+    @Override
+    public int getGrado(int id) {
+        return Integer.bitCount(getLados(id));
+    }
+
+    @Override
+    public int getVecino(int id, int i) {
+        int mascara = getLados(id);
+        for (int k = 0; k < i; k++) {
+            mascara &= mascara - 1;  // Descarta el bit más bajo
+        }
+        return vecinoEn(id, Integer.lowestOneBit(mascara));
+    }
+
+    @Override
+    public void forEachNeighbor(int id, IntConsumer accion) {
+        for (int mascara = getLados(id); mascara != 0; mascara &= mascara - 1) {
+            accion.accept(vecinoEn(id, Integer.lowestOneBit(mascara)));
+        }
+    }
+
+    @Override
+    public int getIdA() {
+        return idA;
+    }
+
+    @Override
+    public int getCantidadSalidas() {
+        return salidas.length;
+    }
+
+    @Override
+    public int getIdSalida(int i) {
+        return salidas[i];
+    }
+
+    public int getFilas() {
+        return filas;
+    }
+
+    public int getColumnas() {
+        return columnas;
+    }
+
+    /**
+     * Bytes usados por la rejilla (lados + celdas transitables)
+     */
+    public long getBytesUsados() {
+        return 8L * (lados.length + abiertas.length);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("GrafoRejilla[%dx%d, %d nodos, %d aristas, %d bytes]",
+                filas, columnas, cantidadNodos, getCantidadAristas(), getBytesUsados());
+    }
+}
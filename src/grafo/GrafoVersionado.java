@@ -0,0 +1,381 @@
+package grafo;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+/**
+ * ============================================================
+ * CLASE: GrafoVersionado
+ * ============================================================
+ * Laberinto compartido entre muchos hilos lectores (solvers) y un
+ * actualizador que de vez en cuando alterna celdas.
+ *
+ * Modelo copy-on-write:
+ *   - Cada versión es una Instantanea INMUTABLE (implementa GrafoLectura)
+ *     con un número de versión creciente
+ *   - Los lectores toman la versión actual con getActual(): una lectura
+ *     atómica, sin bloqueos; la instantánea no cambia mientras la usan
+ *   - Un escritor (uno a la vez) arma la versión siguiente y la publica
+ *     de forma atómica; las búsquedas en curso siguen con la anterior
+ *
+ * Compartición estructural: la rejilla (4 bits de lados abiertos por
+ * celda, como GrafoRejilla) se divide en bloques de 1024 celdas. Una
+ * edición copia solo los bloques que toca y el arreglo de referencias;
+ * el resto de los bloques se comparte entre versiones.
+ *
+ * IDs: índice de celda (fila * columnas + col), igual que GrafoRejilla.
+ * El número de versión sirve para etiquetar resultados en caché e
+ * invalidarlos cuando la versión actual es otra.
+ */
+public class GrafoVersionado {
+    // ===== CONSTANTES =====
+    private static final int BITS_BLOQUE = 10;
+    private static final int CELDAS_POR_BLOQUE = 1 << BITS_BLOQUE;  // 1024 celdas
+    private static final int LONGS_LADOS = CELDAS_POR_BLOQUE / 16;  // 64 longs de nibbles
+    private static final int LONGS_BLOQUE = LONGS_LADOS + CELDAS_POR_BLOQUE / 64;  // + 16 de celdas abiertas
+    private static final int ARRIBA = 1;
+    private static final int IZQUIERDA = 2;
+    private static final int ABAJO = 4;
+    private static final int DERECHA = 8;
+    private static final int[] LADOS = {ARRIBA, IZQUIERDA, ABAJO, DERECHA};
+    private static final int[] OPUESTOS = {ABAJO, DERECHA, ARRIBA, IZQUIERDA};
+    private static final char PARED = '*';
+
+    // ===== ATRIBUTOS =====
+    private final AtomicReference<Instantanea> actual;  // Versión publicada
+
+    /**
+     * Versión inmutable del laberinto
+     * Cada bloque es un long[] con 64 longs de nibbles de lados seguidos
+     * de 16 longs con el bit "celda transitable".
+     */
+    public static final class Instantanea implements GrafoLectura {
+        private final long version;
+        private final int filas;
+        private final int columnas;
+        private final long[][] bloques;  // Compartidos con otras versiones: no modificar
+        private final int cantidadNodos;
+        private final int cantidadAristas;
+        private final int idA;
+        private final int[] salidas;     // Ordenado (fila-columna); compartido
+
+        private Instantanea(long version, int filas, int columnas, long[][] bloques,
+                            int cantidadNodos, int cantidadAristas, int idA, int[] salidas) {
+            this.version = version;
+            this.filas = filas;
+            this.columnas = columnas;
+            this.bloques = bloques;
+            this.cantidadNodos = cantidadNodos;
+            this.cantidadAristas = cantidadAristas;
+            this.idA = idA;
+            this.salidas = salidas;
+        }
+
+        /**
+         * Número de versión (0 = laberinto original, +1 por cada publicación)
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Nibble de lados abiertos de una celda (0 si no existe)
+         */
+        public int getLados(int id) {
+            if (!contieneNodo(id)) return 0;
+            long[] bloque = bloques[id >>> BITS_BLOQUE];
+            int local = id & (CELDAS_POR_BLOQUE - 1);
+            return (int) (bloque[local >>> 4] >>> ((local & 15) << 2)) & 0xF;
+        }
+
+        public int getIdCelda(int fila, int columna) {
+            return fila * columnas + columna;
+        }
+
+        /**
+         * Indica si el bloque es el mismo objeto en ambas versiones
+         * (permite comprobar qué partes se comparten)
+         */
+        public boolean comparteBloque(Instantanea otra, int bloque) {
+            return bloques[bloque] == otra.bloques[bloque];
+        }
+
+        public int getCantidadBloques() {
+            return bloques.length;
+        }
+
+        private int vecinoEn(int id, int lado) {
+            switch (lado) {
+                case ARRIBA:    return id - columnas;
+                case IZQUIERDA: return id - 1;
+                case ABAJO:     return id + columnas;
+                default:        return id + 1;  // DERECHA
+            }
+        }
+
+        @Override
+        public int getCantidadNodos() {
+            return cantidadNodos;
+        }
+
+        @Override
+        public int getCantidadAristas() {
+            return cantidadAristas;
+        }
+
+        @Override
+        public int getCapacidadIds() {
+            return filas * columnas;
+        }
+
+        @Override
+        public boolean contieneNodo(int id) {
+            if (id < 0 || id >= filas * columnas) return false;
+            int local = id & (CELDAS_POR_BLOQUE - 1);
+            return (bloques[id >>> BITS_BLOQUE][LONGS_LADOS + (local >>> 6)] & (1L << local)) != 0;
+        }
+
+        @Override
+        public int getX(int id) {
+            return id / columnas;
+        }
+
+        @Override
+        public int getY(int id) {
+            return id % columnas;
+        }
+
+        @Override
+        public char getTipo(int id) {
+            if (!contieneNodo(id)) return '\0';
+            if (id == idA) return 'A';
+            return Arrays.binarySearch(salidas, id) >= 0 ? 'B' : ' ';
+        }
+
+        @Override
+        public int getGrado(int id) {
+            return Integer.bitCount(getLados(id));
+        }
+
+        @Override
+        public int getVecino(int id, int i) {
+            int mascara = getLados(id);
+            for (int k = 0; k < i; k++) {
+                mascara &= mascara - 1;
+            }
+            return vecinoEn(id, Integer.lowestOneBit(mascara));
+        }
+
+        @Override
+        public void forEachNeighbor(int id, IntConsumer accion) {
+            for (int mascara = getLados(id); mascara != 0; mascara &= mascara - 1) {
+                accion.accept(vecinoEn(id, Integer.lowestOneBit(mascara)));
+            }
+        }
+
+        @Override
+        public int getIdA() {
+            return idA;
+        }
+
+        @Override
+        public int getCantidadSalidas() {
+            return salidas.length;
+        }
+
+        @Override
+        public int getIdSalida(int i) {
+            return salidas[i];
+        }
+
+        public int getFilas() {
+            return filas;
+        }
+
+        public int getColumnas() {
+            return columnas;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Instantanea[v%d, %dx%d, %d nodos, %d aristas]",
+                    version, filas, columnas, cantidadNodos, cantidadAristas);
+        }
+    }
+
+    /**
+     * Constructor: la versión 0 es el mapa dado
+     * @param mapa mapa 2D ('*' = pared), por ejemplo LaberintoParser.getMapa()
+     */
+    public GrafoVersionado(char[][] mapa) {
+        int filas = mapa.length;
+        int columnas = filas == 0 ? 0 : mapa[0].length;
+        int celdas = filas * columnas;
+        long[][] bloques = new long[(celdas + CELDAS_POR_BLOQUE - 1) >>> BITS_BLOQUE][];
+        for (int b = 0; b < bloques.length; b++) {
+            bloques[b] = new long[LONGS_BLOQUE];
+        }
+
+        int nodos = 0;
+        int bitsLados = 0;
+        int idA = -1;
+        int[] salidas = new int[16];
+        int cantidadB = 0;
+        for (int i = 0; i < filas; i++) {
+            for (int j = 0; j < columnas; j++) {
+                if (mapa[i][j] == PARED) continue;
+                int celda = i * columnas + j;
+                nodos++;
+                if (mapa[i][j] == 'A') idA = celda;
+                if (mapa[i][j] == 'B') {
+                    if (cantidadB == salidas.length) salidas = Arrays.copyOf(salidas, cantidadB * 2);
+                    salidas[cantidadB++] = celda;
+                }
+                int mascara = 0;
+                if (i > 0 && mapa[i - 1][j] != PARED) mascara |= ARRIBA;
+                if (j > 0 && mapa[i][j - 1] != PARED) mascara |= IZQUIERDA;
+                if (i + 1 < filas && mapa[i + 1][j] != PARED) mascara |= ABAJO;
+                if (j + 1 < columnas && mapa[i][j + 1] != PARED) mascara |= DERECHA;
+                bitsLados += Integer.bitCount(mascara);
+                escribirCelda(bloques[celda >>> BITS_BLOQUE], celda, mascara, true);
+            }
+        }
+        this.actual = new AtomicReference<>(new Instantanea(0, filas, columnas, bloques,
+                nodos, bitsLados / 2, idA, Arrays.copyOf(salidas, cantidadB)));
+    }
+
+    // ===== LECTURA =====
+
+    /**
+     * Versión publicada en este momento (sin bloqueos)
+     * La instantánea retornada nunca cambia; para ver ediciones
+     * posteriores hay que volver a llamar a este método.
+     */
+    public Instantanea getActual() {
+        return actual.get();
+    }
+
+    /**
+     * Número de la versión publicada
+     */
+    public long getVersion() {
+        return actual.get().version;
+    }
+
+    // ===== ESCRITURA =====
+
+    /**
+     * Alterna una celda entre pared y espacio y publica la versión nueva
+     * @return la instantánea publicada
+     * @throws IllegalArgumentException si la celda está fuera del mapa o es A/B
+     */
+    public Instantanea alternarCelda(int fila, int columna) {
+        return alternarCeldas(new int[]{fila}, new int[]{columna});
+    }
+
+    /**
+     * Alterna varias celdas y las publica juntas en UNA versión
+     * (los lectores ven todas las ediciones o ninguna)
+     * @param filas filas de las celdas
+     * @param columnas columnas de las celdas (mismo largo que filas)
+     * @return la instantánea publicada
+     * @throws IllegalArgumentException si alguna celda está fuera del mapa o es A/B
+     */
+    public synchronized Instantanea alternarCeldas(int[] filas, int[] columnas) {
+        if (filas.length != columnas.length) {
+            throw new IllegalArgumentException("filas y columnas deben tener el mismo largo");
+        }
+        Instantanea base = actual.get();  // Un solo escritor: nadie más publica mientras tanto
+        for (int k = 0; k < filas.length; k++) {
+            int f = filas[k];
+            int c = columnas[k];
+            if (f < 0 || f >= base.filas || c < 0 || c >= base.columnas) {
+                throw new IllegalArgumentException("Celda fuera del mapa: (" + f + ", " + c + ")");
+            }
+            char tipo = base.getTipo(base.getIdCelda(f, c));
+            if (tipo == 'A' || tipo == 'B') {
+                throw new IllegalArgumentException("No se pueden alternar los puntos A o B");
+            }
+        }
+
+        // Copia de las referencias; cada bloque se copia solo la primera vez que se toca
+        long[][] bloques = base.bloques.clone();
+        boolean[] copiado = new boolean[bloques.length];
+        int nodos = base.cantidadNodos;
+        int aristas = base.cantidadAristas;
+
+        for (int k = 0; k < filas.length; k++) {
+            int f = filas[k];
+            int c = columnas[k];
+            int celda = f * base.columnas + c;
+            boolean abierta = leerAbierta(bloques, celda);
+            int mascara = 0;
+            int[] vecinos = {celda - base.columnas, celda - 1, celda + base.columnas, celda + 1};
+            boolean[] existe = {f > 0, c > 0, f + 1 < base.filas, c + 1 < base.columnas};
+
+            for (int d = 0; d < 4; d++) {
+                if (!existe[d] || !leerAbierta(bloques, vecinos[d])) continue;
+                int v = vecinos[d];
+                long[] bloqueVecino = escribible(bloques, copiado, v >>> BITS_BLOQUE);
+                int ladosVecino = leerLados(bloqueVecino, v);
+                // Cerrar: el vecino pierde este lado; abrir: lo gana
+                ladosVecino = abierta ? ladosVecino & ~OPUESTOS[d] : ladosVecino | OPUESTOS[d];
+                escribirCelda(bloqueVecino, v, ladosVecino, true);
+                mascara |= LADOS[d];
+            }
+
+            long[] bloque = escribible(bloques, copiado, celda >>> BITS_BLOQUE);
+            if (abierta) {
+                escribirCelda(bloque, celda, 0, false);
+                nodos--;
+                aristas -= Integer.bitCount(mascara);
+            } else {
+                escribirCelda(bloque, celda, mascara, true);
+                nodos++;
+                aristas += Integer.bitCount(mascara);
+            }
+        }
+
+        Instantanea nueva = new Instantanea(base.version + 1, base.filas, base.columnas, bloques,
+                nodos, aristas, base.idA, base.salidas);
+        actual.set(nueva);  // Publicación atómica
+        return nueva;
+    }
+
+    // ===== BLOQUES =====
+
+    /**
+     * Bloque propio de la edición en curso (lo copia la primera vez)
+     */
+    private static long[] escribible(long[][] bloques, boolean[] copiado, int b) {
+        if (!copiado[b]) {
+            bloques[b] = bloques[b].clone();
+            copiado[b] = true;
+        }
+        return bloques[b];
+    }
+
+    private static boolean leerAbierta(long[][] bloques, int celda) {
+        int local = celda & (CELDAS_POR_BLOQUE - 1);
+        return (bloques[celda >>> BITS_BLOQUE][LONGS_LADOS + (local >>> 6)] & (1L << local)) != 0;
+    }
+
+    private static int leerLados(long[] bloque, int celda) {
+        int local = celda & (CELDAS_POR_BLOQUE - 1);
+        return (int) (bloque[local >>> 4] >>> ((local & 15) << 2)) & 0xF;
+    }
+
+    /**
+     * Escribe el nibble de lados y el bit de celda transitable
+     */
+    private static void escribirCelda(long[] bloque, int celda, int lados, boolean abierta) {
+        int local = celda & (CELDAS_POR_BLOQUE - 1);
+        int desplazamiento = (local & 15) << 2;
+        bloque[local >>> 4] = (bloque[local >>> 4] & ~(0xFL << desplazamiento))
+                | ((long) lados << desplazamiento);
+        long bit = 1L << local;
+        int palabra = LONGS_LADOS + (local >>> 6);
+        bloque[palabra] = abierta ? bloque[palabra] | bit : bloque[palabra] & ~bit;
+    }
+}
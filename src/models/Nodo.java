@@ -1,7 +1,5 @@
 package models;
 
-import java.util.Objects;
-
 /**
  * ============================================================\n * CLASE: Nodo
  * ============================================================\n * Representa un nodo en el grafo del laberinto.
@@ -13,6 +11,9 @@ import java.util.Objects;
  *   - 'B': punto de destino del laberinto
  * 
  * Cada nodo tiene una posición (x, y) y un identificador único.
+ * 
+ * Grafo guarda estos datos en arreglos primitivos; los Nodo que entrega
+ * son vistas livianas creadas bajo demanda (compatibilidad de API).
  */
 public class Nodo {
     // ===== ATRIBUTOS =====
@@ -76,10 +77,11 @@ public class Nodo {
     /**
      * Calcula el código hash del nodo basado en su posición
      * Necesario para usar el nodo en HashSet o HashMap
+     * (aritmética directa: Objects.hash crearía un arreglo y boxing)
      */
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        return 31 * x + y;
     }
 
     /**
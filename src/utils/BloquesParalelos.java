@@ -0,0 +1,74 @@
+package utils;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * ============================================================
+ * CLASE: BloquesParalelos
+ * ============================================================
+ * Reparte un rango [0, total) de filas (o palabras, o bandas) en un
+ * ForkJoinPool: la tarea se divide en mitades hasta llegar al tamaño
+ * mínimo y cada hoja aplica la operación a su rango. Cada hoja escribe
+ * solo su rango, así que no hace falta sincronización.
+ *
+ * Compartida por MotorMatricial y RenderizadorPng.
+ */
+final class BloquesParalelos {
+
+    /**
+     * Operación sobre un rango [desde, hasta)
+     */
+    interface OperacionBloque {
+        void aplicar(int desde, int hasta);
+    }
+
+    private BloquesParalelos() {
+    }
+
+    /**
+     * Ejecuta la operación sobre [0, total): directo si es chico, si no
+     * repartido en el pool
+     * @param pool pool donde se reparten los bloques
+     * @param total tamaño del rango
+     * @param minimo tamaño de una tarea hoja
+     * @param operacion trabajo de cada bloque
+     */
+    static void enParalelo(ForkJoinPool pool, int total, int minimo, OperacionBloque operacion) {
+        if (total <= minimo) {
+            operacion.aplicar(0, total);
+        } else {
+            pool.invoke(new TareaBloque(0, total, minimo, operacion));
+        }
+    }
+
+    /**
+     * Divide el rango en mitades hasta llegar al tamaño mínimo
+     */
+    private static final class TareaBloque extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int desde;
+        private final int hasta;
+        private final int minimo;
+        private final transient OperacionBloque operacion;
+
+        TareaBloque(int desde, int hasta, int minimo, OperacionBloque operacion) {
+            this.desde = desde;
+            this.hasta = hasta;
+            this.minimo = minimo;
+            this.operacion = operacion;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= minimo) {
+                operacion.aplicar(desde, hasta);
+                return;
+            }
+            int medio = (desde + hasta) >>> 1;
+            invokeAll(new TareaBloque(desde, medio, minimo, operacion),
+                      new TareaBloque(medio, hasta, minimo, operacion));
+        }
+    }
+}
@@ -0,0 +1,506 @@
+package utils;
+
+import grafo.GrafoOffHeap;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.function.IntUnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * ============================================================
+ * CLASE: CacheGrafos
+ * ============================================================
+ * Caché en disco de grafos ya construidos y de sus índices derivados,
+ * para no volver a construir laberintos que no cambiaron.
+ *
+ * Clave: SHA-256 del CONTENIDO del archivo (no de su ruta ni su fecha).
+ * Por cada clave se guardan dos archivos en el directorio de caché:
+ *   - <clave>.v<N>.grafo:   el grafo en el formato de GrafoOffHeap
+ *   - <clave>.v<N>.indices: índices derivados (ver Entrada)
+ *
+ * Acierto: ambos archivos se mapean en memoria (solo lectura), sin
+ * leer ni reconstruir nada. Fallo: se construyen en archivos temporales
+ * con nombre único (<archivo>.<n>.tmp) y se renombran al final, de modo
+ * que un proceso interrumpido nunca deja una entrada a medias y dos
+ * procesos que construyen la misma clave no se pisan los temporales.
+ * Si otro proceso publicó la entrada mientras tanto, se usa la suya.
+ *
+ * Versionado: N (VERSION) se incluye en el nombre y en la cabecera;
+ * al cambiar el formato, las entradas viejas dejan de usarse y se borran.
+ * Desalojo: si el directorio supera el tamaño máximo se borran las
+ * entradas menos usadas recientemente (fecha de modificación, que se
+ * actualiza en cada acierto). También se borran los temporales que dejó
+ * un proceso interrumpido.
+ *
+ * El directorio puede ser compartido: la caché solo borra archivos con
+ * sus propios nombres (<64 hex>.v<N>.grafo|indices, con o sin .<n>.tmp),
+ * nunca otros archivos del usuario.
+ */
+public class CacheGrafos {
+    // ===== CONSTANTES =====
+    private static final int VERSION = 3;                   // 3: distancia a la salida y landmarks
+    private static final int MAGICO_INDICES = 0x4C414249;   // "LABI"
+    private static final int TAMANO_CABECERA = 64;
+    private static final int MAX_LANDMARKS = 8;             // Caben en la cabecera
+    private static final int LANDMARKS = 4;                 // Landmarks elegidos por laberinto
+    private static final long TAMANO_MAXIMO_POR_DEFECTO = 512L * 1024 * 1024;
+    private static final long EDAD_TEMPORAL_ABANDONADO_MS = 60L * 60 * 1000;  // Otro proceso podría estar escribiéndolo
+    private static final String EXT_GRAFO = ".v" + VERSION + ".grafo";
+    private static final String EXT_INDICES = ".v" + VERSION + ".indices";
+    private static final Pattern NOMBRE_CACHE =
+            Pattern.compile("^([0-9a-f]{64})\\.v(\\d+)\\.(grafo|indices)(\\.(?:\\d+\\.)?tmp)?$");
+
+    // ===== ATRIBUTOS =====
+    private Path directorio;
+    private long tamanoMaximo;    // Bytes máximos del directorio antes de desalojar
+
+    /**
+     * Entrada de la caché: grafo mapeado e índices derivados
+     *   - cantidadComponentes: componentes conexas del grafo (en la cabecera)
+     *   - distanciaASalida:    pasos hasta la B más cercana (-1 si ninguna)
+     *   - landmarks:           distancias desde K nodos elegidos por punto
+     *                          más lejano; dan cotas inferiores (ALT) para A*
+     */
+    public static class Entrada {
+        private final String clave;
+        private final boolean acierto;
+        private final GrafoOffHeap grafo;
+        private final int cantidadComponentes;
+        private final int[] landmarks;
+        private final IntBuffer distanciaASalida;
+        private final IntBuffer[] distanciaLandmark;
+
+        private Entrada(String clave, boolean acierto, GrafoOffHeap grafo, int cantidadComponentes,
+                        int[] landmarks, IntBuffer distanciaASalida, IntBuffer[] distanciaLandmark) {
+            this.clave = clave;
+            this.acierto = acierto;
+            this.grafo = grafo;
+            this.cantidadComponentes = cantidadComponentes;
+            this.landmarks = landmarks;
+            this.distanciaASalida = distanciaASalida;
+            this.distanciaLandmark = distanciaLandmark;
+        }
+
+        /**
+         * Hash SHA-256 (hexadecimal) del contenido del laberinto
+         */
+        public String getClave() {
+            return clave;
+        }
+
+        /**
+         * true si la entrada ya existía y solo se mapeó
+         */
+        public boolean isAcierto() {
+            return acierto;
+        }
+
+        public GrafoOffHeap getGrafo() {
+            return grafo;
+        }
+
+        public int getCantidadComponentes() {
+            return cantidadComponentes;
+        }
+
+        public int getDistanciaASalida(int id) {
+            return distanciaASalida.get(id);
+        }
+
+        public int getCantidadLandmarks() {
+            return landmarks.length;
+        }
+
+        public int getLandmark(int i) {
+            return landmarks[i];
+        }
+
+        /**
+         * Cota inferior (ALT) de la distancia de cada nodo al destino más
+         * cercano, por desigualdad triangular con cada landmark L:
+         *   d(u, T) >= d(L, u) - max d(L, t)   y   d(u, T) >= min d(L, t) - d(L, u)
+         * Cada término cambia a lo sumo 1 por arista: la cota es consistente
+         * y se puede combinar con max() con otra heurística consistente.
+         * Los IDs son los del grafo de la entrada (no valen tras editarlo).
+         * @param destinos IDs de los destinos (por ejemplo, las salidas)
+         * @return función ID -> cota (0 si ningún landmark la acota)
+         */
+        public IntUnaryOperator cotaInferior(Collection<Integer> destinos) {
+            int k = distanciaLandmark.length;
+            int[] minimo = new int[k];  // Por landmark: min y max de d(L, t) sobre destinos alcanzables
+            int[] maximo = new int[k];
+            Arrays.fill(minimo, Integer.MAX_VALUE);
+            Arrays.fill(maximo, -1);
+            for (int t : destinos) {
+                for (int l = 0; l < k; l++) {
+                    int d = distanciaLandmark[l].get(t);
+                    if (d < 0) continue;  // Otra componente
+                    minimo[l] = Math.min(minimo[l], d);
+                    maximo[l] = Math.max(maximo[l], d);
+                }
+            }
+            return id -> {
+                int cota = 0;
+                for (int l = 0; l < k; l++) {
+                    int d = distanciaLandmark[l].get(id);
+                    if (d < 0 || maximo[l] < 0) continue;  // El landmark no acota este nodo
+                    cota = Math.max(cota, Math.max(d - maximo[l], minimo[l] - d));
+                }
+                return cota;
+            };
+        }
+    }
+
+    /**
+     * Constructor con el directorio por defecto (~/.laberinto/cache, 512 MB)
+     */
+    public CacheGrafos() {
+        this(Paths.get(System.getProperty("user.home"), ".laberinto", "cache"), TAMANO_MAXIMO_POR_DEFECTO);
+    }
+
+    /**
+     * Constructor
+     * @param directorio directorio de la caché (se crea si no existe)
+     * @param tamanoMaximo bytes máximos antes de desalojar entradas
+     */
+    public CacheGrafos(Path directorio, long tamanoMaximo) {
+        this.directorio = directorio;
+        this.tamanoMaximo = tamanoMaximo;
+    }
+
+    /**
+     * Obtiene el grafo y los índices de un laberinto, mapeándolos desde
+     * la caché si el contenido ya se procesó antes
+     * @param laberinto archivo .txt del laberinto
+     * @return la entrada (acierto o recién creada)
+     * @throws IOException si no se puede leer el laberinto, no es válido
+     *                     o no se puede escribir en el directorio de caché
+     */
+    public Entrada obtener(Path laberinto) throws IOException {
+        String clave = calcularClave(laberinto);
+        Files.createDirectories(directorio);
+        Path archivoGrafo = directorio.resolve(clave + EXT_GRAFO);
+        Path archivoIndices = directorio.resolve(clave + EXT_INDICES);
+
+        // ===== ACIERTO: MAPEAR =====
+        if (Files.exists(archivoGrafo) && Files.exists(archivoIndices)) {
+            try {
+                Entrada entrada = mapear(clave, true, GrafoOffHeap.abrir(archivoGrafo), archivoIndices);
+                FileTime ahora = FileTime.fromMillis(System.currentTimeMillis());
+                Files.setLastModifiedTime(archivoGrafo, ahora);    // Uso reciente (LRU)
+                Files.setLastModifiedTime(archivoIndices, ahora);
+                return entrada;
+            } catch (IOException e) {
+                // Entrada dañada o incompleta: se reconstruye
+                Files.deleteIfExists(archivoGrafo);
+                Files.deleteIfExists(archivoIndices);
+            }
+        }
+
+        // ===== FALLO: CONSTRUIR EN TEMPORALES PROPIOS Y RENOMBRAR =====
+        // Nombres únicos: otro proceso puede estar construyendo la misma clave
+        Path temporalGrafo = Files.createTempFile(directorio, clave + EXT_GRAFO + ".", ".tmp");
+        Path temporalIndices = null;
+        boolean publicada;
+        try {
+            temporalIndices = Files.createTempFile(directorio, clave + EXT_INDICES + ".", ".tmp");
+            GrafoOffHeap construido = GrafoOffHeap.desdeLaberinto(laberinto.toString(), temporalGrafo);
+            escribirIndices(construido, temporalIndices);
+            // El contenido es el mismo en ambos procesos: si el otro ya publicó, gana el suyo
+            // (se intentan los dos archivos, por eso & y no &&)
+            publicada = publicar(temporalGrafo, archivoGrafo) & publicar(temporalIndices, archivoIndices);
+        } finally {
+            Files.deleteIfExists(temporalGrafo);  // Solo los temporales de esta llamada
+            if (temporalIndices != null) Files.deleteIfExists(temporalIndices);
+        }
+        desalojar(clave);
+        // Carrera perdida: la entrada la publicó otro proceso y se usa como acierto
+        return mapear(clave, !publicada, GrafoOffHeap.abrir(archivoGrafo), archivoIndices);
+    }
+
+    /**
+     * Borra todas las entradas de la caché (solo archivos con nombre de
+     * la caché; el resto del directorio no se toca)
+     */
+    public void limpiar() throws IOException {
+        if (!Files.isDirectory(directorio)) return;
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio)) {
+            for (Path archivo : archivos) {
+                if (NOMBRE_CACHE.matcher(archivo.getFileName().toString()).matches()) {
+                    Files.deleteIfExists(archivo);
+                }
+            }
+        }
+    }
+
+    public Path getDirectorio() {
+        return directorio;
+    }
+
+    // ===== CLAVE =====
+
+    /**
+     * SHA-256 del contenido, leído por bloques (sin cargar el archivo entero)
+     */
+    private static String calcularClave(Path laberinto) throws IOException {
+        MessageDigest sha;
+        try {
+            sha = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);  // Garantizado por la JVM
+        }
+        byte[] bloque = new byte[64 * 1024];
+        try (InputStream entrada = Files.newInputStream(laberinto)) {
+            int leidos;
+            while ((leidos = entrada.read(bloque)) != -1) {
+                sha.update(bloque, 0, leidos);
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : sha.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    // ===== ÍNDICES =====
+
+    /**
+     * Calcula los índices sobre el grafo y los escribe en un archivo mapeado
+     * Formato: cabecera (mágico, versión, N, componentes, K, landmarks)
+     * y luego 1 + K regiones de N enteros (distancia a la salida y una
+     * por landmark).
+     */
+    private static void escribirIndices(GrafoOffHeap grafo, Path archivo) throws IOException {
+        int n = grafo.getCantidadNodos();
+        int k = Math.min(LANDMARKS, n);
+        int[] cola = new int[Math.max(1, n)];  // Cola de trabajo compartida por los BFS
+
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            IntBuffer[] regiones = new IntBuffer[1 + k];
+            MappedByteBuffer[] mapeos = new MappedByteBuffer[regiones.length + 1];
+            mapeos[0] = canal.map(FileChannel.MapMode.READ_WRITE, 0, TAMANO_CABECERA);
+            for (int r = 0; r < regiones.length; r++) {
+                mapeos[r + 1] = canal.map(FileChannel.MapMode.READ_WRITE,
+                        TAMANO_CABECERA + 4L * n * r, 4L * n);
+                regiones[r] = mapeos[r + 1].order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            }
+
+            // Componentes conexas (solo la cantidad)
+            BitSet visitados = new BitSet(n);
+            int componentes = 0;
+            for (int id = visitados.nextClearBit(0); id < n; id = visitados.nextClearBit(id + 1)) {
+                visitados.set(id);
+                int cabeza = 0;
+                int fin = 0;
+                cola[fin++] = id;
+                while (cabeza < fin) {
+                    int u = cola[cabeza++];
+                    for (int i = 0, grado = grafo.getGrado(u); i < grado; i++) {
+                        int v = grafo.getVecino(u, i);
+                        if (!visitados.get(v)) {
+                            visitados.set(v);
+                            cola[fin++] = v;
+                        }
+                    }
+                }
+                componentes++;
+            }
+
+            // Campo de distancia hacia la salida más cercana
+            int[] fuentesB = new int[grafo.getCantidadSalidas()];
+            for (int i = 0; i < fuentesB.length; i++) fuentesB[i] = grafo.getIdSalida(i);
+            bfs(grafo, fuentesB, regiones[0], cola);
+
+            // Landmarks por punto más lejano: el primero es el más lejano a A
+            // (su región sirve antes para las distancias desde A), cada
+            // siguiente maximiza la distancia mínima a los ya elegidos
+            int[] landmarks = new int[k];
+            int[] minima = new int[n];
+            Arrays.fill(minima, Integer.MAX_VALUE);
+            if (k > 0) {
+                int[] fuenteA = grafo.getIdA() == -1 ? new int[]{0} : new int[]{grafo.getIdA()};
+                bfs(grafo, fuenteA, regiones[1], cola);
+            }
+            for (int l = 0; l < k; l++) {
+                int elegido = 0;
+                int mejor = -1;
+                for (int id = 0; id < n; id++) {
+                    int d = l == 0 ? regiones[1].get(id) : minima[id];
+                    if (d != Integer.MAX_VALUE && d > mejor) {
+                        mejor = d;
+                        elegido = id;
+                    }
+                }
+                landmarks[l] = elegido;
+                IntBuffer distancias = regiones[1 + l];
+                bfs(grafo, new int[]{elegido}, distancias, cola);
+                for (int id = 0; id < n; id++) {
+                    int d = distancias.get(id);
+                    if (d >= 0) minima[id] = Math.min(minima[id], d);
+                }
+            }
+
+            ByteBuffer cabecera = mapeos[0].order(ByteOrder.LITTLE_ENDIAN);
+            cabecera.putInt(0, MAGICO_INDICES);
+            cabecera.putInt(4, VERSION);
+            cabecera.putInt(8, n);
+            cabecera.putInt(12, componentes);
+            cabecera.putInt(16, k);
+            for (int l = 0; l < k; l++) {
+                cabecera.putInt(20 + 4 * l, landmarks[l]);
+            }
+            for (MappedByteBuffer mapeo : mapeos) {
+                mapeo.force();
+            }
+        }
+    }
+
+    /**
+     * BFS multi-fuente que escribe la distancia de cada nodo (-1 = inalcanzable)
+     */
+    private static void bfs(GrafoOffHeap grafo, int[] fuentes, IntBuffer distancia, int[] cola) {
+        int n = grafo.getCantidadNodos();
+        for (int id = 0; id < n; id++) distancia.put(id, -1);
+        int cabeza = 0;
+        int fin = 0;
+        for (int f : fuentes) {
+            if (distancia.get(f) == -1) {
+                distancia.put(f, 0);
+                cola[fin++] = f;
+            }
+        }
+        while (cabeza < fin) {
+            int u = cola[cabeza++];
+            int siguiente = distancia.get(u) + 1;
+            for (int i = 0, grado = grafo.getGrado(u); i < grado; i++) {
+                int v = grafo.getVecino(u, i);
+                if (distancia.get(v) == -1) {
+                    distancia.put(v, siguiente);
+                    cola[fin++] = v;
+                }
+            }
+        }
+    }
+
+    /**
+     * Mapea en solo lectura el archivo de índices y arma la entrada
+     */
+    private static Entrada mapear(String clave, boolean acierto, GrafoOffHeap grafo, Path archivo)
+            throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            if (canal.size() < TAMANO_CABECERA) {
+                throw new IOException("Índices inválidos: " + archivo);
+            }
+            ByteBuffer cabecera = canal.map(FileChannel.MapMode.READ_ONLY, 0, TAMANO_CABECERA)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            int n = cabecera.getInt(8);
+            int k = cabecera.getInt(16);
+            if (cabecera.getInt(0) != MAGICO_INDICES || cabecera.getInt(4) != VERSION
+                    || n != grafo.getCantidadNodos() || k < 0 || k > MAX_LANDMARKS
+                    || canal.size() < TAMANO_CABECERA + 4L * n * (1 + k)) {
+                throw new IOException("Índices inválidos o de otra versión: " + archivo);
+            }
+            int[] landmarks = new int[k];
+            for (int l = 0; l < k; l++) {
+                landmarks[l] = cabecera.getInt(20 + 4 * l);
+            }
+            IntBuffer[] regiones = new IntBuffer[1 + k];
+            for (int r = 0; r < regiones.length; r++) {
+                regiones[r] = canal.map(FileChannel.MapMode.READ_ONLY, TAMANO_CABECERA + 4L * n * r, 4L * n)
+                        .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            }
+            return new Entrada(clave, acierto, grafo, cabecera.getInt(12), landmarks,
+                    regiones[0], Arrays.copyOfRange(regiones, 1, regiones.length));
+        }
+    }
+
+    // ===== MANTENIMIENTO =====
+
+    /**
+     * Renombra un temporal a su nombre final, salvo que otro proceso ya lo
+     * haya publicado (su contenido es el mismo: la clave es el hash)
+     * @return true si se publicó este temporal, false si ya existía el final
+     */
+    private static boolean publicar(Path temporal, Path destino) throws IOException {
+        if (Files.exists(destino)) return false;
+        try {
+            mover(temporal, destino);
+            return true;
+        } catch (IOException e) {
+            // Por ejemplo, el destino apareció entre la comprobación y el renombre
+            if (Files.exists(destino)) return false;
+            throw e;
+        }
+    }
+
+    private static void mover(Path origen, Path destino) throws IOException {
+        try {
+            Files.move(origen, destino, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(origen, destino);
+        }
+    }
+
+    /**
+     * Borra archivos de otras versiones, temporales abandonados y, si el
+     * directorio supera el máximo, las entradas usadas hace más tiempo
+     * (nunca la clave actual). Los archivos que no tienen nombre de la
+     * caché no se tocan ni cuentan para el tamaño.
+     */
+    private void desalojar(String claveActual) throws IOException {
+        Map<Path, Long> tamanos = new HashMap<>();
+        Map<String, FileTime> fechas = new HashMap<>();  // Por clave: la fecha más reciente de sus archivos
+        long total = 0;
+        long limiteTemporales = System.currentTimeMillis() - EDAD_TEMPORAL_ABANDONADO_MS;
+        try (DirectoryStream<Path> contenido = Files.newDirectoryStream(directorio)) {
+            for (Path archivo : contenido) {
+                Matcher nombre = NOMBRE_CACHE.matcher(archivo.getFileName().toString());
+                if (!nombre.matches()) continue;  // No es de la caché
+                try {
+                    if (nombre.group(4) != null) {
+                        // Temporal: solo si es viejo (uno reciente puede ser de otro proceso)
+                        if (Files.getLastModifiedTime(archivo).toMillis() < limiteTemporales) {
+                            Files.deleteIfExists(archivo);
+                        }
+                        continue;
+                    }
+                    if (!nombre.group(2).equals(String.valueOf(VERSION))) {
+                        Files.deleteIfExists(archivo);  // Otra versión
+                        continue;
+                    }
+                    long tamano = Files.size(archivo);
+                    fechas.merge(nombre.group(1), Files.getLastModifiedTime(archivo),
+                            (x, y) -> x.compareTo(y) >= 0 ? x : y);
+                    tamanos.put(archivo, tamano);
+                    total += tamano;
+                } catch (NoSuchFileException e) {
+                    // Otro proceso lo renombró o lo borró entre el listado y la lectura
+                }
+            }
+        }
+        if (total <= tamanoMaximo) return;
+
+        // Se desaloja por entrada completa (grafo + índices), la menos reciente primero
+        List<String> claves = new ArrayList<>(fechas.keySet());
+        claves.sort(Comparator.comparing(fechas::get));
+        for (String clave : claves) {
+            if (total <= tamanoMaximo) break;
+            if (clave.equals(claveActual)) continue;
+            for (Path archivo : new Path[]{directorio.resolve(clave + EXT_GRAFO), directorio.resolve(clave + EXT_INDICES)}) {
+                Long tamano = tamanos.get(archivo);
+                if (tamano != null && Files.deleteIfExists(archivo)) {
+                    total -= tamano;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+/**
+ * ============================================================
+ * CLASE: ExportadorMatrices
+ * ============================================================
+ * Exporta matrices dispersas (MatrizDispersa) a archivo, en streaming:
+ * nunca se arma la matriz completa ni un String por celda.
+ *
+ * Formatos:
+ *   - Matrix Market (coordenadas, patrón): una línea "fila columna"
+ *     por cada 1 (índices desde 1). Tamaño proporcional a los unos.
+ *   - CSV denso: una línea por fila con todos los 0/1 separados por
+ *     comas; se genera fila por fila recorriendo los unos en orden.
+ *
+ * Escritura: los bytes se acumulan en un ByteBuffer directo que se
+ * vuelca al FileChannel cuando se llena; los enteros se convierten a
+ * dígitos a mano (sin String.format ni Integer.toString).
+ * Una instancia reutiliza su buffer: no es segura entre hilos.
+ */
+public class ExportadorMatrices {
+    // ===== CONSTANTES =====
+    private static final int TAMANO_BUFFER = 1 << 16;  // 64 KB por escritura
+    private static final int MAX_DIGITOS = 11;         // "-2147483648"
+
+    // ===== ATRIBUTOS =====
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANO_BUFFER);
+    private final byte[] digitos = new byte[MAX_DIGITOS];
+    private FileChannel canal;      // Canal del archivo en curso
+    private long bytesEscritos;
+
+    /**
+     * Exporta en formato Matrix Market de coordenadas (pattern general)
+     * @param matriz la matriz a exportar
+     * @param ruta archivo de salida (se sobrescribe)
+     * @param comentario línea de comentario opcional (null = ninguna)
+     * @return bytes escritos
+     * @throws IOException si no se puede escribir el archivo
+     */
+    public long exportarMatrixMarket(MatrizDispersa matriz, Path ruta, String comentario) throws IOException {
+        abrir(ruta);
+        try {
+            escribirTexto("%%MatrixMarket matrix coordinate pattern general\n");
+            if (comentario != null) {
+                escribirTexto("% " + comentario + "\n");
+            }
+            escribirEntero(matriz.getFilas());
+            escribirByte(' ');
+            escribirEntero(matriz.getColumnas());
+            escribirByte(' ');
+            escribirEntero(matriz.getNoCeros());
+            escribirByte('\n');
+
+            // Una línea por cada 1: "fila columna" (base 1)
+            for (int i = 0; i < matriz.getFilas(); i++) {
+                for (int k = 0, unos = matriz.getCantidadEnFila(i); k < unos; k++) {
+                    escribirEntero(i + 1);
+                    escribirByte(' ');
+                    escribirEntero(matriz.getColumnaEnFila(i, k) + 1);
+                    escribirByte('\n');
+                }
+            }
+            return cerrar();
+        } finally {
+            cerrarCanal();
+        }
+    }
+
+    /**
+     * Exporta como CSV denso, fila por fila, sin materializar la matriz
+     * @param matriz la matriz a exportar
+     * @param ruta archivo de salida (se sobrescribe)
+     * @return bytes escritos
+     * @throws IOException si no se puede escribir el archivo
+     */
+    public long exportarCsv(MatrizDispersa matriz, Path ruta) throws IOException {
+        abrir(ruta);
+        try {
+            int columnas = matriz.getColumnas();
+            for (int i = 0; i < matriz.getFilas(); i++) {
+                int k = 0;  // Próximo uno de la fila (columnas ordenadas)
+                int unos = matriz.getCantidadEnFila(i);
+                int siguienteUno = unos > 0 ? matriz.getColumnaEnFila(i, 0) : -1;
+                for (int j = 0; j < columnas; j++) {
+                    if (j == siguienteUno) {
+                        escribirByte('1');
+                        k++;
+                        siguienteUno = k < unos ? matriz.getColumnaEnFila(i, k) : -1;
+                    } else {
+                        escribirByte('0');
+                    }
+                    escribirByte(j + 1 < columnas ? ',' : '\n');
+                }
+                if (columnas == 0) escribirByte('\n');
+            }
+            return cerrar();
+        } finally {
+            cerrarCanal();
+        }
+    }
+
+    // ===== ESCRITURA CON BUFFER =====
+
+    private void abrir(Path ruta) throws IOException {
+        canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.clear();
+        bytesEscritos = 0;
+    }
+
+    /**
+     * Vuelca lo pendiente y retorna el total escrito
+     */
+    private long cerrar() throws IOException {
+        vaciar();
+        return bytesEscritos;
+    }
+
+    private void cerrarCanal() throws IOException {
+        if (canal != null) {
+            canal.close();
+            canal = null;
+        }
+    }
+
+    /**
+     * Escribe el contenido del buffer en el canal y lo deja vacío
+     */
+    private void vaciar() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytesEscritos += canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void escribirByte(char c) throws IOException {
+        if (!buffer.hasRemaining()) vaciar();
+        buffer.put((byte) c);
+    }
+
+    /**
+     * Escribe los dígitos decimales del entero (conversión manual)
+     */
+    private void escribirEntero(int valor) throws IOException {
+        if (buffer.remaining() < MAX_DIGITOS) vaciar();
+        if (valor == Integer.MIN_VALUE) {
+            escribirTexto("-2147483648");
+            return;
+        }
+        if (valor < 0) {
+            buffer.put((byte) '-');
+            valor = -valor;
+        }
+        int n = 0;
+        do {
+            digitos[n++] = (byte) ('0' + valor % 10);  // Del menos significativo al más
+            valor /= 10;
+        } while (valor != 0);
+        while (n > 0) {
+            buffer.put(digitos[--n]);
+        }
+    }
+
+    /**
+     * Texto corto (cabeceras y comentarios), codificado en UTF-8
+     */
+    private void escribirTexto(String texto) throws IOException {
+        byte[] codificado = texto.getBytes(StandardCharsets.UTF_8);
+        for (int desde = 0; desde < codificado.length; ) {
+            if (!buffer.hasRemaining()) vaciar();
+            int n = Math.min(codificado.length - desde, buffer.remaining());
+            buffer.put(codificado, desde, n);
+            desde += n;
+        }
+    }
+}
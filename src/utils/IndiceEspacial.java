@@ -0,0 +1,135 @@
+package utils;
+
+import grafo.GrafoLectura;
+import java.util.*;
+
+/**
+ * ============================================================
+ * CLASE: IndiceEspacial
+ * ============================================================
+ * Índice de rejilla (cubetas) sobre un conjunto de nodos del grafo,
+ * pensado para responder rápido "¿a qué distancia Manhattan está el
+ * punto más cercano del conjunto?".
+ *
+ * Funcionamiento:
+ *   - El plano se divide en cubetas cuadradas de lado fijo
+ *   - Cada cubeta guarda las coordenadas de los puntos que caen en ella
+ *   - Una consulta revisa anillos de cubetas alrededor de la posición,
+ *     del más cercano al más lejano, y se detiene cuando ningún anillo
+ *     restante puede mejorar la mejor distancia encontrada
+ *
+ * Se usa como heurística de A* con varios destinos: el mínimo de
+ * distancias Manhattan sigue siendo admisible y consistente.
+ */
+public class IndiceEspacial {
+    // ===== ATRIBUTOS =====
+    private int tamanoCubeta;     // Lado de cada cubeta (en celdas)
+    private int minX;             // Origen de la rejilla de cubetas
+    private int minY;
+    private int cubetasX;         // Cantidad de cubetas por eje
+    private int cubetasY;
+    private int[][] cubetas;      // Por cubeta: coordenadas intercaladas x0,y0,x1,y1,...
+    private int cantidadPuntos;   // Puntos indexados
+
+    /**
+     * Constructor: indexa los nodos indicados
+     * El lado de cubeta se elige para que haya ~1 punto por cubeta
+     * @param grafo grafo al que pertenecen los nodos
+     * @param ids IDs de los nodos a indexar (ej: las salidas B)
+     */
+    public IndiceEspacial(GrafoLectura grafo, Collection<Integer> ids) {
+        List<Integer> puntos = new ArrayList<>();
+        for (Integer id : ids) {
+            if (grafo.contieneNodo(id)) puntos.add(id);
+        }
+        this.cantidadPuntos = puntos.size();
+        if (puntos.isEmpty()) {
+            this.cubetas = new int[0][];
+            return;
+        }
+
+        // ===== LÍMITES DEL CONJUNTO =====
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        minX = Integer.MAX_VALUE;
+        minY = Integer.MAX_VALUE;
+        for (int id : puntos) {
+            minX = Math.min(minX, grafo.getX(id));
+            minY = Math.min(minY, grafo.getY(id));
+            maxX = Math.max(maxX, grafo.getX(id));
+            maxY = Math.max(maxY, grafo.getY(id));
+        }
+        long area = (long) (maxX - minX + 1) * (maxY - minY + 1);
+        this.tamanoCubeta = Math.max(1, (int) Math.sqrt((double) area / puntos.size()));
+        this.cubetasX = (maxX - minX) / tamanoCubeta + 1;
+        this.cubetasY = (maxY - minY) / tamanoCubeta + 1;
+
+        // ===== REPARTO EN CUBETAS (conteo y luego llenado) =====
+        int[] conteo = new int[cubetasX * cubetasY];
+        for (int id : puntos) {
+            conteo[indiceCubeta(grafo.getX(id), grafo.getY(id))]++;
+        }
+        this.cubetas = new int[conteo.length][];
+        for (int c = 0; c < conteo.length; c++) {
+            cubetas[c] = new int[conteo[c] * 2];
+            conteo[c] = 0;  // Se reutiliza como posición de escritura
+        }
+        for (int id : puntos) {
+            int c = indiceCubeta(grafo.getX(id), grafo.getY(id));
+            cubetas[c][conteo[c]++] = grafo.getX(id);
+            cubetas[c][conteo[c]++] = grafo.getY(id);
+        }
+    }
+
+    /**
+     * Distancia Manhattan desde (x, y) al punto indexado más cercano
+     * @return la distancia mínima, o Integer.MAX_VALUE si el índice está vacío
+     */
+    public int distanciaMinima(int x, int y) {
+        if (cantidadPuntos == 0) {
+            return Integer.MAX_VALUE;
+        }
+
+        // Cubeta de la consulta (acotada a la rejilla si el punto está fuera)
+        int bx = Math.max(0, Math.min(cubetasX - 1, Math.floorDiv(x - minX, tamanoCubeta)));
+        int by = Math.max(0, Math.min(cubetasY - 1, Math.floorDiv(y - minY, tamanoCubeta)));
+        int maxAnillo = Math.max(cubetasX, cubetasY);
+        int mejor = Integer.MAX_VALUE;
+
+        for (int r = 0; r <= maxAnillo; r++) {
+            // Todo punto del anillo r está al menos a (r-1)*lado en algún eje
+            if (r > 0 && mejor <= (long) (r - 1) * tamanoCubeta) {
+                break;
+            }
+            for (int cx = bx - r; cx <= bx + r; cx++) {
+                if (cx < 0 || cx >= cubetasX) continue;
+                // Solo el borde del anillo: filas extremas completas, resto solo columnas extremas
+                boolean borde = cx == bx - r || cx == bx + r;
+                int paso = borde ? 1 : Math.max(1, 2 * r);
+                for (int cy = by - r; cy <= by + r; cy += paso) {
+                    if (cy < 0 || cy >= cubetasY) continue;
+                    int[] cubeta = cubetas[cx * cubetasY + cy];
+                    for (int k = 0; k < cubeta.length; k += 2) {
+                        int d = Math.abs(cubeta[k] - x) + Math.abs(cubeta[k + 1] - y);
+                        if (d < mejor) mejor = d;
+                    }
+                }
+            }
+        }
+        return mejor;
+    }
+
+    /**
+     * Retorna la cantidad de puntos indexados
+     */
+    public int getCantidadPuntos() {
+        return cantidadPuntos;
+    }
+
+    /**
+     * Cubeta (índice lineal) que contiene la coordenada indexada (x, y)
+     */
+    private int indiceCubeta(int x, int y) {
+        return ((x - minX) / tamanoCubeta) * cubetasY + (y - minY) / tamanoCubeta;
+    }
+}
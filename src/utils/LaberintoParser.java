@@ -1,7 +1,10 @@
 package utils;
 
 import models.Nodo;
+import grafo.ConstructorGrafo;
 import grafo.Grafo;
+import grafo.GrafoLectura;
+import grafo.GrafoOffHeap;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
@@ -17,19 +20,20 @@ import java.util.*;
  *   - '*' = pared (obstáculo, no transitable)
  *   - ' ' = espacio (celda transitable)
  *   - 'A' = punto de inicio del laberinto
- *   - 'B' = punto de destino del laberinto
+ *   - 'B' = punto de destino del laberinto (puede haber varias salidas)
  * 
  * Proceso:
  *   1. Lee el archivo de texto
  *   2. Crea un mapa 2D de caracteres
- *   3. Valida que existan puntos A y B
+ *   3. Valida que exista un único punto A y al menos un punto B
  *   4. Construye un grafo con nodos y aristas
  */
 public class LaberintoParser {
     // ===== ATRIBUTOS =====
     private char[][] mapa;                  // Mapa 2D del laberinto
-    private Map<String, Integer> posicionANodo;  // Mapea "x,y" al ID del nodo
-    private Grafo grafo;                    // Grafo construido
+    private int[] idPorCelda;               // ID del nodo en fila*columnas+col (-1 = pared)
+    private Grafo grafo;                    // Grafo construido (en el heap, editable)
+    private GrafoOffHeap grafoMapeado;      // Grafo de la caché, si se cargó desde ahí (solo lectura)
     private int filas;                      // Número de filas del mapa
     private int columnas;                   // Número de columnas del mapa
     private int contadorNodos = 0;          // Contador para asignar IDs únicos
@@ -70,95 +74,203 @@ public class LaberintoParser {
                 }
             }
 
-            validarMapa();  // Verifica que tenga puntos A y B
+            validarMapa();  // Verifica que tenga un punto A y al menos un B
         } catch (IOException e) {
             throw new IOException("Error al leer el archivo: " + e.getMessage(), e);
         }
     }
 
     /**
-     * Valida que el mapa contenga los puntos requeridos A (inicio) y B (fin)
-     * @throws IOException si faltan los puntos A o B
+     * Valida que el mapa contenga exactamente un punto A (inicio)
+     * y al menos un punto B (salida)
+     * @throws IOException si falta A, hay más de una A o no hay ninguna B
      */
     private void validarMapa() throws IOException {
-        boolean tieneA = false;
-        boolean tieneB = false;
+        int cantidadA = 0;
+        int cantidadB = 0;
 
-        // Busca los puntos A y B en el mapa
+        // Cuenta los puntos A y B en el mapa
         for (int i = 0; i < filas; i++) {
             for (int j = 0; j < columnas; j++) {
-                if (mapa[i][j] == 'A') tieneA = true;
-                if (mapa[i][j] == 'B') tieneB = true;
+                if (mapa[i][j] == 'A') cantidadA++;
+                if (mapa[i][j] == 'B') cantidadB++;
             }
         }
 
-        // Lanza excepción si faltan
-        if (!tieneA || !tieneB) {
-            throw new IOException("El laberinto debe contener un punto A (inicio) y un punto B (fin)");
+        // Lanza excepción si faltan o si A está repetida
+        if (cantidadA == 0 || cantidadB == 0) {
+            throw new IOException("El laberinto debe contener un punto A (inicio) y al menos un punto B (fin)");
+        }
+        if (cantidadA > 1) {
+            throw new IOException("El laberinto debe contener un solo punto A (se encontraron " + cantidadA + ")");
         }
     }
 
     /**
      * Construye el grafo a partir del mapa del laberinto
      * Proceso en dos pasos:
-     *   1. Crea nodos para todas las celdas transitables
-     *   2. Conecta nodos adyacentes con aristas
+     *   1. Asigna IDs a todas las celdas transitables (orden fila-columna)
+     *   2. Emite cada arista una sola vez (vecino de abajo y de la derecha)
+     * Usa ConstructorGrafo: sin búsquedas de duplicados ni claves de texto,
+     * y con las listas de adyacencia dimensionadas exactamente.
      * @return El grafo construido
      */
     public Grafo construirGrafo() {
-        this.grafo = new Grafo();
-        this.posicionANodo = new HashMap<>();
+        this.idPorCelda = new int[filas * columnas];
+        this.contadorNodos = 0;
 
-        // ===== PASO 1: CREAR NODOS =====
+        // ===== PASO 1: ASIGNAR IDS =====
         // Itera sobre todas las celdas del mapa
         for (int i = 0; i < filas; i++) {
             for (int j = 0; j < columnas; j++) {
-                char celda = mapa[i][j];
                 // Crea nodo para cualquier celda que NO sea pared
-                if (celda != '*') {  // '*' = pared, no transitable
-                    Nodo nodo = new Nodo(contadorNodos, i, j, celda);
-                    grafo.agregarNodo(nodo);
-                    posicionANodo.put(i + "," + j, contadorNodos);  // Almacena mapeo posición -> ID
-                    contadorNodos++;
-                }
+                idPorCelda[i * columnas + j] = mapa[i][j] != '*' ? contadorNodos++ : -1;  // '*' = pared
             }
         }
 
-        // ===== PASO 2: CREAR ARISTAS =====
-        // Conecta nodos adyacentes (arriba, abajo, izquierda, derecha)
+        // Una rejilla de 4 vecinos tiene a lo sumo 2 aristas nuevas por celda
+        ConstructorGrafo constructor = new ConstructorGrafo(contadorNodos, 2 * contadorNodos);
+
+        // ===== PASO 2: CREAR NODOS Y ARISTAS =====
         for (int i = 0; i < filas; i++) {
             for (int j = 0; j < columnas; j++) {
-                char celda = mapa[i][j];
-                // Solo procesa celdas transitables
-                if (celda != '*') {
-                    Integer idActual = posicionANodo.get(i + "," + j);
-                    
-                    // Define las 4 direcciones: arriba, abajo, izquierda, derecha
-                    int[][] direcciones = {
-                        {i - 1, j},  // Arriba
-                        {i + 1, j},  // Abajo
-                        {i, j - 1},  // Izquierda
-                        {i, j + 1}   // Derecha
-                    };
-
-                    // Verifica cada dirección y crea arista si es válida
-                    for (int[] dir : direcciones) {
-                        int ni = dir[0];
-                        int nj = dir[1];
-                        // Verifica que esté dentro de límites y no sea pared
-                        if (ni >= 0 && ni < filas && nj >= 0 && nj < columnas && 
-                            mapa[ni][nj] != '*') {
-                            Integer idVecino = posicionANodo.get(ni + "," + nj);
-                            grafo.agregarArista(idActual, idVecino);
-                        }
-                    }
+                int idActual = idPorCelda[i * columnas + j];
+                if (idActual == -1) continue;  // Solo procesa celdas transitables
+                constructor.agregarNodo(idActual, i, j, mapa[i][j]);
+
+                // Solo abajo y derecha: arriba/izquierda ya las emitió el vecino
+                if (i + 1 < filas && idPorCelda[(i + 1) * columnas + j] != -1) {
+                    constructor.agregarArista(idActual, idPorCelda[(i + 1) * columnas + j]);
+                }
+                if (j + 1 < columnas && idPorCelda[i * columnas + j + 1] != -1) {
+                    constructor.agregarArista(idActual, idPorCelda[i * columnas + j + 1]);
                 }
             }
         }
 
+        this.grafo = constructor.construir();
+        this.grafoMapeado = null;
         return grafo;
     }
 
+    /**
+     * Carga el mapa desde un grafo ya construido (por ejemplo, mapeado
+     * desde CacheGrafos), sin leer ni recorrer el archivo de texto.
+     * Las búsquedas usan directamente ese grafo: no se copia al heap.
+     * Los IDs de GrafoOffHeap siguen el mismo orden fila-columna que
+     * construirGrafo, así que getIdEnCelda y el mapa coinciden.
+     * La copia editable (Grafo) se arma recién cuando se pide con
+     * getGrafo(), por ejemplo para alternar celdas.
+     * @param fuente grafo de solo lectura con las dimensiones del mapa
+     * @return El mismo grafo, como vista de lectura
+     */
+    public GrafoLectura cargarDesdeGrafo(GrafoOffHeap fuente) {
+        this.filas = fuente.getFilas();
+        this.columnas = fuente.getColumnas();
+        this.mapa = new char[filas][columnas];
+        this.idPorCelda = new int[filas * columnas];
+        for (char[] fila : mapa) {
+            Arrays.fill(fila, '*');  // Las celdas sin nodo son paredes
+        }
+        Arrays.fill(idPorCelda, -1);
+
+        int n = fuente.getCantidadNodos();
+        this.contadorNodos = n;
+        for (int id = 0; id < n; id++) {
+            int x = fuente.getX(id);
+            int y = fuente.getY(id);
+            mapa[x][y] = fuente.getTipo(id);
+            idPorCelda[x * columnas + y] = id;
+        }
+
+        this.grafo = null;
+        this.grafoMapeado = fuente;
+        return fuente;
+    }
+
+    /**
+     * Copia un grafo de solo lectura a un Grafo del heap, con los mismos
+     * IDs y el mismo orden de vecinos
+     */
+    private static Grafo copiarAlHeap(GrafoOffHeap fuente) {
+        int n = fuente.getCantidadNodos();
+        ConstructorGrafo constructor = new ConstructorGrafo(n, fuente.getCantidadAristas());
+        for (int id = 0; id < n; id++) {
+            constructor.agregarNodo(id, fuente.getX(id), fuente.getY(id), fuente.getTipo(id));
+            // Cada arista una sola vez, desde su extremo menor: conserva el orden de vecinos
+            for (int k = 0, grado = fuente.getGrado(id); k < grado; k++) {
+                int vecino = fuente.getVecino(id, k);
+                if (id < vecino) constructor.agregarArista(id, vecino);
+            }
+        }
+        return constructor.construir();
+    }
+
+    /**
+     * Alterna una celda entre pared ('*') y espacio (' ') y ajusta el grafo
+     * en el lugar, sin reconstruirlo:
+     *   - Pared -> espacio: crea un nodo nuevo y lo conecta con sus vecinos
+     *   - Espacio -> pared: elimina el nodo y sus aristas en ambos sentidos
+     * Las celdas A y B no se pueden alternar.
+     * @param fila fila de la celda
+     * @param columna columna de la celda
+     * @return IDs de los nodos afectados (la celda y sus vecinos transitables),
+     *         listos para notificar a un planificador incremental
+     * @throws IllegalStateException si aún no se construyó el grafo
+     * @throws IllegalArgumentException si la celda está fuera del mapa o es A/B
+     */
+    public List<Integer> alternarCelda(int fila, int columna) {
+        Grafo grafo = getGrafo();  // Si vino de la caché, recién acá se copia al heap
+        if (grafo == null) {
+            throw new IllegalStateException("Primero debe construirse el grafo");
+        }
+        if (fila < 0 || fila >= filas || columna < 0 || columna >= columnas) {
+            throw new IllegalArgumentException("Celda fuera del mapa: (" + fila + ", " + columna + ")");
+        }
+        char celda = mapa[fila][columna];
+        if (celda == 'A' || celda == 'B') {
+            throw new IllegalArgumentException("No se pueden alternar los puntos A o B");
+        }
+
+        List<Integer> afectados = new ArrayList<>();
+        int celdaIndice = fila * columnas + columna;
+
+        if (celda == '*') {
+            // ===== PARED -> ESPACIO: agrega nodo y aristas =====
+            mapa[fila][columna] = ' ';
+            int idNuevo = contadorNodos++;
+            grafo.agregarNodo(new Nodo(idNuevo, fila, columna, ' '));
+            idPorCelda[celdaIndice] = idNuevo;
+            afectados.add(idNuevo);
+
+            int[][] direcciones = {
+                {fila - 1, columna},  // Arriba
+                {fila + 1, columna},  // Abajo
+                {fila, columna - 1},  // Izquierda
+                {fila, columna + 1}   // Derecha
+            };
+            for (int[] dir : direcciones) {
+                int ni = dir[0];
+                int nj = dir[1];
+                if (ni >= 0 && ni < filas && nj >= 0 && nj < columnas &&
+                    mapa[ni][nj] != '*') {
+                    int idVecino = idPorCelda[ni * columnas + nj];
+                    grafo.agregarArista(idNuevo, idVecino);
+                    afectados.add(idVecino);
+                }
+            }
+        } else {
+            // ===== ESPACIO -> PARED: elimina nodo (remoción simétrica) =====
+            mapa[fila][columna] = '*';
+            int idViejo = idPorCelda[celdaIndice];
+            idPorCelda[celdaIndice] = -1;
+            afectados.add(idViejo);
+            afectados.addAll(grafo.eliminarNodo(idViejo));
+        }
+
+        return afectados;
+    }
+
     // ===== GETTERS =====
     /**
      * Retorna el mapa del laberinto
@@ -182,29 +294,67 @@ public class LaberintoParser {
     }
 
     /**
-     * Retorna el grafo construido
+     * Retorna el grafo construido, editable
+     * Si el mapa se cargó desde la caché, la primera llamada copia el
+     * grafo mapeado al heap; desde ahí el grafo editable reemplaza al
+     * mapeado (que ya no describe el mapa si se alternan celdas).
      */
     public Grafo getGrafo() {
+        if (grafo == null && grafoMapeado != null) {
+            grafo = copiarAlHeap(grafoMapeado);
+            grafoMapeado = null;
+        }
         return grafo;
     }
 
     /**
-     * Retorna el mapeo de posiciones a IDs de nodos
+     * Retorna el grafo actual para búsquedas y consultas, sin copiarlo:
+     * el mapeado desde la caché o el construido en el heap
+     */
+    public GrafoLectura getGrafoLectura() {
+        return grafo != null ? grafo : grafoMapeado;
+    }
+
+    /**
+     * Retorna el mapeo de posiciones ("x,y") a IDs de nodos
+     * Se arma bajo demanda; internamente se usa un arreglo por celda
      */
     public Map<String, Integer> getPosicionANodo() {
+        if (idPorCelda == null) {
+            return null;  // El grafo aún no se construyó
+        }
+        Map<String, Integer> posicionANodo = new HashMap<>();
+        for (int i = 0; i < filas; i++) {
+            for (int j = 0; j < columnas; j++) {
+                int id = idPorCelda[i * columnas + j];
+                if (id != -1) posicionANodo.put(i + "," + j, id);
+            }
+        }
         return posicionANodo;
     }
 
+    /**
+     * Retorna el ID del nodo en la celda indicada, o -1 si es pared
+     */
+    public int getIdEnCelda(int fila, int columna) {
+        return idPorCelda[fila * columnas + columna];
+    }
+
     /**
      * Imprime el mapa de forma legible en consola
      */
     public void imprimirMapa() {
-        System.out.println("\n=== MAPA DEL LABERINTO ===");
+        imprimirMapa(SalidaTexto.consola());
+    }
+
+    /**
+     * Imprime el mapa en la salida indicada (una escritura por fila)
+     */
+    public void imprimirMapa(SalidaTexto salida) {
+        salida.imprimirLinea("\n=== MAPA DEL LABERINTO ===");
         for (int i = 0; i < filas; i++) {
-            for (int j = 0; j < columnas; j++) {
-                System.out.print(mapa[i][j]);
-            }
-            System.out.println();
+            salida.imprimirLinea(mapa[i]);
         }
+        salida.terminarBloque();
     }
 }
@@ -0,0 +1,123 @@
+package utils;
+
+import grafo.GrafoLectura;
+import java.util.Arrays;
+
+/**
+ * ============================================================
+ * CLASE: LineaTiempo
+ * ============================================================
+ * Orden de visita de un recorrido, pensado para reproducirlo y saltar
+ * a cualquier paso sin volver a recorrer los anteriores:
+ *
+ *   - orden[paso]: ID del nodo visitado en ese paso (arreglo primitivo
+ *     que crece al agregar: admite visitas que llegan de a bloques)
+ *   - pasoPorCelda[fila * columnas + columna]: primer paso en que se
+ *     visitó la celda (SIN_VISITAR si nunca)
+ *
+ * "¿Está visitada la celda en el paso p?" es una comparación:
+ * pasoPorCelda[c] < p. Así cualquier paso se dibuja directo, y pasar
+ * del paso p al q solo toca las celdas de orden[min(p,q) .. max(p,q)).
+ *
+ * Memoria: 4 bytes por celda del mapa + 4 bytes por paso.
+ */
+public class LineaTiempo {
+    // ===== CONSTANTES =====
+    public static final int SIN_VISITAR = Integer.MAX_VALUE;
+    private static final int CAPACIDAD_INICIAL = 1024;
+
+    // ===== ATRIBUTOS =====
+    private final GrafoLectura grafo;
+    private final int columnas;
+    private final int[] pasoPorCelda;   // Primer paso de cada celda
+    private int[] orden = new int[CAPACIDAD_INICIAL];
+    private int longitud;               // Pasos registrados
+
+    /**
+     * Constructor
+     * @param grafo grafo del recorrido (para ubicar la celda de cada nodo)
+     * @param filas filas del mapa
+     * @param columnas columnas del mapa
+     */
+    public LineaTiempo(GrafoLectura grafo, int filas, int columnas) {
+        this.grafo = grafo;
+        this.columnas = columnas;
+        this.pasoPorCelda = new int[filas * columnas];
+        Arrays.fill(pasoPorCelda, SIN_VISITAR);
+    }
+
+    /**
+     * Registra la visita del nodo como el paso siguiente
+     */
+    public void agregar(int id) {
+        if (longitud == orden.length) {
+            orden = Arrays.copyOf(orden, orden.length * 2);
+        }
+        int celda = celdaDe(id);
+        if (pasoPorCelda[celda] == SIN_VISITAR) {
+            pasoPorCelda[celda] = longitud;  // Solo cuenta la primera visita
+        }
+        orden[longitud++] = id;
+    }
+
+    /**
+     * Registra un bloque de visitas en orden
+     */
+    public void agregar(int[] ids) {
+        for (int id : ids) {
+            agregar(id);
+        }
+    }
+
+    /**
+     * Olvida todos los pasos (mantiene la capacidad)
+     */
+    public void limpiar() {
+        for (int paso = 0; paso < longitud; paso++) {
+            pasoPorCelda[celdaDe(orden[paso])] = SIN_VISITAR;  // Solo las celdas tocadas
+        }
+        longitud = 0;
+    }
+
+    /**
+     * Cantidad de pasos registrados
+     */
+    public int getLongitud() {
+        return longitud;
+    }
+
+    /**
+     * Nodo visitado en el paso (0 .. longitud-1)
+     */
+    public int getNodo(int paso) {
+        if (paso < 0 || paso >= longitud) {
+            throw new IndexOutOfBoundsException("Paso " + paso + " fuera de [0, " + longitud + ")");
+        }
+        return orden[paso];
+    }
+
+    /**
+     * Primer paso en que se visitó la celda (SIN_VISITAR si nunca)
+     */
+    public int getPasoDeCelda(int fila, int columna) {
+        return pasoPorCelda[fila * columnas + columna];
+    }
+
+    /**
+     * Primer paso en que se visitó el nodo (SIN_VISITAR si nunca)
+     */
+    public int getPasoDeNodo(int id) {
+        return pasoPorCelda[celdaDe(id)];
+    }
+
+    /**
+     * true si, mostrando 'paso' pasos, el nodo ya aparece visitado
+     */
+    public boolean visitadoAntesDe(int id, int paso) {
+        return pasoPorCelda[celdaDe(id)] < paso;
+    }
+
+    private int celdaDe(int id) {
+        return grafo.getX(id) * columnas + grafo.getY(id);
+    }
+}
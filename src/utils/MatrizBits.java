@@ -0,0 +1,108 @@
+package utils;
+
+import java.util.BitSet;
+
+/**
+ * ============================================================
+ * CLASE: MatrizBits
+ * ============================================================
+ * Matriz booleana densa empaquetada en bits: cada fila es un tramo de
+ * long[] donde el bit j indica la columna j (64 columnas por long).
+ *
+ *   - bits[i * palabrasPorFila + (j >>> 6)], bit (j & 63): valor (i, j)
+ *   - Memoria: filas x columnas / 8 bytes (32 veces menos que int[][])
+ *
+ * Es la representación que usa MotorMatricial para los productos
+ * booleanos: OR de una fila completa = palabrasPorFila operaciones.
+ * Solo MotorMatricial la modifica; para el resto es de solo lectura.
+ */
+public class MatrizBits {
+    // ===== ATRIBUTOS =====
+    private final int filas;
+    private final int columnas;
+    final int palabrasPorFila;  // longs por fila
+    final long[] bits;          // Filas contiguas
+
+    /**
+     * Constructor: matriz de ceros
+     * @param filas cantidad de filas
+     * @param columnas cantidad de columnas
+     */
+    MatrizBits(int filas, int columnas) {
+        this.filas = filas;
+        this.columnas = columnas;
+        this.palabrasPorFila = (columnas + 63) >>> 6;
+        this.bits = new long[filas * palabrasPorFila];
+    }
+
+    /**
+     * Bytes que ocuparía una matriz de ese tamaño (para validar antes de crearla)
+     */
+    static long bytesPara(int filas, int columnas) {
+        return 8L * filas * ((columnas + 63) >>> 6);
+    }
+
+    /**
+     * Valor de la posición (i, j)
+     */
+    public boolean get(int i, int j) {
+        return (bits[i * palabrasPorFila + (j >>> 6)] & (1L << j)) != 0;
+    }
+
+    void set(int i, int j) {
+        bits[i * palabrasPorFila + (j >>> 6)] |= 1L << j;
+    }
+
+    /**
+     * Cantidad de unos en la fila i (popcount de sus palabras)
+     */
+    public int getCantidadEnFila(int i) {
+        int cantidad = 0;
+        for (int w = i * palabrasPorFila, fin = w + palabrasPorFila; w < fin; w++) {
+            cantidad += Long.bitCount(bits[w]);
+        }
+        return cantidad;
+    }
+
+    /**
+     * Copia de la fila i como BitSet (bit j = columna j)
+     */
+    public BitSet getFila(int i) {
+        int desde = i * palabrasPorFila;
+        long[] fila = new long[palabrasPorFila];
+        System.arraycopy(bits, desde, fila, 0, palabrasPorFila);
+        return BitSet.valueOf(fila);
+    }
+
+    public int getFilas() {
+        return filas;
+    }
+
+    public int getColumnas() {
+        return columnas;
+    }
+
+    /**
+     * Cantidad total de unos
+     */
+    public long getUnos() {
+        long unos = 0;
+        for (long palabra : bits) {
+            unos += Long.bitCount(palabra);
+        }
+        return unos;
+    }
+
+    /**
+     * Bytes del arreglo de bits
+     */
+    public long getBytes() {
+        return 8L * bits.length;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MatrizBits[%dx%d, %d unos, %d bytes]",
+                filas, columnas, getUnos(), getBytes());
+    }
+}
@@ -0,0 +1,122 @@
+package utils;
+
+import java.util.function.IntConsumer;
+
+/**
+ * ============================================================
+ * CLASE: MatrizDispersa
+ * ============================================================
+ * Matriz binaria (0/1) dispersa en formato CSR (Compressed Sparse Row):
+ * solo se guardan las posiciones de los 1.
+ *
+ *   - inicioFila[i] .. inicioFila[i+1]-1: rango de la fila i
+ *   - indicesColumna[k]: columna de cada 1, ORDENADAS dentro de la fila
+ *
+ * Memoria: O(filas + unos), en lugar de O(filas x columnas) de int[][].
+ * Consultas:
+ *   - get(i, j): búsqueda binaria en la fila, O(log grado)
+ *   - recorrer una fila: O(unos de la fila)
+ *
+ * Es inmutable: la construye MatrizesGrafo.
+ */
+public class MatrizDispersa {
+    // ===== ATRIBUTOS =====
+    private final int filas;
+    private final int columnas;
+    private final int[] inicioFila;      // Largo filas + 1
+    private final int[] indicesColumna;  // Largo = cantidad de unos
+
+    /**
+     * Constructor
+     * @param filas cantidad de filas
+     * @param columnas cantidad de columnas
+     * @param inicioFila inicio de cada fila en indicesColumna (largo filas + 1)
+     * @param indicesColumna columnas de los unos, ordenadas dentro de cada fila
+     */
+    MatrizDispersa(int filas, int columnas, int[] inicioFila, int[] indicesColumna) {
+        this.filas = filas;
+        this.columnas = columnas;
+        this.inicioFila = inicioFila;
+        this.indicesColumna = indicesColumna;
+    }
+
+    /**
+     * Valor de la posición (i, j): 1 o 0
+     */
+    public int get(int i, int j) {
+        int bajo = inicioFila[i];
+        int alto = inicioFila[i + 1] - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            int columna = indicesColumna[medio];
+            if (columna == j) return 1;
+            if (columna < j) bajo = medio + 1;
+            else alto = medio - 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Cantidad de unos en la fila i
+     */
+    public int getCantidadEnFila(int i) {
+        return inicioFila[i + 1] - inicioFila[i];
+    }
+
+    /**
+     * Columna del k-ésimo uno de la fila i (en orden creciente)
+     */
+    public int getColumnaEnFila(int i, int k) {
+        return indicesColumna[inicioFila[i] + k];
+    }
+
+    /**
+     * Aplica la acción a cada columna con un 1 en la fila i, en orden creciente
+     */
+    public void forEachEnFila(int i, IntConsumer accion) {
+        for (int k = inicioFila[i]; k < inicioFila[i + 1]; k++) {
+            accion.accept(indicesColumna[k]);
+        }
+    }
+
+    /**
+     * Convierte a matriz densa (solo para matrices pequeñas)
+     */
+    public int[][] aDensa() {
+        int[][] densa = new int[filas][columnas];
+        for (int i = 0; i < filas; i++) {
+            for (int k = inicioFila[i]; k < inicioFila[i + 1]; k++) {
+                densa[i][indicesColumna[k]] = 1;
+            }
+        }
+        return densa;
+    }
+
+    public int getFilas() {
+        return filas;
+    }
+
+    public int getColumnas() {
+        return columnas;
+    }
+
+    /**
+     * Cantidad total de unos (entradas no nulas)
+     */
+    public int getNoCeros() {
+        return indicesColumna.length;
+    }
+
+    /**
+     * Bytes aproximados de los arreglos de la matriz
+     */
+    public long getBytes() {
+        return 4L * (inicioFila.length + indicesColumna.length);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MatrizDispersa[%dx%d, %d no ceros, %d bytes]",
+                filas, columnas, getNoCeros(), getBytes());
+    }
+}
@@ -1,6 +1,5 @@
 package utils;
-import grafo.Grafo;
-import models.Nodo;
+import grafo.GrafoLectura;
 import java.util.*;
 
 /**
@@ -21,16 +20,30 @@ import java.util.*;
  *   - Inc[i][j] = 0 si nodo i NO toca arista j
  *   - Para grafo no dirigido: dos 1s por columna (arista toca 2 nodos)
  * 
+ * MODO DISPERSO (recomendado para laberintos grandes):
+ *   - La matriz de adyacencia densa ocupa N² enteros (50.000 nodos ~ 10 GB)
+ *     y casi todo son ceros: una celda tiene a lo sumo 4 vecinos
+ *   - getMatrizAdyacenciaDispersa() la guarda en CSR (MatrizDispersa),
+ *     con memoria proporcional a la cantidad de aristas
+ *   - La incidencia se guarda como dos arreglos de extremos por arista
+ *     (IDs de arista 0..M-1) y getMatrizIncidenciaDispersa() da, por
+ *     nodo, la lista de aristas que lo tocan: memoria O(N + M)
+ *   - La impresión usa la forma dispersa; la densa solo se crea si se pide
+ * 
  * Útiles para:
  *   - Análisis matricial del grafo
- *   - Cálculos algebraicos
+ *   - Cálculos algebraicos (MotorMatricial: alcance en k pasos, caminatas)
  *   - Visualización de conectividad
  */
 public class MatrizesGrafo {
     // ===== ATRIBUTOS =====
-    private Grafo grafo;                              // El grafo del cual se generan matrices
+    private GrafoLectura grafo;                       // El grafo del cual se generan matrices
     private int[][] matrizAdyacencia;                 // Matriz de adyacencia (NxN)
+    private MatrizDispersa adyacenciaDispersa;        // Matriz de adyacencia en CSR
     private int[][] matrizIncidencia;                 // Matriz de incidencia (NxM)
+    private MatrizDispersa incidenciaDispersa;        // Matriz de incidencia en CSR
+    private int[] aristaOrigen;                       // Arista j: índice de un extremo
+    private int[] aristaDestino;                      // Arista j: índice del otro extremo
     private int cantidadNodos;                        // Número de nodos
     private int cantidadAristas;                      // Número de aristas
     private Map<Integer, Integer> mapaIdAIndice;      // Mapea ID de nodo → índice de matriz
@@ -39,7 +52,7 @@ public class MatrizesGrafo {
      * Constructor
      * @param grafo el grafo del cual generar matrices
      */
-    public MatrizesGrafo(Grafo grafo) {
+    public MatrizesGrafo(GrafoLectura grafo) {
         this.grafo = grafo;
         this.cantidadNodos = grafo.getCantidadNodos();
         this.cantidadAristas = grafo.getCantidadAristas();
@@ -54,12 +67,25 @@ public class MatrizesGrafo {
     private void construirMapaIndices() {
         int indice = 0;
         // Itera sobre todos los nodos y asigna índices secuenciales
-        for (Nodo nodo : grafo.getTodosNodos()) {
-            mapaIdAIndice.put(nodo.getId(), indice);
+        for (int id = 0, capacidad = grafo.getCapacidadIds(); id < capacidad; id++) {
+            if (!grafo.contieneNodo(id)) continue;
+            mapaIdAIndice.put(id, indice);
             indice++;
         }
     }
 
+    /**
+     * Arreglo ID de nodo -> índice de matriz (evita buscar en el mapa
+     * por cada arista)
+     */
+    private int[] indicesPorId() {
+        int[] indices = new int[grafo.getCapacidadIds()];
+        for (Map.Entry<Integer, Integer> e : mapaIdAIndice.entrySet()) {
+            indices[e.getKey()] = e.getValue();
+        }
+        return indices;
+    }
+
     /**
      * Genera la matriz de adyacencia
      * M[i][j] = 1 si existe arista (nodo i, nodo j), 0 en caso contrario
@@ -68,21 +94,72 @@ public class MatrizesGrafo {
     public int[][] generarMatrizAdyacencia() {
         matrizAdyacencia = new int[cantidadNodos][cantidadNodos];
         
-        // Itera sobre la lista de adyacencia del grafo
-        Map<Integer, List<Integer>> listaAdyacencia = grafo.getListaAdyacencia();
-        for (Integer idOrigen : listaAdyacencia.keySet()) {
-            int i = mapaIdAIndice.get(idOrigen);  // Índice del nodo origen
-            
-            // Itera sobre los adyacentes de este nodo
-            for (Integer idDestino : listaAdyacencia.get(idOrigen)) {
-                int j = mapaIdAIndice.get(idDestino);  // Índice del nodo destino
-                matrizAdyacencia[i][j] = 1;  // Marca la conexión
-            }
+        // Recorre los vecinos de cada nodo sin copiar la lista de adyacencia
+        int[] indices = indicesPorId();
+        for (int id = 0; id < indices.length; id++) {
+            if (!grafo.contieneNodo(id)) continue;
+            int[] fila = matrizAdyacencia[indices[id]];  // Fila del nodo origen
+            grafo.forEachNeighbor(id, idDestino -> fila[indices[idDestino]] = 1);  // Marca la conexión
         }
 
         return matrizAdyacencia;
     }
 
+    /**
+     * Genera la matriz de adyacencia en formato disperso (CSR)
+     * Fila i: índices de los vecinos del nodo i, ordenados
+     * @return Matriz de adyacencia NxN dispersa
+     */
+    public MatrizDispersa generarMatrizAdyacenciaDispersa() {
+        int[] indices = indicesPorId();
+        int[] inicioFila = new int[cantidadNodos + 1];
+        int[] columnas = new int[2 * cantidadAristas];  // Cada arista aparece en dos filas
+        int pos = 0;
+
+        // Los IDs se recorren en el mismo orden en que se asignaron los índices
+        int i = 0;
+        for (int id = 0; id < indices.length; id++) {
+            if (!grafo.contieneNodo(id)) continue;
+            inicioFila[i] = pos;
+            for (int k = 0, grado = grafo.getGrado(id); k < grado; k++) {
+                columnas[pos++] = indices[grafo.getVecino(id, k)];
+            }
+            Arrays.sort(columnas, inicioFila[i], pos);  // Columnas ordenadas: get() por búsqueda binaria
+            i++;
+        }
+        inicioFila[cantidadNodos] = pos;
+
+        adyacenciaDispersa = new MatrizDispersa(cantidadNodos, cantidadNodos, inicioFila,
+                pos == columnas.length ? columnas : Arrays.copyOf(columnas, pos));
+        return adyacenciaDispersa;
+    }
+
+    /**
+     * Numera las aristas en una sola pasada y guarda sus extremos
+     * (índices de matriz) en dos arreglos primitivos
+     * Cada arista se numera desde su extremo de menor ID, el primero en
+     * recorrerse: mismo orden de columnas que la matriz densa.
+     */
+    private void numerarAristas() {
+        aristaOrigen = new int[cantidadAristas];
+        aristaDestino = new int[cantidadAristas];
+        int[] indices = indicesPorId();
+        int indexArista = 0;
+
+        // Itera sobre los vecinos de cada nodo, en orden ascendente de ID
+        for (int idOrigen = 0; idOrigen < indices.length; idOrigen++) {
+            if (!grafo.contieneNodo(idOrigen)) continue;
+            for (int k = 0, grado = grafo.getGrado(idOrigen); k < grado; k++) {
+                int idDestino = grafo.getVecino(idOrigen, k);
+                if (idOrigen < idDestino) {  // Cada arista no dirigida una sola vez
+                    aristaOrigen[indexArista] = indices[idOrigen];
+                    aristaDestino[indexArista] = indices[idDestino];
+                    indexArista++;
+                }
+            }
+        }
+    }
+
     /**
      * Genera la matriz de incidencia
      * Inc[i][j] = 1 si nodo i toca arista j, 0 en caso contrario
@@ -90,41 +167,54 @@ public class MatrizesGrafo {
      * @return Matriz de incidencia NxM
      */
     public int[][] generarMatrizIncidencia() {
+        if (aristaOrigen == null) {
+            numerarAristas();
+        }
         matrizIncidencia = new int[cantidadNodos][cantidadAristas];
-        int indexArista = 0;
-        Set<String> aristasAgregadas = new HashSet<>();  // Evita procesar la misma arista dos veces
-
-        // Itera sobre la lista de adyacencia
-        Map<Integer, List<Integer>> listaAdyacencia = grafo.getListaAdyacencia();
-        for (Integer idOrigen : listaAdyacencia.keySet()) {
-            int i = mapaIdAIndice.get(idOrigen);
-            
-            for (Integer idDestino : listaAdyacencia.get(idOrigen)) {
-                // Para grafo no dirigido, solo procesa cada arista una vez
-                // Usa un identificador único para la arista (nodo menor-nodo mayor)
-                String aristaKey = Math.min(idOrigen, idDestino) + "-" + Math.max(idOrigen, idDestino);
-                
-                if (!aristasAgregadas.contains(aristaKey)) {
-                    int j = mapaIdAIndice.get(idDestino);
-                    matrizIncidencia[i][indexArista] = 1;  // Nodo origen toca la arista
-                    matrizIncidencia[j][indexArista] = 1;  // Nodo destino toca la arista
-                    aristasAgregadas.add(aristaKey);
-                    indexArista++;
-                }
-            }
+        for (int j = 0; j < cantidadAristas; j++) {
+            matrizIncidencia[aristaOrigen[j]][j] = 1;   // Nodo origen toca la arista
+            matrizIncidencia[aristaDestino[j]][j] = 1;  // Nodo destino toca la arista
         }
-
         return matrizIncidencia;
     }
 
+    /**
+     * Genera la matriz de incidencia en formato disperso (CSR)
+     * Fila i: aristas que tocan al nodo i, en orden creciente
+     * Memoria O(V + E) en lugar de O(V x E)
+     * @return Matriz de incidencia NxM dispersa
+     */
+    public MatrizDispersa generarMatrizIncidenciaDispersa() {
+        if (aristaOrigen == null) {
+            numerarAristas();
+        }
+        int[] inicioFila = new int[cantidadNodos + 1];
+        for (int j = 0; j < cantidadAristas; j++) {
+            inicioFila[aristaOrigen[j] + 1]++;
+            inicioFila[aristaDestino[j] + 1]++;
+        }
+        for (int i = 0; i < cantidadNodos; i++) {
+            inicioFila[i + 1] += inicioFila[i];
+        }
+
+        // Recorrer las aristas en orden deja cada fila ya ordenada
+        int[] escritura = Arrays.copyOf(inicioFila, cantidadNodos);
+        int[] aristas = new int[2 * cantidadAristas];
+        for (int j = 0; j < cantidadAristas; j++) {
+            aristas[escritura[aristaOrigen[j]]++] = j;
+            aristas[escritura[aristaDestino[j]]++] = j;
+        }
+
+        incidenciaDispersa = new MatrizDispersa(cantidadNodos, cantidadAristas, inicioFila, aristas);
+        return incidenciaDispersa;
+    }
+
     /**
      * Imprime la matriz de adyacencia de forma legible
      * Muestra encabezados de índices y datos formateados
      */
     public void imprimirMatrizAdyacencia() {
-        if (matrizAdyacencia == null) {
-            generarMatrizAdyacencia();
-        }
+        MatrizDispersa matriz = getMatrizAdyacenciaDispersa();  // Sin crear la matriz densa
 
         System.out.println("\n=== MATRIZ DE ADYACENCIA ===");
         System.out.println("Dimensión: " + cantidadNodos + "x" + cantidadNodos);
@@ -139,9 +229,7 @@ public class MatrizesGrafo {
         // Datos
         for (int i = 0; i < cantidadNodos; i++) {
             System.out.print(String.format("%3d ", i));  // Encabezado de fila
-            for (int j = 0; j < cantidadNodos; j++) {
-                System.out.print(String.format("%3d ", matrizAdyacencia[i][j]));
-            }
+            imprimirFila(matriz, i);
             System.out.println();
         }
     }
@@ -151,9 +239,7 @@ public class MatrizesGrafo {
      * Muestra encabezados de índices y datos formateados
      */
     public void imprimirMatrizIncidencia() {
-        if (matrizIncidencia == null) {
-            generarMatrizIncidencia();
-        }
+        MatrizDispersa matriz = getMatrizIncidenciaDispersa();  // Sin crear la matriz densa
 
         System.out.println("\n=== MATRIZ DE INCIDENCIA ===");
         System.out.println("Dimensión: " + cantidadNodos + "x" + cantidadAristas);
@@ -168,13 +254,27 @@ public class MatrizesGrafo {
         // Datos
         for (int i = 0; i < cantidadNodos; i++) {
             System.out.print(String.format("%3d ", i));  // Encabezado de fila
-            for (int j = 0; j < cantidadAristas; j++) {
-                System.out.print(String.format("%3d ", matrizIncidencia[i][j]));
-            }
+            imprimirFila(matriz, i);
             System.out.println();
         }
     }
 
+    /**
+     * Imprime los valores de una fila dispersa con el formato de las
+     * matrices densas (los unos se consumen en orden de columna)
+     */
+    private void imprimirFila(MatrizDispersa matriz, int i) {
+        int k = 0;  // Próximo uno de la fila
+        for (int j = 0; j < matriz.getColumnas(); j++) {
+            int valor = 0;
+            if (k < matriz.getCantidadEnFila(i) && matriz.getColumnaEnFila(i, k) == j) {
+                valor = 1;
+                k++;
+            }
+            System.out.print(String.format("%3d ", valor));
+        }
+    }
+
     /**
      * Obtiene la matriz de adyacencia (la genera si no existe)
      */
@@ -185,6 +285,16 @@ public class MatrizesGrafo {
         return matrizAdyacencia;
     }
 
+    /**
+     * Obtiene la matriz de adyacencia dispersa (la genera si no existe)
+     */
+    public MatrizDispersa getMatrizAdyacenciaDispersa() {
+        if (adyacenciaDispersa == null) {
+            generarMatrizAdyacenciaDispersa();
+        }
+        return adyacenciaDispersa;
+    }
+
     /**
      * Obtiene la matriz de incidencia (la genera si no existe)
      */
@@ -195,6 +305,37 @@ public class MatrizesGrafo {
         return matrizIncidencia;
     }
 
+    /**
+     * Obtiene la matriz de incidencia dispersa (la genera si no existe)
+     * Cada fila es la lista de aristas que tocan a ese nodo
+     */
+    public MatrizDispersa getMatrizIncidenciaDispersa() {
+        if (incidenciaDispersa == null) {
+            generarMatrizIncidenciaDispersa();
+        }
+        return incidenciaDispersa;
+    }
+
+    /**
+     * Índice de matriz del primer extremo de la arista
+     */
+    public int getExtremoOrigen(int arista) {
+        if (aristaOrigen == null) {
+            numerarAristas();
+        }
+        return aristaOrigen[arista];
+    }
+
+    /**
+     * Índice de matriz del segundo extremo de la arista
+     */
+    public int getExtremoDestino(int arista) {
+        if (aristaOrigen == null) {
+            numerarAristas();
+        }
+        return aristaDestino[arista];
+    }
+
     /**
      * Obtiene el mapeo de IDs a índices de matriz
      */
@@ -0,0 +1,495 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * ============================================================
+ * CLASE: MotorMatricial
+ * ============================================================
+ * Cálculos sobre la matriz de adyacencia A (no solo generarla):
+ *
+ * ALCANCE EN k MOVIMIENTOS (álgebra booleana):
+ *   - Exactamente k: fila del origen de A^k
+ *   - A lo sumo k:   fila del origen de (I + A)^k
+ *   - potencia(k, hasta): la matriz completa por cuadrados repetidos,
+ *     O(log k) productos booleanos sobre filas empaquetadas en long[]
+ *     (MatrizBits): C[i] = OR de las filas B[j] con A[i][j] = 1
+ *   - Desde un solo origen no hace falta la matriz: se avanza un
+ *     vector de bits. En un grafo no dirigido el conjunto del paso t
+ *     está contenido en el del paso t + 2 (ir y volver), así que la
+ *     secuencia se estabiliza con período 1 o 2 tras a lo sumo ~2N
+ *     pasos: al detectarlo se salta directo al paso k (k puede ser enorme)
+ *
+ * CONTEO DE CAMINATAS (enteros módulo p):
+ *   - contarCaminatas(i, j, k, p) = A^k[i][j] mod p
+ *   - Elige entre k pasos de vector (O(k·E)) y cuadrados repetidos de
+ *     la matriz densa (O(N³·log k)) según el costo estimado y la memoria
+ *
+ * Paralelismo: los productos y los pasos se reparten por bloques de
+ * filas (o de palabras de 64 nodos) en un ForkJoinPool; cada tarea
+ * escribe solo sus filas, sin sincronización.
+ *
+ * Índices: los de MatrizesGrafo (0..N-1), no IDs de nodo.
+ */
+public class MotorMatricial {
+    // ===== CONSTANTES =====
+    private static final int FILAS_POR_TAREA = 32;     // Filas por tarea hoja en los productos
+    private static final int PALABRAS_POR_TAREA = 64;  // Palabras (64 nodos c/u) por tarea en los pasos
+    private static final long LIMITE_SUMA = 1L << 62;  // Reducir el acumulador antes de desbordar
+
+    // ===== ATRIBUTOS =====
+    private final int n;                  // Cantidad de nodos
+    private final int[] inicioFila;       // CSR de A: unos de la fila i en [inicio[i], inicio[i+1])
+    private final int[] columnasFila;
+    private final int[] inicioColumna;    // CSR de A transpuesta (para pasos "pull")
+    private final int[] filasColumna;
+    private final ForkJoinPool pool;
+    private long limiteBytesDensa;        // Memoria máxima para matrices densas
+    private MatrizBits adyacenciaBits;    // A empaquetada en bits (se crea al pedirla)
+
+    /**
+     * Constructor: usa el pool común de ForkJoin
+     * @param adyacencia matriz de adyacencia (cuadrada)
+     */
+    public MotorMatricial(MatrizDispersa adyacencia) {
+        this(adyacencia, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor
+     * @param adyacencia matriz de adyacencia (cuadrada)
+     * @param pool pool donde se reparten los bloques de filas
+     */
+    public MotorMatricial(MatrizDispersa adyacencia, ForkJoinPool pool) {
+        if (adyacencia.getFilas() != adyacencia.getColumnas()) {
+            throw new IllegalArgumentException("La matriz de adyacencia debe ser cuadrada");
+        }
+        this.n = adyacencia.getFilas();
+        this.pool = pool;
+        this.limiteBytesDensa = Runtime.getRuntime().maxMemory() / 4;
+
+        // Copia CSR de A
+        inicioFila = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            inicioFila[i + 1] = inicioFila[i] + adyacencia.getCantidadEnFila(i);
+        }
+        columnasFila = new int[inicioFila[n]];
+        for (int i = 0; i < n; i++) {
+            for (int k = 0, unos = adyacencia.getCantidadEnFila(i); k < unos; k++) {
+                columnasFila[inicioFila[i] + k] = adyacencia.getColumnaEnFila(i, k);
+            }
+        }
+
+        // Transpuesta por conteo: columna j -> filas i con A[i][j] = 1
+        inicioColumna = new int[n + 1];
+        for (int columna : columnasFila) {
+            inicioColumna[columna + 1]++;
+        }
+        for (int j = 0; j < n; j++) {
+            inicioColumna[j + 1] += inicioColumna[j];
+        }
+        filasColumna = new int[columnasFila.length];
+        int[] escritura = Arrays.copyOf(inicioColumna, n);
+        for (int i = 0; i < n; i++) {
+            for (int p = inicioFila[i]; p < inicioFila[i + 1]; p++) {
+                filasColumna[escritura[columnasFila[p]]++] = i;
+            }
+        }
+    }
+
+    // ===== PRODUCTO BOOLEANO =====
+
+    /**
+     * A empaquetada en bits (N² / 8 bytes)
+     * @throws IllegalStateException si supera el límite de memoria densa
+     */
+    public MatrizBits getAdyacenciaBits() {
+        if (adyacenciaBits == null) {
+            validarMemoria(MatrizBits.bytesPara(n, n), 1);
+            MatrizBits bits = new MatrizBits(n, n);
+            for (int i = 0; i < n; i++) {
+                for (int p = inicioFila[i]; p < inicioFila[i + 1]; p++) {
+                    bits.set(i, columnasFila[p]);
+                }
+            }
+            adyacenciaBits = bits;
+        }
+        return adyacenciaBits;
+    }
+
+    /**
+     * Producto booleano C = A · B, en paralelo por bloques de filas
+     * Fila i de C: OR de las filas k de B con A[i][k] = 1
+     * @throws IllegalArgumentException si las dimensiones no coinciden
+     */
+    public MatrizBits multiplicar(MatrizBits a, MatrizBits b) {
+        if (a.getColumnas() != b.getFilas()) {
+            throw new IllegalArgumentException("Dimensiones incompatibles: "
+                    + a.getFilas() + "x" + a.getColumnas() + " · " + b.getFilas() + "x" + b.getColumnas());
+        }
+        validarMemoria(MatrizBits.bytesPara(a.getFilas(), b.getColumnas()), 1);
+        MatrizBits c = new MatrizBits(a.getFilas(), b.getColumnas());
+        int palabrasA = a.palabrasPorFila;
+        int palabrasB = b.palabrasPorFila;
+
+        enParalelo(a.getFilas(), FILAS_POR_TAREA, (desde, hasta) -> {
+            for (int i = desde; i < hasta; i++) {
+                int baseC = i * palabrasB;
+                for (int w = 0; w < palabrasA; w++) {
+                    long palabra = a.bits[i * palabrasA + w];
+                    while (palabra != 0) {  // Un OR de fila por cada bit encendido
+                        int k = (w << 6) + Long.numberOfTrailingZeros(palabra);
+                        palabra &= palabra - 1;
+                        int baseB = k * palabrasB;
+                        for (int x = 0; x < palabrasB; x++) {
+                            c.bits[baseC + x] |= b.bits[baseB + x];
+                        }
+                    }
+                }
+            }
+        });
+        return c;
+    }
+
+    /**
+     * Potencia booleana por cuadrados repetidos
+     * @param k exponente (cantidad de movimientos)
+     * @param hasta false: A^k (exactamente k); true: (I + A)^k (a lo sumo k)
+     * @return matriz N x N; (i, j) = 1 si j se alcanza desde i
+     * @throws IllegalStateException si las matrices no caben en el límite de memoria
+     */
+    public MatrizBits potencia(long k, boolean hasta) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k debe ser >= 0: " + k);
+        }
+        validarMemoria(MatrizBits.bytesPara(n, n), 4);  // Base, cuadrado, resultado y producto
+        if (k == 0) {
+            return identidad();
+        }
+
+        MatrizBits base = copiar(getAdyacenciaBits());
+        if (hasta) {
+            for (int i = 0; i < n; i++) {
+                base.set(i, i);
+            }
+        }
+
+        MatrizBits resultado = null;  // null = identidad
+        while (k > 0) {
+            if ((k & 1) != 0) {
+                resultado = resultado == null ? base : multiplicar(resultado, base);
+            }
+            k >>>= 1;
+            if (k > 0) {
+                MatrizBits cuadrado = multiplicar(base, base);
+                if (Arrays.equals(cuadrado.bits, base.bits)) {
+                    // B² = B: cualquier potencia positiva restante es B
+                    resultado = resultado == null ? base : multiplicar(resultado, base);
+                    break;
+                }
+                base = cuadrado;
+            }
+        }
+        return resultado;
+    }
+
+    // ===== ALCANCE DESDE UN ORIGEN =====
+
+    /**
+     * Nodos en los que puede estar una caminata de exactamente k movimientos
+     * desde el origen (puede pasar varias veces por la misma celda)
+     * @param origen índice de matriz del origen
+     * @param k cantidad de movimientos (cualquier valor >= 0)
+     * @return bit j encendido si j es alcanzable
+     */
+    public BitSet alcanzablesExactamente(int origen, long k) {
+        return alcanzables(origen, k, false);
+    }
+
+    /**
+     * Nodos a distancia a lo sumo k del origen
+     * @param origen índice de matriz del origen
+     * @param k cantidad máxima de movimientos (cualquier valor >= 0)
+     * @return bit j encendido si j es alcanzable
+     */
+    public BitSet alcanzablesHasta(int origen, long k) {
+        return alcanzables(origen, k, true);
+    }
+
+    /**
+     * Avanza el vector de bits v(t+1) = v(t) · (A o I + A) hasta k,
+     * o hasta detectar v(t+1) = v(t-1) (período 1 o 2)
+     */
+    private BitSet alcanzables(int origen, long k, boolean conIdentidad) {
+        validarIndice(origen);
+        if (k < 0) {
+            throw new IllegalArgumentException("k debe ser >= 0: " + k);
+        }
+        int palabras = (n + 63) >>> 6;
+        long[] anterior = null;
+        long[] actual = new long[palabras];
+        long[] siguiente = new long[palabras];
+        actual[origen >>> 6] |= 1L << origen;
+
+        for (long t = 0; t < k; t++) {
+            paso(actual, siguiente, conIdentidad);
+            if (anterior != null && Arrays.equals(siguiente, anterior)) {
+                // Desde acá se repite cada 2 pasos: elegir por paridad
+                long restantes = k - (t + 1);
+                return BitSet.valueOf(restantes % 2 == 0 ? siguiente : actual);
+            }
+            long[] libre = anterior != null ? anterior : new long[palabras];
+            anterior = actual;
+            actual = siguiente;
+            siguiente = libre;
+        }
+        return BitSet.valueOf(actual);
+    }
+
+    /**
+     * Un paso "pull": el nodo j queda encendido si alguna fila i con
+     * A[i][j] = 1 está encendida. Cada tarea escribe sus propias palabras.
+     */
+    private void paso(long[] actual, long[] siguiente, boolean conIdentidad) {
+        enParalelo(siguiente.length, PALABRAS_POR_TAREA, (desde, hasta) -> {
+            for (int w = desde; w < hasta; w++) {
+                long palabra = conIdentidad ? actual[w] : 0L;
+                for (int j = w << 6, fin = Math.min(n, (w + 1) << 6); j < fin; j++) {
+                    if ((palabra & (1L << j)) != 0) {
+                        continue;
+                    }
+                    for (int p = inicioColumna[j]; p < inicioColumna[j + 1]; p++) {
+                        int i = filasColumna[p];
+                        if ((actual[i >>> 6] & (1L << i)) != 0) {
+                            palabra |= 1L << j;
+                            break;
+                        }
+                    }
+                }
+                siguiente[w] = palabra;
+            }
+        });
+    }
+
+    // ===== CONTEO DE CAMINATAS (MÓDULO p) =====
+
+    /**
+     * Cantidad de caminatas de largo exactamente k entre dos nodos, módulo p
+     * (A^k[origen][destino] mod p)
+     * @param origen índice de matriz del origen
+     * @param destino índice de matriz del destino
+     * @param k largo de la caminata
+     * @param modulo p, entre 1 y Integer.MAX_VALUE
+     */
+    public long contarCaminatas(int origen, int destino, long k, long modulo) {
+        validarIndice(origen);
+        validarIndice(destino);
+        if (k < 0) {
+            throw new IllegalArgumentException("k debe ser >= 0: " + k);
+        }
+        if (modulo < 1 || modulo > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("El módulo debe estar entre 1 y " + Integer.MAX_VALUE + ": " + modulo);
+        }
+        if (modulo == 1) {
+            return 0;
+        }
+        return usarPotencias(k)
+                ? contarPorPotencias(origen, destino, k, modulo)
+                : contarPorPasos(origen, destino, k, modulo);
+    }
+
+    /**
+     * Operaciones estimadas de contarCaminatas para este k, con la
+     * estrategia que se va a elegir: k pasos sobre las E aristas o log2(k)
+     * productos N³. Sirve para no lanzar un conteo que no termina a tiempo.
+     * @param k largo de la caminata
+     * @return cantidad aproximada de sumas
+     */
+    public double costoContarCaminatas(long k) {
+        return usarPotencias(k) ? costoPotencias(k) : costoPasos(k);
+    }
+
+    /**
+     * Cuadrados repetidos solo si la matriz densa de long cabe en memoria
+     * y log2(k) productos N³ cuestan menos que k pasos sobre las E aristas
+     */
+    private boolean usarPotencias(long k) {
+        long bytes = 8L * n * n;
+        if ((long) n * n > Integer.MAX_VALUE - 8 || 3 * bytes > limiteBytesDensa) {
+            return false;
+        }
+        return costoPotencias(k) < costoPasos(k);
+    }
+
+    private double costoPasos(long k) {
+        return (double) k * Math.max(1, columnasFila.length);
+    }
+
+    private double costoPotencias(long k) {
+        return 2.0 * (64 - Long.numberOfLeadingZeros(k)) * n * (double) n * n;
+    }
+
+    /**
+     * k pasos v(t+1)[j] = suma de v(t)[i] con A[i][j] = 1, en paralelo por bloques
+     */
+    private long contarPorPasos(int origen, int destino, long k, long modulo) {
+        long[] actual = new long[n];
+        long[] siguiente = new long[n];
+        actual[origen] = 1;
+
+        for (long t = 0; t < k; t++) {
+            long[] vector = actual;
+            long[] destinoPaso = siguiente;
+            enParalelo(n, FILAS_POR_TAREA * 64, (desde, hasta) -> {
+                for (int j = desde; j < hasta; j++) {
+                    long suma = 0;
+                    for (int p = inicioColumna[j]; p < inicioColumna[j + 1]; p++) {
+                        suma += vector[filasColumna[p]];
+                        if (suma >= LIMITE_SUMA) {
+                            suma %= modulo;
+                        }
+                    }
+                    destinoPaso[j] = suma % modulo;
+                }
+            });
+            siguiente = actual;
+            actual = destinoPaso;
+        }
+        return actual[destino];
+    }
+
+    /**
+     * v · A^k con A^(2^i) por cuadrados repetidos (matrices densas de long)
+     */
+    private long contarPorPotencias(int origen, int destino, long k, long modulo) {
+        long[] base = new long[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int p = inicioFila[i]; p < inicioFila[i + 1]; p++) {
+                base[i * n + columnasFila[p]] = 1;
+            }
+        }
+        long[] vector = new long[n];
+        vector[origen] = 1;
+
+        while (k > 0) {
+            if ((k & 1) != 0) {
+                vector = vectorPorMatriz(vector, base, modulo);
+            }
+            k >>>= 1;
+            if (k > 0) {
+                base = productoModular(base, base, modulo);
+            }
+        }
+        return vector[destino];
+    }
+
+    /**
+     * C = A · B (mod p), en paralelo por bloques de filas
+     * Los factores son < p < 2^31, así cada producto es < 2^62 y la suma
+     * solo se reduce cuando el acumulador pasa de 2^62
+     */
+    private long[] productoModular(long[] a, long[] b, long modulo) {
+        long[] c = new long[n * n];
+        enParalelo(n, FILAS_POR_TAREA, (desde, hasta) -> {
+            long[] acumulado = new long[n];
+            for (int i = desde; i < hasta; i++) {
+                Arrays.fill(acumulado, 0);
+                for (int k = 0; k < n; k++) {
+                    long x = a[i * n + k];
+                    if (x == 0) {
+                        continue;
+                    }
+                    int baseB = k * n;
+                    for (int j = 0; j < n; j++) {
+                        long suma = acumulado[j] + x * b[baseB + j];
+                        acumulado[j] = suma >= LIMITE_SUMA ? suma % modulo : suma;
+                    }
+                }
+                for (int j = 0; j < n; j++) {
+                    c[i * n + j] = acumulado[j] % modulo;
+                }
+            }
+        });
+        return c;
+    }
+
+    /**
+     * v · M (mod p), fila por fila
+     */
+    private long[] vectorPorMatriz(long[] vector, long[] matriz, long modulo) {
+        long[] resultado = new long[n];
+        for (int i = 0; i < n; i++) {
+            long x = vector[i];
+            if (x == 0) {
+                continue;
+            }
+            int base = i * n;
+            for (int j = 0; j < n; j++) {
+                long suma = resultado[j] + x * matriz[base + j];
+                resultado[j] = suma >= LIMITE_SUMA ? suma % modulo : suma;
+            }
+        }
+        for (int j = 0; j < n; j++) {
+            resultado[j] %= modulo;
+        }
+        return resultado;
+    }
+
+    // ===== UTILIDADES =====
+
+    /**
+     * Ejecuta la operación sobre [0, total) repartida en el pool de esta instancia
+     */
+    private void enParalelo(int total, int minimo, BloquesParalelos.OperacionBloque operacion) {
+        BloquesParalelos.enParalelo(pool, total, minimo, operacion);
+    }
+
+    private MatrizBits identidad() {
+        MatrizBits identidad = new MatrizBits(n, n);
+        for (int i = 0; i < n; i++) {
+            identidad.set(i, i);
+        }
+        return identidad;
+    }
+
+    private MatrizBits copiar(MatrizBits original) {
+        MatrizBits copia = new MatrizBits(original.getFilas(), original.getColumnas());
+        System.arraycopy(original.bits, 0, copia.bits, 0, original.bits.length);
+        return copia;
+    }
+
+    private void validarIndice(int indice) {
+        if (indice < 0 || indice >= n) {
+            throw new IllegalArgumentException("Índice de nodo fuera de rango: " + indice);
+        }
+    }
+
+    /**
+     * Verifica que 'cantidad' matrices de 'bytes' quepan en el límite
+     */
+    private void validarMemoria(long bytes, int cantidad) {
+        if (bytes / 8 > Integer.MAX_VALUE - 8 || bytes * cantidad > limiteBytesDensa) {
+            throw new IllegalStateException(String.format(
+                    "Matrices densas demasiado grandes: %d MB (límite %d MB)",
+                    bytes * cantidad >> 20, limiteBytesDensa >> 20));
+        }
+    }
+
+    /**
+     * Cambia la memoria máxima permitida para matrices densas
+     * (por defecto, un cuarto del heap máximo)
+     */
+    public void setLimiteBytesDensa(long limiteBytesDensa) {
+        this.limiteBytesDensa = limiteBytesDensa;
+    }
+
+    public long getLimiteBytesDensa() {
+        return limiteBytesDensa;
+    }
+
+    public int getCantidadNodos() {
+        return n;
+    }
+}
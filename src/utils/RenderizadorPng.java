@@ -0,0 +1,405 @@
+package utils;
+
+import grafo.GrafoLectura;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * ============================================================
+ * CLASE: RenderizadorPng
+ * ============================================================
+ * Dibuja un laberinto resuelto sin interfaz gráfica (sirve en modo
+ * headless y en procesos por lotes):
+ *
+ *   - Paredes negras, celdas libres blancas, A verde, B roja
+ *   - Mapa de calor de la exploración: cada celda visitada toma el
+ *     color de su primer paso (azul = temprano ... rojo = tarde)
+ *   - Camino encima, en magenta
+ *
+ * Cada celda es un cuadrado de escala x escala píxeles de un solo
+ * color, así que una fila de píxeles se arma con una pasada por la
+ * fila del mapa y las demás filas de la celda son copias.
+ *
+ * Dos salidas:
+ *   - renderizar(): BufferedImage completa, llenada por bloques de filas
+ *     en paralelo (BloquesParalelos); para imágenes que entran en memoria
+ *   - escribirPng(ruta): PNG en streaming, por bandas de filas. Cada
+ *     banda se dibuja y se comprime (deflate crudo con SYNC_FLUSH) en
+ *     paralelo; las bandas se escriben en orden como IDAT y se unen en
+ *     un único flujo zlib (el Adler-32 total se combina a partir del de
+ *     cada banda). En memoria solo hay unas pocas bandas a la vez, así
+ *     que el tamaño de la imagen no está limitado por el heap.
+ */
+public class RenderizadorPng {
+    // ===== CONSTANTES =====
+    private static final int COLOR_PARED = 0x000000;
+    private static final int COLOR_LIBRE = 0xFFFFFF;
+    private static final int COLOR_A = 0x00B200;       // Color.GREEN.darker(), como en la GUI
+    private static final int COLOR_B = 0xB20000;       // Color.RED.darker()
+    private static final int COLOR_CAMINO = 0xC71585;  // Magenta del camino en la GUI
+    private static final int[] PARADAS_CALOR = {0x0000FF, 0x00FFFF, 0xFFFF00, 0xFF0000}; // Azul, cian, amarillo, rojo
+    private static final int PIXELES_POR_BANDA = 1 << 20;  // ~3 MB de RGB crudo por banda
+    private static final int FILAS_POR_TAREA = 16;         // Filas de píxeles por tarea hoja en renderizar()
+    private static final byte[] FIRMA_PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    // ===== ATRIBUTOS =====
+    private final char[][] mapa;
+    private final GrafoLectura grafo;
+    private final int filas;
+    private final int columnas;
+    private final ForkJoinPool pool;
+    private final int[] paleta = new int[256];  // Mapa de calor precalculado
+    private int escala = 1;                     // Píxeles por lado de celda
+    private int nivelCompresion = Deflater.BEST_SPEED;
+    private LineaTiempo recorrido;              // Orden de visita (null = sin mapa de calor)
+    private final BitSet camino = new BitSet(); // Bit fila * columnas + columna
+
+    /**
+     * Banda de filas ya comprimida, lista para escribir en orden
+     */
+    private static final class Banda {
+        final byte[] datos;
+        final int largo;
+        final long adler;      // Adler-32 de los bytes crudos de la banda
+        final long crudos;     // Cantidad de bytes crudos
+
+        Banda(byte[] datos, int largo, long adler, long crudos) {
+            this.datos = datos;
+            this.largo = largo;
+            this.adler = adler;
+            this.crudos = crudos;
+        }
+    }
+
+    /**
+     * Constructor: usa el pool común de ForkJoin
+     * @param mapa el mapa del laberinto
+     * @param grafo grafo del mapa (para ubicar la celda de cada nodo)
+     */
+    public RenderizadorPng(char[][] mapa, GrafoLectura grafo) {
+        this(mapa, grafo, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor
+     * @param mapa el mapa del laberinto
+     * @param grafo grafo del mapa
+     * @param pool pool donde se reparten las filas y las bandas
+     */
+    public RenderizadorPng(char[][] mapa, GrafoLectura grafo, ForkJoinPool pool) {
+        this.mapa = mapa;
+        this.grafo = grafo;
+        this.filas = mapa.length;
+        this.columnas = mapa[0].length;
+        this.pool = pool;
+        for (int k = 0; k < paleta.length; k++) {
+            paleta[k] = interpolarCalor(k / 255.0);
+        }
+    }
+
+    // ===== CONFIGURACIÓN =====
+
+    /**
+     * @param escala píxeles por lado de celda (>= 1)
+     */
+    public void setEscala(int escala) {
+        if (escala < 1) {
+            throw new IllegalArgumentException("La escala debe ser >= 1: " + escala);
+        }
+        this.escala = escala;
+    }
+
+    /**
+     * @param nivel nivel de deflate (0..9); BEST_SPEED por defecto
+     */
+    public void setNivelCompresion(int nivel) {
+        this.nivelCompresion = nivel;
+    }
+
+    /**
+     * Orden de visita para el mapa de calor (null = sin mapa de calor)
+     */
+    public void setRecorrido(LineaTiempo recorrido) {
+        this.recorrido = recorrido;
+    }
+
+    /**
+     * Orden de visita como lista de IDs
+     */
+    public void setRecorrido(List<Integer> orden) {
+        LineaTiempo linea = new LineaTiempo(grafo, filas, columnas);
+        for (int id : orden) {
+            linea.agregar(id);
+        }
+        this.recorrido = linea;
+    }
+
+    /**
+     * Camino a dibujar encima (lista de IDs; vacía o null = ninguno)
+     */
+    public void setCamino(List<Integer> nodos) {
+        camino.clear();
+        if (nodos == null) return;
+        for (int id : nodos) {
+            camino.set(grafo.getX(id) * columnas + grafo.getY(id));
+        }
+    }
+
+    public long getAncho() {
+        return (long) columnas * escala;
+    }
+
+    public long getAlto() {
+        return (long) filas * escala;
+    }
+
+    // ===== SALIDAS =====
+
+    /**
+     * Imagen completa en memoria, llenada en paralelo por bloques de filas
+     * @throws IllegalStateException si no entra en un BufferedImage (usar escribirPng)
+     */
+    public BufferedImage renderizar() {
+        if (getAncho() * getAlto() > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("La imagen (" + getAncho() + "x" + getAlto()
+                    + ") no entra en memoria; use escribirPng");
+        }
+        int ancho = (int) getAncho();
+        int alto = (int) getAlto();
+        BufferedImage imagen = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        int[] pixeles = ((DataBufferInt) imagen.getRaster().getDataBuffer()).getData();
+        BloquesParalelos.enParalelo(pool, alto, FILAS_POR_TAREA, (desde, hasta) -> {
+            for (int y = desde; y < hasta; y++) {
+                if (y % escala != 0 && y != desde) {
+                    // Misma fila del mapa que la anterior: copia
+                    System.arraycopy(pixeles, (y - 1) * ancho, pixeles, y * ancho, ancho);
+                } else {
+                    llenarFila(y / escala, pixeles, y * ancho);
+                }
+            }
+        });
+        return imagen;
+    }
+
+    /**
+     * Escribe el PNG por bandas, comprimidas en paralelo
+     * @param ruta archivo de salida (se sobrescribe)
+     * @return bytes escritos
+     * @throws IOException si no se puede escribir el archivo
+     */
+    public long escribirPng(Path ruta) throws IOException {
+        long bytesFila = 1 + 3 * getAncho();  // Byte de filtro + RGB
+        if (bytesFila > Integer.MAX_VALUE - 8 || getAlto() > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Imagen demasiado grande para PNG: " + getAncho() + "x" + getAlto());
+        }
+        int alto = (int) getAlto();
+        int filasPorBanda = (int) Math.max(1, Math.min(alto, PIXELES_POR_BANDA / getAncho()));
+        int bandas = (alto + filasPorBanda - 1) / filasPorBanda;
+        int ventana = Math.max(2, pool.getParallelism() * 2);  // Bandas en vuelo a la vez
+
+        try (OutputStream archivo = Files.newOutputStream(ruta);
+             DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(archivo, 1 << 16))) {
+            salida.write(FIRMA_PNG);
+            escribirCabecera(salida);
+
+            long adler = 1;  // Adler-32 de cero bytes
+            boolean primera = true;
+            for (int inicio = 0; inicio < bandas; inicio += ventana) {
+                List<Future<Banda>> pendientes = new ArrayList<>();
+                for (int b = inicio; b < Math.min(bandas, inicio + ventana); b++) {
+                    int desde = b * filasPorBanda;
+                    int hasta = Math.min(alto, desde + filasPorBanda);
+                    boolean ultima = b == bandas - 1;
+                    pendientes.add(pool.submit(() -> comprimirBanda(desde, hasta, ultima)));
+                }
+                for (Future<Banda> pendiente : pendientes) {
+                    Banda banda = esperar(pendiente);
+                    adler = combinarAdler(adler, banda.adler, banda.crudos);
+                    if (primera) {
+                        escribirChunk(salida, "IDAT", new byte[] {0x78, 0x01}, 2);  // Cabecera zlib
+                        primera = false;
+                    }
+                    escribirChunk(salida, "IDAT", banda.datos, banda.largo);
+                }
+            }
+            byte[] cola = {(byte) (adler >>> 24), (byte) (adler >>> 16), (byte) (adler >>> 8), (byte) adler};
+            escribirChunk(salida, "IDAT", cola, cola.length);
+            escribirChunk(salida, "IEND", new byte[0], 0);
+            salida.flush();
+            return salida.size();
+        }
+    }
+
+    // ===== DIBUJO =====
+
+    /**
+     * Una fila de píxeles de la fila i del mapa
+     */
+    private void llenarFila(int i, int[] destino, int desde) {
+        int p = desde;
+        for (int j = 0; j < columnas; j++) {
+            int color = colorCelda(i, j);
+            for (int k = 0; k < escala; k++) {
+                destino[p++] = color;
+            }
+        }
+    }
+
+    private int colorCelda(int i, int j) {
+        char c = mapa[i][j];
+        if (c == '*') return COLOR_PARED;
+        if (c == 'A') return COLOR_A;
+        if (c == 'B') return COLOR_B;
+        if (camino.get(i * columnas + j)) return COLOR_CAMINO;
+        if (recorrido != null) {
+            int paso = recorrido.getPasoDeCelda(i, j);
+            if (paso != LineaTiempo.SIN_VISITAR) {
+                long ultimo = Math.max(1, recorrido.getLongitud() - 1);
+                return paleta[(int) (paso * 255L / ultimo)];
+            }
+        }
+        return COLOR_LIBRE;
+    }
+
+    /**
+     * Color del mapa de calor para t en [0, 1], interpolando entre paradas
+     */
+    private static int interpolarCalor(double t) {
+        double posicion = t * (PARADAS_CALOR.length - 1);
+        int tramo = Math.min(PARADAS_CALOR.length - 2, (int) posicion);
+        double f = posicion - tramo;
+        int a = PARADAS_CALOR[tramo];
+        int b = PARADAS_CALOR[tramo + 1];
+        int r = (int) Math.round(((a >> 16) & 0xFF) * (1 - f) + ((b >> 16) & 0xFF) * f);
+        int g = (int) Math.round(((a >> 8) & 0xFF) * (1 - f) + ((b >> 8) & 0xFF) * f);
+        int bl = (int) Math.round((a & 0xFF) * (1 - f) + (b & 0xFF) * f);
+        return (r << 16) | (g << 8) | bl;
+    }
+
+    // ===== PNG =====
+
+    /**
+     * Dibuja las filas [desde, hasta) como bytes PNG (filtro 0 + RGB) y
+     * los comprime como deflate crudo; la última banda cierra el flujo
+     */
+    private Banda comprimirBanda(int desde, int hasta, boolean ultima) {
+        int ancho = (int) getAncho();
+        int bytesFila = 1 + 3 * ancho;
+        byte[] crudos = new byte[bytesFila * (hasta - desde)];
+        int[] fila = new int[ancho];
+        int filaMapa = -1;
+        for (int y = desde; y < hasta; y++) {
+            int base = (y - desde) * bytesFila;  // crudos[base] = 0: sin filtro
+            if (y / escala == filaMapa) {
+                System.arraycopy(crudos, base - bytesFila, crudos, base, bytesFila);
+                continue;
+            }
+            filaMapa = y / escala;
+            llenarFila(filaMapa, fila, 0);
+            for (int x = 0, p = base + 1; x < ancho; x++) {
+                int color = fila[x];
+                crudos[p++] = (byte) (color >> 16);
+                crudos[p++] = (byte) (color >> 8);
+                crudos[p++] = (byte) color;
+            }
+        }
+
+        Adler32 adler = new Adler32();
+        adler.update(crudos, 0, crudos.length);
+
+        Deflater deflater = new Deflater(nivelCompresion, true);  // Sin cabecera: se unen las bandas
+        deflater.setInput(crudos);
+        if (ultima) deflater.finish();
+        byte[] salida = new byte[Math.max(64, crudos.length / 4)];
+        int largo = 0;
+        boolean completo;
+        do {
+            if (largo == salida.length) {
+                salida = Arrays.copyOf(salida, salida.length * 2);
+            }
+            largo += deflater.deflate(salida, largo, salida.length - largo,
+                    ultima ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+            // SYNC_FLUSH terminó si no llenó el espacio disponible; finish, al marcar finished()
+            completo = ultima ? deflater.finished() : largo < salida.length;
+        } while (!completo);
+        deflater.end();
+        return new Banda(salida, largo, adler.getValue(), crudos.length);
+    }
+
+    private void escribirCabecera(DataOutputStream salida) throws IOException {
+        byte[] ihdr = new byte[13];
+        escribirEntero(ihdr, 0, (int) getAncho());
+        escribirEntero(ihdr, 4, (int) getAlto());
+        ihdr[8] = 8;   // Bits por canal
+        ihdr[9] = 2;   // Color verdadero (RGB)
+        ihdr[10] = 0;  // Deflate
+        ihdr[11] = 0;  // Filtrado adaptativo estándar
+        ihdr[12] = 0;  // Sin entrelazado
+        escribirChunk(salida, "IHDR", ihdr, ihdr.length);
+    }
+
+    private static void escribirChunk(DataOutputStream salida, String tipo, byte[] datos, int largo) throws IOException {
+        byte[] bytesTipo = tipo.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(bytesTipo);
+        crc.update(datos, 0, largo);
+        salida.writeInt(largo);
+        salida.write(bytesTipo);
+        salida.write(datos, 0, largo);
+        salida.writeInt((int) crc.getValue());
+    }
+
+    private static void escribirEntero(byte[] destino, int desde, int valor) {
+        destino[desde] = (byte) (valor >>> 24);
+        destino[desde + 1] = (byte) (valor >>> 16);
+        destino[desde + 2] = (byte) (valor >>> 8);
+        destino[desde + 3] = (byte) valor;
+    }
+
+    /**
+     * Adler-32 de la concatenación a partir del de cada parte (como
+     * adler32_combine de zlib)
+     */
+    static long combinarAdler(long adler1, long adler2, long largo2) {
+        final long base = 65521;
+        long resto = largo2 % base;
+        long suma1 = adler1 & 0xFFFF;
+        long suma2 = (resto * suma1) % base;
+        suma1 += (adler2 & 0xFFFF) + base - 1;
+        suma2 += ((adler1 >>> 16) & 0xFFFF) + ((adler2 >>> 16) & 0xFFFF) + base - resto;
+        if (suma1 >= base) suma1 -= base;
+        if (suma1 >= base) suma1 -= base;
+        if (suma2 >= base << 1) suma2 -= base << 1;
+        if (suma2 >= base) suma2 -= base;
+        return suma1 | (suma2 << 16);
+    }
+
+    private static Banda esperar(Future<Banda> pendiente) throws IOException {
+        try {
+            return pendiente.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Escritura del PNG interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error al dibujar una banda del PNG", e.getCause());
+        }
+    }
+}
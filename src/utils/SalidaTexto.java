@@ -0,0 +1,282 @@
+package utils;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * ============================================================
+ * CLASE: SalidaTexto
+ * ============================================================
+ * Salida de texto con buffer para los métodos imprimir* (mapas, caminos,
+ * recorridos). System.out.print por carácter cuesta una llamada
+ * sincronizada por carácter (y un flush por línea); aquí los caracteres
+ * se acumulan en un CharBuffer reutilizable, se codifican a un
+ * ByteBuffer directo y se escriben al canal en bloques de 64 KB.
+ *
+ * Destinos:
+ *   - consola(): la salida estándar (mismo charset que System.out; antes
+ *     de cada escritura se vacía System.out para no desordenar el texto)
+ *   - archivo(ruta): un FileChannel, en UTF-8
+ *
+ * Truncado (para salidas enormes): con setLimites se fija un máximo de
+ * líneas por bloque y de caracteres por línea (0 = sin límite, el valor
+ * inicial de todos los destinos, también la consola). Lo que
+ * sobra no se escribe y se resume: "… [+N caracteres]" al final de la
+ * línea y "… [+N líneas]" al terminar el bloque (terminarBloque()).
+ *
+ * Una instancia reutiliza sus buffers: no es segura entre hilos.
+ * Los errores de escritura se lanzan como UncheckedIOException.
+ */
+public class SalidaTexto {
+    // ===== CONSTANTES =====
+    private static final int TAMANO_BUFFER = 1 << 16;          // 64 KB por escritura
+
+    private static SalidaTexto consola;
+
+    // ===== ATRIBUTOS =====
+    private final WritableByteChannel canal;
+    private final boolean esConsola;           // No se cierra; se sincroniza con System.out
+    private final CharsetEncoder codificador;
+    private final CharBuffer caracteres = CharBuffer.allocate(TAMANO_BUFFER);
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(TAMANO_BUFFER);
+    private long bytesEscritos;
+
+    private int maxLineas;          // 0 = sin límite
+    private int maxColumnas;        // 0 = sin límite
+    private int linea;              // Líneas completas en el bloque actual
+    private int columna;            // Caracteres en la línea actual
+    private long omitidosEnLinea;   // Caracteres descartados de la línea actual
+    private long lineasOmitidas;    // Líneas descartadas del bloque actual
+
+    private SalidaTexto(WritableByteChannel canal, Charset charset, boolean esConsola) {
+        this.canal = canal;
+        this.esConsola = esConsola;
+        this.codificador = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);  // '?' como PrintStream
+    }
+
+    /**
+     * Salida estándar compartida, sin límites (ver setLimites)
+     */
+    public static synchronized SalidaTexto consola() {
+        if (consola == null) {
+            String nombre = System.getProperty("sun.stdout.encoding");  // El de System.out, si se fijó
+            Charset charset = nombre != null && Charset.isSupported(nombre)
+                    ? Charset.forName(nombre) : Charset.defaultCharset();
+            consola = new SalidaTexto(new FileOutputStream(FileDescriptor.out).getChannel(), charset, true);
+        }
+        return consola;
+    }
+
+    /**
+     * Salida a archivo en UTF-8, sin límites
+     * @param ruta archivo de salida (se sobrescribe)
+     * @throws IOException si no se puede abrir el archivo
+     */
+    public static SalidaTexto archivo(Path ruta) throws IOException {
+        FileChannel canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        return new SalidaTexto(canal, StandardCharsets.UTF_8, false);
+    }
+
+    /**
+     * @param maxLineas líneas por bloque (0 = sin límite)
+     * @param maxColumnas caracteres por línea (0 = sin límite)
+     */
+    public void setLimites(int maxLineas, int maxColumnas) {
+        this.maxLineas = maxLineas;
+        this.maxColumnas = maxColumnas;
+    }
+
+    public boolean esConsola() {
+        return esConsola;
+    }
+
+    /**
+     * Bytes escritos al canal hasta ahora (sin contar lo pendiente)
+     */
+    public long getBytesEscritos() {
+        return bytesEscritos;
+    }
+
+    // ===== ESCRITURA =====
+
+    public void imprimir(char c) {
+        if (c == '\n') {
+            nuevaLinea();
+            return;
+        }
+        if (!admitir(1)) return;
+        if (!caracteres.hasRemaining()) volcarCaracteres();
+        caracteres.put(c);
+    }
+
+    public void imprimir(CharSequence texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            imprimir(texto.charAt(i));
+        }
+    }
+
+    /**
+     * Escribe una fila de caracteres (sin saltos de línea) en bloque
+     */
+    public void imprimir(char[] fila) {
+        imprimir(fila, 0, fila.length);
+    }
+
+    /**
+     * Escribe fila[desde .. desde + largo) en bloque (sin saltos de línea)
+     */
+    public void imprimir(char[] fila, int desde, int largo) {
+        int hasta = desde + admitidos(largo);
+        while (desde < hasta) {
+            if (!caracteres.hasRemaining()) volcarCaracteres();
+            int n = Math.min(hasta - desde, caracteres.remaining());
+            caracteres.put(fila, desde, n);
+            desde += n;
+        }
+    }
+
+    public void imprimirLinea(CharSequence texto) {
+        imprimir(texto);
+        nuevaLinea();
+    }
+
+    public void imprimirLinea(char[] fila) {
+        imprimir(fila);
+        nuevaLinea();
+    }
+
+    /**
+     * Termina la línea actual (con el resumen de lo truncado, si hubo)
+     */
+    public void nuevaLinea() {
+        if (maxLineas > 0 && linea >= maxLineas) {
+            lineasOmitidas++;
+        } else {
+            if (omitidosEnLinea > 0) {
+                escribirSinLimite(" … [+" + omitidosEnLinea + " caracteres]");
+            }
+            escribirSinLimite("\n");
+            linea++;
+        }
+        columna = 0;
+        omitidosEnLinea = 0;
+    }
+
+    /**
+     * Cierra un bloque de salida (un mapa, un recorrido...): escribe el
+     * resumen de las líneas omitidas, reinicia los contadores del
+     * truncado y vacía el buffer
+     */
+    public void terminarBloque() {
+        if (columna > 0 || omitidosEnLinea > 0) {
+            nuevaLinea();  // Línea a medias
+        }
+        if (lineasOmitidas > 0) {
+            escribirSinLimite("… [+" + lineasOmitidas + " líneas]\n");
+        }
+        linea = 0;
+        lineasOmitidas = 0;
+        vaciar();
+    }
+
+    /**
+     * Escribe todo lo pendiente en el canal
+     */
+    public void vaciar() {
+        volcarCaracteres();
+        escribirBytes();
+    }
+
+    /**
+     * Termina el bloque y cierra el canal (la consola solo se vacía)
+     */
+    public void cerrar() {
+        terminarBloque();
+        if (esConsola) return;
+        try {
+            canal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ===== TRUNCADO =====
+
+    /**
+     * Registra n caracteres en la línea actual
+     * @return true si se deben escribir (false si se truncan)
+     */
+    private boolean admitir(int n) {
+        return admitidos(n) == n;
+    }
+
+    /**
+     * Cuántos de los próximos n caracteres entran en los límites; el
+     * resto se cuenta como omitido
+     */
+    private int admitidos(int n) {
+        if (maxLineas > 0 && linea >= maxLineas) {
+            columna += n;  // La línea entera se descarta en nuevaLinea()
+            return 0;
+        }
+        int entran = maxColumnas > 0 ? Math.max(0, Math.min(n, maxColumnas - columna)) : n;
+        columna += n;
+        omitidosEnLinea += n - entran;
+        return entran;
+    }
+
+    private void escribirSinLimite(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            if (!caracteres.hasRemaining()) volcarCaracteres();
+            caracteres.put(texto.charAt(i));
+        }
+    }
+
+    // ===== CANAL =====
+
+    /**
+     * Codifica los caracteres pendientes al buffer de bytes (escribiendo
+     * al canal cuando se llena); un surrogate suelto queda para después
+     */
+    private void volcarCaracteres() {
+        caracteres.flip();
+        while (codificador.encode(caracteres, bytes, false).isOverflow()) {
+            escribirBytes();
+        }
+        caracteres.compact();
+    }
+
+    /**
+     * Escribe el contenido del buffer de bytes en el canal y lo deja vacío
+     */
+    private void escribirBytes() {
+        bytes.flip();
+        try {
+            if (esConsola && bytes.hasRemaining()) {
+                System.out.flush();  // Lo impreso antes con System.out va primero
+            }
+            while (bytes.hasRemaining()) {
+                bytesEscritos += canal.write(bytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            bytes.clear();
+        }
+    }
+}